@@ -0,0 +1,66 @@
+package cluedo.ai;
+
+import java.util.List;
+
+import cluedo.model.Card;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.GameListener;
+
+/**
+ * A computer player which makes the decisions for one character token.
+ * 	The game is played by whatever drives the turns, which asks the player
+ * 	for each decision and carries it out. Decisions may be asked for on
+ * 	any thread, but never while the game is being changed.
+ *
+ * 	Players are told of every suggestion through GameListener, and must
+ * 	only use the card shown when they made the suggestion themselves.
+ * @author Patrick
+ *
+ */
+public interface AIPlayer extends GameListener {
+
+	/**
+	 * Called once the cards have been dealt, before the first turn.
+	 * 	The player should add itself as a listener of the game.
+	 * @param game
+	 * @param me the token this player controls
+	 */
+	public void start(CluedoGame game, CharacterToken me);
+
+	/**
+	 * Returns true to take the secret passage instead of rolling the dice.
+	 * @param game
+	 * @return
+	 */
+	public boolean useStairs(CluedoGame game);
+
+	/**
+	 * Chooses the square to move to after rolling.
+	 * @param game
+	 * @return a square the player can reach or -1 to stay
+	 */
+	public int chooseMove(CluedoGame game);
+
+	/**
+	 * Chooses a suggestion in the room the player is in.
+	 * @param game
+	 * @return the suspect and weapon, or null to make no suggestion
+	 */
+	public Card[] chooseSuggestion(CluedoGame game);
+
+	/**
+	 * Chooses which card to show to refute another player's suggestion.
+	 * @param suggester
+	 * @param cards the cards the player holds which refute it, at least one
+	 * @return one of the cards
+	 */
+	public Card chooseRefutation(CharacterToken suggester, List<Card> cards);
+
+	/**
+	 * Chooses whether to accuse at the end of the turn.
+	 * @param game
+	 * @return the suspect, weapon and room, or null to make no accusation
+	 */
+	public Card[] chooseAccusation(CluedoGame game);
+}
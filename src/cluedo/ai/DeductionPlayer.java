@@ -0,0 +1,58 @@
+package cluedo.ai;
+
+import java.util.Random;
+
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.Deduction;
+import cluedo.model.SuggestionResult;
+
+/**
+ * A computer player which plays like HeuristicPlayer but works out what
+ * 	could be in the envelope from every suggestion it sees, not only its
+ * 	own, using a Deduction.
+ * @author Patrick
+ *
+ */
+public class DeductionPlayer extends HeuristicPlayer {
+
+	// what this player has worked out so far
+	private Deduction knowledge;
+
+	public DeductionPlayer() {
+		super();
+	}
+
+	public DeductionPlayer(Random random) {
+		super(random);
+	}
+
+	@Override
+	public synchronized void start(CluedoGame game, CharacterToken me) {
+		knowledge = new Deduction(game.getActivePlayers(), me);
+		super.start(game, me);
+	}
+
+	@Override
+	protected synchronized int possible() {
+		return knowledge.possibleSolution();
+	}
+
+	/**
+	 * Returns what this player has worked out so far.
+	 * @return
+	 */
+	public synchronized Deduction getKnowledge() {
+		return knowledge;
+	}
+
+	@Override
+	public synchronized void suggestionMade(SuggestionResult result) {
+		knowledge.observe(result);
+	}
+
+	@Override
+	public synchronized void accusationFailed(CharacterToken accuser, int cards) {
+		knowledge.accusationFailed(cards);
+	}
+}
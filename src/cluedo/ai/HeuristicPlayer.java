@@ -0,0 +1,177 @@
+package cluedo.ai;
+
+import java.util.List;
+import java.util.Random;
+
+import cluedo.model.Board;
+import cluedo.model.Card;
+import cluedo.model.Cards;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.CluedoGame.Room;
+import cluedo.model.SuggestionResult;
+
+/**
+ * A computer player which keeps track of the cards it has seen. It heads
+ * 	for the nearest room which could be the solution, suggests cards it
+ * 	has not seen, shows the same card again to a player who has already
+ * 	seen it, and accuses once only one card of each kind is left.
+ * @author Patrick
+ *
+ */
+public class HeuristicPlayer extends RandomPlayer {
+
+	private static final int[] KINDS = { Cards.CHARACTER_MASK, Cards.WEAPON_MASK, Cards.ROOM_MASK };
+
+	// the cards this player has held or been shown
+	private int seen;
+	// the cards found in the envelope because no one could refute them
+	private int found;
+	// true if every card outside the envelope was dealt to a player
+	private boolean allDealt;
+	// the cards this player has shown to each player, by uid
+	private int[] shownTo = new int[8];
+
+	public HeuristicPlayer() {
+		super();
+	}
+
+	public HeuristicPlayer(Random random) {
+		super(random);
+	}
+
+	@Override
+	public synchronized void start(CluedoGame game, CharacterToken me) {
+		super.start(game, me);
+		seen = me.getHandMask();
+		allDealt = (Cards.COUNT - 3) % game.getActivePlayers().size() == 0;
+	}
+
+	/**
+	 * Returns the cards which could still be in the envelope.
+	 * @return
+	 */
+	protected synchronized int possible() {
+		int possible = Cards.ALL & ~seen;
+		// a kind with a card known to be in the envelope has no other possible cards
+		for(int kind: KINDS){
+			if((found & kind) != 0) possible &= ~kind | found;
+		}
+		return possible;
+	}
+
+	@Override
+	public boolean useStairs(CluedoGame game) {
+		Room here = me.getRoom();
+		Room there = Board.oppositeRoom(here);
+		if(there == null) return false;
+		int possible = possible();
+		// leave a room already ruled out for one which is still possible
+		return (possible & Cards.bit(here)) == 0 && (possible & Cards.bit(there)) != 0;
+	}
+
+	@Override
+	public int chooseMove(CluedoGame game) {
+		Board board = game.getBoard();
+		int from = game.squareOf(me);
+		Room target = targetRoom(board, from);
+		if(target == null || target == me.getRoom()) return -1;
+		reachable.compute(game, me);
+		int square = reachable.nearestSquare(target);
+		if(square >= 0) return square;
+		// otherwise get as close to the room as the roll allows
+		int best = -1;
+		int bestDistance = board.distance(from, target);
+		for(int i = 1; i < reachable.count(); i++){
+			int d = board.distance(reachable.square(i), target);
+			if(d >= 0 && d < bestDistance){
+				best = reachable.square(i);
+				bestDistance = d;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the nearest room which could be the solution,
+	 * 	other than the one this player is in.
+	 * @param board
+	 * @param from
+	 * @return room or null if none can be reached
+	 */
+	protected Room targetRoom(Board board, int from) {
+		int possible = possible();
+		Room target = null;
+		int best = Integer.MAX_VALUE;
+		for(Room r: Room.values()){
+			if((possible & Cards.bit(r)) == 0 || r == me.getRoom()) continue;
+			int d = board.distance(from, r);
+			if(d >= 0 && d < best){
+				best = d;
+				target = r;
+			}
+		}
+		return target;
+	}
+
+	@Override
+	public Card[] chooseSuggestion(CluedoGame game) {
+		int possible = possible();
+		return new Card[] {
+				pick(possible & Cards.CHARACTER_MASK, Cards.CHARACTER_MASK),
+				pick(possible & Cards.WEAPON_MASK, Cards.WEAPON_MASK) };
+	}
+
+	/**
+	 * Picks a random card from a set, or from all the cards of its kind if the set is empty.
+	 * @param cards
+	 * @param kind
+	 * @return
+	 */
+	protected Card pick(int cards, int kind) {
+		if(cards == 0) cards = kind;
+		int n = random.nextInt(Integer.bitCount(cards));
+		for(int i = 0; i < n; i++){
+			cards &= cards - 1;
+		}
+		return Cards.card(Integer.numberOfTrailingZeros(cards));
+	}
+
+	@Override
+	public synchronized Card chooseRefutation(CharacterToken suggester, List<Card> cards) {
+		int uid = suggester.getUid();
+		// showing a card the suggester has already seen tells them nothing new
+		for(Card c: cards){
+			if((shownTo[uid] & Cards.bit(c)) != 0) return c;
+		}
+		Card card = super.chooseRefutation(suggester, cards);
+		shownTo[uid] |= Cards.bit(card);
+		return card;
+	}
+
+	@Override
+	public Card[] chooseAccusation(CluedoGame game) {
+		int possible = possible();
+		if(Integer.bitCount(possible & Cards.CHARACTER_MASK) != 1
+				|| Integer.bitCount(possible & Cards.WEAPON_MASK) != 1
+				|| Integer.bitCount(possible & Cards.ROOM_MASK) != 1){
+			return null;
+		}
+		return new Card[] {
+				Cards.card(Integer.numberOfTrailingZeros(possible & Cards.CHARACTER_MASK)),
+				Cards.card(Integer.numberOfTrailingZeros(possible & Cards.WEAPON_MASK)),
+				Cards.card(Integer.numberOfTrailingZeros(possible & Cards.ROOM_MASK)) };
+	}
+
+	@Override
+	public synchronized void suggestionMade(SuggestionResult result) {
+		if(result.getSuggester() != me) return;
+		if(result.refuted()){
+			seen |= Cards.bit(result.getCard());
+		} else if(allDealt){
+			// no one else holds them, so the ones not in this hand are in the envelope
+			int cards = Cards.bit(result.getSuspect()) | Cards.bit(result.getWeapon()) | Cards.bit(result.getRoom());
+			found |= cards & ~me.getHandMask();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package cluedo.ai;
+
+import java.util.List;
+import java.util.Random;
+
+import cluedo.model.Card;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.Position;
+import cluedo.model.ReachableSquares;
+import cluedo.model.SuggestionResult;
+import cluedo.model.Token;
+
+/**
+ * A computer player which moves to a random reachable square,
+ * 	suggests random cards and never accuses.
+ * @author Patrick
+ *
+ */
+public class RandomPlayer implements AIPlayer {
+
+	protected final Random random;
+	// the game being played and the token this player controls
+	protected CluedoGame game;
+	protected CharacterToken me;
+	// the search used to find the squares this player can reach
+	protected ReachableSquares reachable;
+
+	/**
+	 * Creates a player with its own random numbers.
+	 */
+	public RandomPlayer() {
+		this(new Random());
+	}
+
+	/**
+	 * Creates a player using a source of random numbers.
+	 * @param random
+	 */
+	public RandomPlayer(Random random) {
+		this.random = random;
+	}
+
+	@Override
+	public void start(CluedoGame game, CharacterToken me) {
+		this.game = game;
+		this.me = me;
+		this.reachable = new ReachableSquares(game.getBoard());
+		game.addListener(this);
+	}
+
+	@Override
+	public boolean useStairs(CluedoGame game) {
+		return false;
+	}
+
+	@Override
+	public int chooseMove(CluedoGame game) {
+		reachable.compute(game, me);
+		if(reachable.count() <= 1) return -1;
+		// any square but the one the player is on
+		return reachable.square(1 + random.nextInt(reachable.count() - 1));
+	}
+
+	@Override
+	public Card[] chooseSuggestion(CluedoGame game) {
+		CluedoGame.Character[] suspects = CluedoGame.Character.values();
+		CluedoGame.Weapon[] weapons = CluedoGame.Weapon.values();
+		return new Card[] { suspects[random.nextInt(suspects.length)], weapons[random.nextInt(weapons.length)] };
+	}
+
+	@Override
+	public Card chooseRefutation(CharacterToken suggester, List<Card> cards) {
+		return cards.get(random.nextInt(cards.size()));
+	}
+
+	@Override
+	public Card[] chooseAccusation(CluedoGame game) {
+		return null;
+	}
+
+	@Override
+	public void tokenMoved(Token token, Position from, Position to) {}
+
+	@Override
+	public void suggestionMade(SuggestionResult result) {}
+
+	@Override
+	public void accusationFailed(CharacterToken accuser, int cards) {}
+}
@@ -0,0 +1,113 @@
+package cluedo.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import cluedo.model.Board;
+import cluedo.model.Card;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+
+/**
+ * Plays a whole game between computer players without any gui,
+ * 	making every decision on the calling thread.
+ * @author Patrick
+ *
+ */
+public class SelfPlay {
+
+	// the characters given to the players, in seat order
+	private static final String[] CHARACTERS = { "Miss Scarlett", "Colonel Mustard", "Mrs White",
+			"The Reverend Green", "Mrs Peacock", "Professor Plum" };
+
+	// the seat of the winner or -1 if no one won
+	private final int winner;
+	// the number of turns played
+	private final int turns;
+
+	private SelfPlay(int winner, int turns) {
+		this.winner = winner;
+		this.turns = turns;
+	}
+
+	/**
+	 * Plays a game between players of some strategies, one per seat.
+	 * @param board
+	 * @param seats the strategy of each seat, 2 to 6 seats
+	 * @param seed the seed of the game's and the players' random numbers
+	 * @param maxTurns the turns played before the game is abandoned
+	 * @return
+	 */
+	public static SelfPlay play(Board board, Strategy[] seats, long seed, int maxTurns) {
+		Random random = new Random(seed);
+		List<CharacterToken> players = new ArrayList<CharacterToken>();
+		for(int i = 0; i < seats.length; i++){
+			players.add(new CharacterToken(seats[i].toString() + " " + (i + 1), i + 1, CHARACTERS[i]));
+		}
+		CluedoGame game = new CluedoGame(board, players, random.nextLong());
+		final AIPlayer[] bots = new AIPlayer[seats.length];
+		for(int i = 0; i < seats.length; i++){
+			bots[i] = seats[i].create(new Random(random.nextLong()));
+			bots[i].start(game, players.get(i));
+		}
+
+		game.begin();
+		int turns = 0;
+		while(!game.isOver() && turns < maxTurns){
+			final CharacterToken player = game.getCurrentPlayer();
+			AIPlayer bot = bots[player.getUid() - 1];
+			playTurn(game, player, bot, bots);
+			turns++;
+			if(!game.isOver()) game.nextPlayer();
+		}
+		CharacterToken winner = game.getWinner();
+		return new SelfPlay(winner == null ? -1 : winner.getUid() - 1, turns);
+	}
+
+	/**
+	 * Plays one turn of a computer player.
+	 * @param game
+	 * @param player
+	 * @param bot
+	 * @param bots the player of each seat, who choose the cards they show
+	 */
+	private static void playTurn(CluedoGame game, final CharacterToken player, AIPlayer bot, final AIPlayer[] bots) {
+		if(bot.useStairs(game) && game.canUseStairs(player)){
+			game.useStairs(player);
+		} else {
+			game.rollDice();
+			int square = bot.chooseMove(game);
+			if(square >= 0 && game.destination(player, square) >= 0){
+				game.moveTo(player, square);
+			}
+		}
+		if(player.inRoom() && !player.suggested){
+			Card[] suggestion = bot.chooseSuggestion(game);
+			if(suggestion != null){
+				game.suggest((CluedoGame.Character) suggestion[0], (CluedoGame.Weapon) suggestion[1],
+						new CluedoGame.CardChooser(){
+					@Override
+					public Card choose(CharacterToken refuter, List<Card> cards) {
+						return bots[refuter.getUid() - 1].chooseRefutation(player, cards);
+					}
+				});
+			}
+		}
+		Card[] accusation = bot.chooseAccusation(game);
+		if(accusation != null){
+			game.accuse(accusation[0], accusation[1], accusation[2]);
+		}
+	}
+
+	/**
+	 * Returns the seat of the winner or -1 if no one won.
+	 * @return
+	 */
+	public int winner(){ return winner; }
+	/**
+	 * Returns the number of turns played.
+	 * @return
+	 */
+	public int turns(){ return turns; }
+}
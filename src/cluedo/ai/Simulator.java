@@ -0,0 +1,186 @@
+package cluedo.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cluedo.model.Board;
+
+/**
+ * Plays many games between computer players on every core and reports
+ * 	how often each player won. The players take turns in each seat so
+ * 	no strategy gains from going first.
+ *
+ * 	Each game gets its own seed worked out from the master seed and the
+ * 	game's number, so the results do not depend on the number of threads.
+ * 	Games share nothing but the board, which is only read.
+ *
+ * 	Usage: java cluedo.ai.Simulator boardFile.txt games seed strategy...
+ * 	where each strategy is random, heuristic or deduction.
+ * @author Patrick
+ *
+ */
+public class Simulator {
+
+	// turns played before a game is abandoned
+	private static final int MAX_TURNS = 1000;
+
+	private final Board board;
+	private final Strategy[] players;
+	private final long seed;
+
+	/**
+	 * Creates a simulator of games between some players.
+	 * @param board
+	 * @param players the strategy of each player, 2 to 6
+	 * @param seed the master seed
+	 */
+	public Simulator(Board board, Strategy[] players, long seed) {
+		if(players.length < 2 || players.length > 6){
+			throw new IllegalArgumentException("A game needs 2 to 6 players");
+		}
+		this.board = board;
+		this.players = players;
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the seed of a game.
+	 * @param game
+	 * @return
+	 */
+	public long seed(long game) {
+		return new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L).nextLong();
+	}
+
+	/**
+	 * Plays one game. Player i sits in seat (i + game) % players.
+	 * @param game the number of the game
+	 * @return
+	 */
+	public SelfPlay play(long game) {
+		int n = players.length;
+		int shift = (int) (game % n);
+		Strategy[] seats = new Strategy[n];
+		for(int i = 0; i < n; i++){
+			seats[(i + shift) % n] = players[i];
+		}
+		return SelfPlay.play(board, seats, seed(game), MAX_TURNS);
+	}
+
+	/**
+	 * Plays a number of games split between threads.
+	 * @param games
+	 * @param threads
+	 * @return the totals of every game
+	 * @throws InterruptedException
+	 */
+	public Tally run(final long games, final int threads) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try{
+			List<Future<Tally>> parts = new ArrayList<Future<Tally>>();
+			for(int t = 0; t < threads; t++){
+				final int first = t;
+				parts.add(pool.submit(new Callable<Tally>(){
+					@Override
+					public Tally call() {
+						// each thread keeps its own totals, added up at the end
+						Tally tally = new Tally(players.length);
+						for(long g = first; g < games; g += threads){
+							SelfPlay result = play(g);
+							int shift = (int) (g % players.length);
+							int winner = result.winner() < 0 ? -1 :
+								(result.winner() - shift + players.length) % players.length;
+							tally.add(winner, result.turns());
+						}
+						return tally;
+					}
+				}));
+			}
+			Tally total = new Tally(players.length);
+			for(Future<Tally> part: parts){
+				total.add(part.get());
+			}
+			return total;
+		} catch(ExecutionException e){
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * The totals of a number of games.
+	 */
+	public static class Tally {
+		// the games won by each player and the games no one won
+		private final long[] wins;
+		private long unsolved;
+		private long games;
+		private long turns;
+
+		private Tally(int players) {
+			wins = new long[players];
+		}
+
+		private void add(int winner, int gameTurns) {
+			if(winner < 0) unsolved++;
+			else wins[winner]++;
+			games++;
+			turns += gameTurns;
+		}
+
+		private void add(Tally other) {
+			for(int i = 0; i < wins.length; i++){
+				wins[i] += other.wins[i];
+			}
+			unsolved += other.unsolved;
+			games += other.games;
+			turns += other.turns;
+		}
+
+		public long wins(int player){ return wins[player]; }
+		public long unsolved(){ return unsolved; }
+		public long games(){ return games; }
+		public double averageTurns(){ return games == 0 ? 0 : (double) turns / games; }
+	}
+
+	/**
+	 * Runs the simulator from the command line.
+	 * @param args
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		if(args.length < 5){
+			System.out.println("command: java cluedo.ai.Simulator boardFile.txt games seed strategy strategy...");
+			System.out.println("strategies: random, heuristic, deduction");
+			System.exit(1);
+		}
+		Board board = Board.load(args[0]);
+		long games = Long.parseLong(args[1]);
+		long seed = Long.parseLong(args[2]);
+		Strategy[] players = new Strategy[args.length - 3];
+		for(int i = 0; i < players.length; i++){
+			players[i] = Strategy.forName(args[i + 3]);
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		Simulator simulator = new Simulator(board, players, seed);
+		long start = System.nanoTime();
+		Tally tally = simulator.run(games, threads);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%d games, seed %d, %d threads%n", tally.games(), seed, threads);
+		for(int i = 0; i < players.length; i++){
+			System.out.printf("  player %d %-10s %6.2f%% wins%n", i + 1, players[i],
+					100.0 * tally.wins(i) / tally.games());
+		}
+		System.out.printf("  unsolved          %6.2f%%%n", 100.0 * tally.unsolved() / tally.games());
+		System.out.printf("average turns %.1f, %.0f games/s%n", tally.averageTurns(), tally.games() / seconds);
+	}
+}
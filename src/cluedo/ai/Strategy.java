@@ -0,0 +1,55 @@
+package cluedo.ai;
+
+import java.util.Random;
+
+/**
+ * The kinds of computer player, from easiest to hardest.
+ * @author Patrick
+ *
+ */
+public enum Strategy {
+	RANDOM,
+	HEURISTIC,
+	DEDUCTION;
+
+	/**
+	 * Creates a player of this kind.
+	 * @param random the player's source of random numbers
+	 * @return
+	 */
+	public AIPlayer create(Random random) {
+		switch(this){
+			case HEURISTIC:
+				return new HeuristicPlayer(random);
+			case DEDUCTION:
+				return new DeductionPlayer(random);
+			default:
+				return new RandomPlayer(random);
+		}
+	}
+
+	/**
+	 * Returns the kind of a computer player.
+	 * @param player
+	 * @return
+	 */
+	public static Strategy of(AIPlayer player) {
+		if(player instanceof DeductionPlayer) return DEDUCTION;
+		if(player instanceof HeuristicPlayer) return HEURISTIC;
+		return RANDOM;
+	}
+
+	/**
+	 * Returns the strategy with a name, ignoring case.
+	 * @param name
+	 * @return
+	 */
+	public static Strategy forName(String name) {
+		return valueOf(name.toUpperCase());
+	}
+
+	@Override
+	public String toString() {
+		return name().toLowerCase();
+	}
+}
@@ -156,8 +156,8 @@ public class Accusation extends JDialog implements ActionListener {
 
 		// Creating player and info message labels
 		// using html tags to underline text
-		JLabel playerMsg = new JLabel("<html><b><u>" + frame.player.getCharacter().toString() + 
-				": " + frame.player.getName() + "</u></b></html>");
+		JLabel playerMsg = new JLabel("<html><b><u>" + frame.getPlayer().getCharacter().toString() + 
+				": " + frame.getPlayer().getName() + "</u></b></html>");
 		JLabel infoMsg = new JLabel("Make Your Accusation.");
 
 		// Setting labels font, border, and alignments
@@ -358,7 +358,7 @@ public class Accusation extends JDialog implements ActionListener {
 		candlestick.setActionCommand("CANDLESTICK");
 		knife.setActionCommand("KNIFE");
 		pipe.setActionCommand("LEAD PIPE");
-		revolver.setActionCommand("REVOLER");
+		revolver.setActionCommand("REVOLVER");
 		rope.setActionCommand("ROPE");
 		wrench.setActionCommand("WRENCH");
 
@@ -0,0 +1,299 @@
+package cluedo.control;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import cluedo.ai.AIPlayer;
+import cluedo.model.Card;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.SuggestionResult;
+
+/**
+ * Plays the turn of a computer player without blocking the gui.
+ * 	The turn runs on its own thread, and each decision is asked for on
+ * 	a worker thread and given a time budget; a player which runs out of
+ * 	time gets a safe default instead. A decision which runs out of time
+ * 	is stopped and given a little longer to finish before it is left behind.
+ * 	Every change to the game and the gui is made on the event dispatch
+ * 	thread, which never waits for a computer player to decide.
+ * @author Patrick
+ *
+ */
+public class BotTurn implements Runnable {
+
+	// the longest a computer player may take over a decision
+	public static final long DECISION_MILLIS = 500;
+	// the pause between the steps of a turn so people can follow it
+	private static final long STEP_MILLIS = 400;
+
+	// threads running the turns and the decisions of computer players
+	private static final ExecutorService TURNS = Executors.newSingleThreadExecutor(daemon("bot-turn"));
+	private static final ExecutorService DECISIONS = Executors.newCachedThreadPool(daemon("bot-decision"));
+
+	private final CluedoFrame frame;
+	private final CluedoGame game;
+	private final CharacterToken player;
+	private final AIPlayer bot;
+
+	/**
+	 * Creates the turn of a computer player.
+	 * @param frame
+	 * @param player
+	 * @param bot
+	 */
+	public BotTurn(CluedoFrame frame, CharacterToken player, AIPlayer bot) {
+		this.frame = frame;
+		this.game = frame.getGame();
+		this.player = player;
+		this.bot = bot;
+	}
+
+	/**
+	 * Starts the turn in the background.
+	 */
+	public void start() {
+		TURNS.execute(this);
+	}
+
+	@Override
+	public void run() {
+		try{
+			pause();
+			if(decide(new Callable<Boolean>(){
+				@Override
+				public Boolean call() { return bot.useStairs(game); }
+			}, false) && game.canUseStairs(player)){
+				onGui(new Runnable(){
+					@Override
+					public void run() { frame.botUsedStairs(); }
+				});
+			} else {
+				onGui(new Runnable(){
+					@Override
+					public void run() { frame.botRolled(); }
+				});
+				pause();
+				final int square = decide(new Callable<Integer>(){
+					@Override
+					public Integer call() { return bot.chooseMove(game); }
+				}, -1);
+				if(square >= 0){
+					onGui(new Runnable(){
+						@Override
+						public void run() { frame.botMoved(square); }
+					});
+				}
+			}
+			pause();
+			if(player.inRoom() && !player.suggested){
+				Card[] suggestion = decide(new Callable<Card[]>(){
+					@Override
+					public Card[] call() { return bot.chooseSuggestion(game); }
+				}, null);
+				if(suggestion != null) suggest(suggestion);
+			}
+			final Card[] accusation = decide(new Callable<Card[]>(){
+				@Override
+				public Card[] call() { return bot.chooseAccusation(game); }
+			}, null);
+			pause();
+			onGui(new Runnable(){
+				@Override
+				public void run() {
+					if(accusation != null && frame.botAccused(accusation)) return;
+					frame.endBotTurn();
+				}
+			});
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		} catch(InvocationTargetException e){
+			// a step which failed part way leaves the turn nothing to carry on with
+			final Throwable cause = e.getCause();
+			SwingUtilities.invokeLater(new Runnable(){
+				@Override
+				public void run() { frame.botFailed(cause); }
+			});
+		}
+	}
+
+	/**
+	 * Makes a suggestion for the computer player. A computer refuter chooses
+	 * 	its card on this thread first, then the suggestion is made on the
+	 * 	event dispatch thread, where people are asked which card to show.
+	 * @param suggestion
+	 * @throws InterruptedException
+	 * @throws InvocationTargetException
+	 */
+	private void suggest(final Card[] suggestion) throws InterruptedException, InvocationTargetException {
+		Card chosen = null;
+		CharacterToken refuter = refuter(suggestion);
+		final AIPlayer other = refuter == null ? null : frame.getBot(refuter);
+		if(other != null){
+			final List<Card> cards = game.refutingCards(refuter, suggestion[0], suggestion[1], player.getRoom());
+			if(cards.size() > 1){
+				chosen = decide(new Callable<Card>(){
+					@Override
+					public Card call() { return other.chooseRefutation(player, cards); }
+				}, cards.get(0));
+			}
+		}
+		final Card shown = chosen;
+		onGui(new Runnable(){
+			@Override
+			public void run() {
+				SuggestionResult result = game.suggest((CluedoGame.Character) suggestion[0],
+						(CluedoGame.Weapon) suggestion[1], new CluedoGame.CardChooser(){
+					@Override
+					public Card choose(CharacterToken refuter, List<Card> cards) {
+						if(frame.getBot(refuter) == null) return askPerson(refuter, cards);
+						return shown != null && cards.contains(shown) ? shown : cards.get(0);
+					}
+				});
+				frame.botSuggested(result);
+			}
+		});
+	}
+
+	/**
+	 * Returns the first player after the computer player who can refute a
+	 * 	suggestion, asked in the same order as CluedoGame.suggest.
+	 * @param suggestion
+	 * @return refuter or null if no one can refute
+	 */
+	private CharacterToken refuter(Card[] suggestion) {
+		for(CharacterToken p = game.playerAfter(player); p != player; p = game.playerAfter(p)){
+			if(!game.refutingCards(p, suggestion[0], suggestion[1], player.getRoom()).isEmpty()) return p;
+		}
+		return null;
+	}
+
+	/**
+	 * Asks a person which card to show a computer player.
+	 * @param refuter
+	 * @param cards
+	 * @return
+	 */
+	private Card askPerson(CharacterToken refuter, List<Card> cards) {
+		Object card = JOptionPane.showInputDialog(frame,
+				refuter.getName() + ", choose a card to show " + player.getName() + ".",
+				"Refute", JOptionPane.QUESTION_MESSAGE, null, cards.toArray(), cards.get(0));
+		return card == null ? cards.get(0) : (Card) card;
+	}
+
+	/**
+	 * Asks for a decision on a worker thread, waiting at most DECISION_MILLIS
+	 * 	for the answer. A decision which takes too long is interrupted and
+	 * 	given up to DECISION_MILLIS more to stop, as it may be using searches
+	 * 	the player keeps between decisions.
+	 * @param decision
+	 * @param fallback returned if the decision fails or takes too long
+	 * @return
+	 */
+	static <T> T decide(Callable<T> decision, T fallback) {
+		Decision<T> task = new Decision<T>(decision);
+		Future<T> future = DECISIONS.submit(task);
+		try{
+			T result = future.get(DECISION_MILLIS, TimeUnit.MILLISECONDS);
+			return result == null ? fallback : result;
+		} catch(TimeoutException e){
+			future.cancel(true);
+			task.awaitStopped();
+		} catch(ExecutionException e){
+			// a player which fails gets the default like one which runs out of time
+		} catch(InterruptedException e){
+			future.cancel(true);
+			task.awaitStopped();
+			Thread.currentThread().interrupt();
+		}
+		return fallback;
+	}
+
+	/**
+	 * Runs code on the event dispatch thread and waits for it.
+	 * @param code
+	 * @throws InterruptedException
+	 * @throws InvocationTargetException if the code failed
+	 */
+	private static void onGui(Runnable code) throws InterruptedException, InvocationTargetException {
+		SwingUtilities.invokeAndWait(code);
+	}
+
+	/**
+	 * Waits between the steps of a turn.
+	 * @throws InterruptedException
+	 */
+	private static void pause() throws InterruptedException {
+		Thread.sleep(STEP_MILLIS);
+	}
+
+	/**
+	 * A decision which can be waited for after it is cancelled, whether
+	 * 	or not it had begun.
+	 */
+	private static class Decision<T> implements Callable<T> {
+		private final Callable<T> decision;
+		// set by whichever comes first, the decision starting or being stopped
+		private final AtomicBoolean claimed = new AtomicBoolean();
+		private final CountDownLatch finished = new CountDownLatch(1);
+
+		private Decision(Callable<T> decision) {
+			this.decision = decision;
+		}
+
+		@Override
+		public T call() throws Exception {
+			if(!claimed.compareAndSet(false, true)) return null;
+			try{
+				return decision.call();
+			} finally {
+				finished.countDown();
+			}
+		}
+
+		/**
+		 * Keeps the decision from starting, or waits up to DECISION_MILLIS
+		 * 	for it to finish if it has. A decision which ignores being
+		 * 	interrupted is left to run.
+		 */
+		private void awaitStopped() {
+			if(claimed.compareAndSet(false, true)) return;
+			try{
+				finished.await(DECISION_MILLIS, TimeUnit.MILLISECONDS);
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns a factory of named daemon threads, so the program can exit during a turn.
+	 * @param name
+	 * @return
+	 */
+	static ThreadFactory daemon(final String name) {
+		final AtomicInteger count = new AtomicInteger();
+		return new ThreadFactory(){
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		};
+	}
+}
@@ -15,13 +15,21 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.List;
-
-import javax.imageio.ImageIO;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JMenu;
@@ -32,61 +40,136 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 
+import cluedo.ai.AIPlayer;
+import cluedo.ai.Strategy;
+import cluedo.model.Board;
 import cluedo.model.Card;
+import cluedo.model.Cards;
 import cluedo.model.CharacterToken;
 import cluedo.model.CluedoGame;
+import cluedo.model.Deduction;
+import cluedo.model.Direction;
+import cluedo.model.GameEvent;
+import cluedo.model.GameJournal;
+import cluedo.model.GameListener;
+import cluedo.model.GameLog;
+import cluedo.model.GameSnapshot;
 import cluedo.model.Position;
+import cluedo.model.ReachableSquares;
+import cluedo.model.Replay;
+import cluedo.model.SolutionSampler;
+import cluedo.model.SuggestionResult;
+import cluedo.model.Token;
+import cluedo.net.GameClient;
+import cluedo.view.Asset;
 import cluedo.view.CluedoBoard;
-import cluedo.view.Tile;
+import cluedo.view.ImageCache;
 
 /**
  * Interacts with the players and handles actions.
+ * 	The rules and state of the game are held by the CluedoGame,
+ * 	this frame only displays it and passes on the player's actions.
  * @author Patrick and Maria
  *
  */
 @SuppressWarnings("serial")
 public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispatcher {
 
-	private static final String IMAGE_PATH = "images/";
+	// the time each event is shown for when replaying the game
+	private static final int REPLAY_MILLIS = 300;
+	// the thread saved games are written on, so saving never holds up the gui
+	private static final ExecutorService SAVES = Executors.newSingleThreadExecutor(BotTurn.daemon("save"));
+	// the file the game being played is saved to as it goes
+	private static final File AUTOSAVE_FILE = new File("autosave" + GameSnapshot.EXTENSION);
+	// the deals tried each time the chances of the envelope cards are worked out
+	private static final long CHANCE_DEALS = 2000000;
 
 	// Stores the panel which holds the game board gui
 	private JPanel gui = new JPanel(new BorderLayout(3, 3));
-	// Stores the game board
+	// Stores the game board and the view of it
+	private Board boardModel;
 	private CluedoBoard board;
 	// Stores the game
 	private CluedoGame game;
 	
-	// Player UI panel
+	// Player UI panel, made once and updated as the game changes
 	private JPanel playerControls;
 	// Game information text area
 	private JTextArea gameTextArea;
 	// Tabbed gameinfo/hand pane
 	private JTabbedPane gameInfoPnl;
-	
-	// Stores the current dice roll
-	private int firstDie;
-	private int secondDie;
+	// Dice images, the player's options and their buttons
+	private JLabel dice1;
+	private JLabel dice2;
+	private JButton rollBtn;
+	private JPanel gameOptionsPnl;
+	private JButton beginBtn;
+	private JButton suggestBtn;
+	private JButton stairsBtn;
+	private JButton endTurnBtn;
+	// Hand tab, the player whose cards it shows and the cards shown, or null and 0 if none
+	private JScrollPane handTab;
+	private JPanel handPnl;
+	private CharacterToken handHolder;
+	private int handShown;
+	// Chances tab, showing how likely each card is to be in the envelope
+	// 	as far as the hand holder knows
+	private JScrollPane chancesTab;
+	private JTextArea chancesArea;
+	private SolutionSampler sampler;
+	// Stores what each person whose hand has been shown knows
+	private Map<CharacterToken, Deduction> knowledge = new HashMap<CharacterToken, Deduction>();
+	// Works the chances out again after each suggestion or wrong accusation
+	private final GameListener chancesListener = new GameListener(){
+		@Override
+		public void tokenMoved(Token token, Position from, Position to) {}
+
+		@Override
+		public void suggestionMade(SuggestionResult result) {
+			startChancesLater();
+		}
+
+		@Override
+		public void accusationFailed(CharacterToken accuser, int cards) {
+			startChancesLater();
+		}
+	};
+
+	// Stores the squares the current player can reach
+	private ReachableSquares reachable;
 
-	// Stores the current player
-	public CharacterToken player;
+	// Stores the current player or null if the game has not begun
+	private CharacterToken player;
 	private boolean newPlayer = false;
-	
-	// Stores game status
-	private boolean gameOver = false;
 
-	public CluedoFrame(String boardFile){
-		super("Cluedo");
+	// Stores the computer player controlling each computer token
+	private Map<CharacterToken, AIPlayer> bots = new HashMap<CharacterToken, AIPlayer>();
+	// Stores true while a computer player is taking its turn
+	private boolean botTurn = false;
+	// Stores true while the game is being replayed, and the menu item replaying it
+	private boolean replaying = false;
+	private JMenuItem rMenuItem;
+	// Stores the journal of the game being played or null if it is not autosaved
+	private GameJournal journal;
+	private JCheckBoxMenuItem autosave;
+	// Stores the connection to the server hosting the game, or null if it is played here
+	private GameClient client;
+	// Stores the player at this machine when the game is hosted by a server
+	private CharacterToken me;
 
-		firstDie = 3;
-		secondDie = 4;
+	public CluedoFrame(Board boardModel){
+		super("Cluedo");
 
 		// setup menu
 		initMenu();
 		// setup game board
-		initBoard(boardFile);
+		initBoard(boardModel);
 		// setup player UI
 		player = null;
 		newPlayer = false;
@@ -117,10 +200,11 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 --------------------------*/
 	/**
 	 * Initialises the game board
-	 * @param boardFile
+	 * @param boardModel
 	 */
-	private void initBoard(String boardFile) {
-		board = new CluedoBoard(boardFile, this);
+	private void initBoard(Board boardModel) {
+		this.boardModel = boardModel;
+		board = new CluedoBoard(boardModel, this);
 		add(gui);
 	}
 
@@ -132,9 +216,9 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		JMenuBar menuBar = new JMenuBar();
 		
 		// Creating icons
-		ImageIcon iconExit = new ImageIcon(IMAGE_PATH + "exit.png");
-		ImageIcon iconNew = new ImageIcon(IMAGE_PATH + "new.png");
-		ImageIcon iconHelp = new ImageIcon(IMAGE_PATH + "help.png");
+		ImageIcon iconExit = ImageCache.icon(Asset.EXIT);
+		ImageIcon iconNew = ImageCache.icon(Asset.NEW);
+		ImageIcon iconHelp = ImageCache.icon(Asset.HELP);
 		
 		// creating menu and help menus
 		JMenu menu = new JMenu("Menu");
@@ -164,6 +248,46 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 				startNewGame();
 			}
 		});
+		JMenuItem sMenuItem = new JMenuItem("Save Game");
+		sMenuItem.setMnemonic(KeyEvent.VK_S);
+		sMenuItem.setToolTipText("Click to save the game to a file");
+		sMenuItem.addActionListener(new ActionListener(){
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(!canSave()) return;
+				File file = chooseSaveFile(true);
+				if(file != null) saveGame(file);
+			}
+		});
+		JMenuItem lMenuItem = new JMenuItem("Load Game");
+		lMenuItem.setMnemonic(KeyEvent.VK_L);
+		lMenuItem.setToolTipText("Click to carry on a saved game");
+		lMenuItem.addActionListener(new ActionListener(){
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				File file = chooseSaveFile(false);
+				if(file != null) loadGame(file);
+			}
+		});
+		autosave = new JCheckBoxMenuItem("Autosave", true);
+		autosave.setMnemonic(KeyEvent.VK_A);
+		autosave.setToolTipText("Save the game after every move so it can be carried on after a crash");
+		autosave.addActionListener(new ActionListener(){
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(autosave.isSelected()) startAutosave();
+				else stopAutosave(true);
+			}
+		});
+		rMenuItem = new JMenuItem("Replay Game");
+		rMenuItem.setMnemonic(KeyEvent.VK_R);
+		rMenuItem.setToolTipText("Click to watch the game so far again");
+		rMenuItem.addActionListener(new ActionListener(){
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				replayGame();
+			}
+		});
 		JMenuItem eMenuItem = new JMenuItem("Exit", iconExit);
 		eMenuItem.setMnemonic(KeyEvent.VK_E);
 		eMenuItem.setToolTipText("Exit App");
@@ -176,6 +300,10 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		});
 		// adding menu and help menus
 		menu.add(nMenuItem);
+		menu.add(sMenuItem);
+		menu.add(lMenuItem);
+		menu.add(autosave);
+		menu.add(rMenuItem);
 		menu.addSeparator();
 		menu.add(eMenuItem);
 		help.add(hMenuItem);
@@ -210,25 +338,20 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		gameTextArea = initGameTextArea();
 		setText("");
 
-		// Adding the text area to the panel
+		// Adding the text area to the panel, the hand is added once there is one to show
 		gameInfoPnl.add("Game Info",gameTextArea);
-
-		if(player!=null){
-			// Adding hand to panel
-			JScrollPane handPnl = initHandPnl();
-			gameInfoPnl.addTab("Hand", handPnl);
-		}
-
+		handTab = initHandPnl();
+		chancesTab = initChancesPnl();
 
 		// Creating a panel to display the current players options
-		JPanel gameOptionsPnl = new JPanel(new GridLayout(0,1,5,5));
+		gameOptionsPnl = new JPanel(new GridLayout(0,1,5,5));
 		gameOptionsPnl.setBorder(new EmptyBorder(0,2,0,4));
 
 		// Creating buttons for the options
-		JButton beginBtn = new JButton("Begin.");
-		JButton suggestBtn = new JButton("Suggest / Accuse.");
-		JButton stairsBtn = new JButton("Use Stairs.");
-		JButton endTurnBtn = new JButton("End Turn.");
+		beginBtn = new JButton("Begin.");
+		suggestBtn = new JButton("Suggest / Accuse.");
+		stairsBtn = new JButton("Use Stairs.");
+		endTurnBtn = new JButton("End Turn.");
 		JButton quitBtn = new JButton("Quit.");
 
 		/*
@@ -241,9 +364,10 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 				if(game.getActivePlayers()!=null){
 					suggestBtn.setEnabled(true);
 					endTurnBtn.setEnabled(true);
-					player = game.getActivePlayers().get(0);
-					newPlayer = true;
-					redrawPlayerControls();
+					game.begin();
+					updatePlayer();
+					updatePlayerControls();
+					startBotTurn();
 				}
 			}
 		});
@@ -265,7 +389,6 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 				            gameInfoPnl.setSelectedIndex(0);
 				            // FIXME 
 							suggest();
-							player.suggested = true;
 						}
 						else{
 							msg = "You cannot suggest again this turn." ;
@@ -283,12 +406,16 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		stairsBtn.addActionListener(new ActionListener(){
 			@Override
 			public void actionPerformed(ActionEvent arg0) {
-				if(board.oppositeRoom(player.getTile())==null){
+				if(!game.canUseStairs(player)){
 					String msg = "You Must be in a Corner Room to Use Stairs" ;
 					JOptionPane.showMessageDialog(gui, msg);
 				}
+				else if(client != null){
+					client.stairs();
+				}
 				else{
-					board.useStairs(player);
+					game.useStairs(player);
+					updateReachable();
 				}
 			}
 		});
@@ -297,7 +424,8 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		endTurnBtn.addActionListener(new ActionListener(){
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				nextPlayer();
+				if(client != null) client.endTurn();
+				else nextPlayer();
 			}
 		});
 
@@ -308,18 +436,8 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 				confirmExit();
 			}});
 
-		// Adding buttons to panel and enabling the relevant ones
-		if(player!=null){
-			beginBtn.setEnabled(false);
-			if(!player.active){
-				suggestBtn.setEnabled(false);
-			}
-		} else {
-			gameOptionsPnl.add(beginBtn);
-			suggestBtn.setEnabled(false);
-			stairsBtn.setEnabled(false);
-			endTurnBtn.setEnabled(false);
-		}
+		// Adding buttons to panel, which are enabled by updatePlayerControls
+		gameOptionsPnl.add(beginBtn);
 		gameOptionsPnl.add(suggestBtn);
 		gameOptionsPnl.add(stairsBtn);
 		gameOptionsPnl.add(endTurnBtn);
@@ -333,6 +451,46 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		playerControls.add(gameOptionsPnl, BorderLayout.EAST);
 		// adding the player controls UI to the bottom of the window
 		add(playerControls, BorderLayout.SOUTH); // adds playerUI to frame
+		updatePlayerControls();
+	}
+
+	/**
+	 * Updates the player controls to match the current player. Only the
+	 * 	icons, enabled buttons and hand which have changed are redrawn.
+	 */
+	private void updatePlayerControls(){
+		// the dice show the last roll
+		setDice(dice1, game == null ? 3 : game.getFirstDie());
+		setDice(dice2, game == null ? 4 : game.getSecondDie());
+		boolean begun = player != null;
+		rollBtn.setEnabled(begun && newPlayer && player.active && isLocal(player));
+		// the begin button is only there until the game begins
+		if(begun == (beginBtn.getParent() != null)){
+			if(begun) gameOptionsPnl.remove(beginBtn);
+			else gameOptionsPnl.add(beginBtn, 0);
+			gameOptionsPnl.revalidate();
+		}
+		// a server begins its games once everyone has joined
+		beginBtn.setEnabled(!begun && client == null);
+		// computer players and players elsewhere take their turns by themselves
+		boolean local = begun && isLocal(player);
+		suggestBtn.setEnabled(local && player.active);
+		stairsBtn.setEnabled(local);
+		endTurnBtn.setEnabled(local);
+
+		// a game hosted by a server only ever shows this machine's hand
+		CharacterToken holder = client == null ? player : me;
+		if(holder != null && isBot(holder)) holder = null;
+		int hand = holder == null ? 0 : holder.getHandMask();
+		if(holder != handHolder || hand != handShown){
+			// the next player's cards stay hidden until they look at them
+			if(holder != handHolder) gameInfoPnl.setSelectedIndex(0);
+			showHand(holder);
+			handHolder = holder;
+			handShown = hand;
+			startChances();
+		}
+		setText("");
 	}
 
 	/*-------------------------------------
@@ -343,51 +501,34 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 */
 	private void suggest(){
 		Suggestion suggestion = new Suggestion(this);
-		setText(suggestion.getPlayerSuggestion() + "\n" + suggestion.getResult());
+		// a server sends the result back once the refuter has chosen
+		if(client == null) setText(suggestion.getPlayerSuggestion() + "\n" + suggestion.getResult());
 	}
 
 	/**
 	 * Gets player to accuse a suspect, weapon, room.
 	 */
 	private void accuse(){
-		// stores if accusation is correct
-		boolean suspect = false;
-		boolean room = false;
-		boolean weapon = false;
-		
 		// get player accusation
 		Accusation accusation = new Accusation(this);
 		List<Card> result = accusation.showDialog();
-		
-		// get game solution
-		Card[]solution = game.getSolution();
-		
-		// check player accusation
-		for(Card c: result){
-			if(c.toString().equalsIgnoreCase(solution[0].toString())){
-				suspect = true;
-			}
-			if(c.toString().equalsIgnoreCase(solution[1].toString())){
-				room = true;
-			}
-			if(c.toString().equalsIgnoreCase(solution[2].toString())){
-				weapon = true;
-			}
+		if(result.size() != 3) return;
+		if(client != null){
+			client.accuse(result.get(0), result.get(1), result.get(2));
+			return;
 		}
-		
+
 		// Checks if player has won the game
-		if(suspect && room && weapon){
+		if(game.accuse(result.get(0), result.get(1), result.get(2))){
 			gameWon(player);
-			gameOver = true;
 		} else {
-			// set text to show losing message
-			player.active = false;
+			// hide the losing player's token
+			board.repaintSquare(player.pos());
 			// if there are no more active players, display losing message and end game
-			if(!active()){ gameLost(); }
+			if(!game.isActive()){ gameLost(); }
 			// otherwise just displaying losing message to this player
-			else { 
-				playerLost(); 
-				player.getTile().reset();
+			else {
+				playerLost();
 				nextPlayer();
 			}
 		}
@@ -399,8 +540,19 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 */
 	private String answer(){
 		Card[] solution = game.getSolution();
-		return solution[0].toString() + " committed the crime with the " +
-				solution[2].toString() + " in the " + solution[1].toString() +".";
+		return crime(solution[0], solution[2], solution[1]);
+	}
+
+	/**
+	 * Describes a crime.
+	 * @param suspect
+	 * @param weapon
+	 * @param room
+	 * @return
+	 */
+	private static String crime(Card suspect, Card weapon, Card room){
+		return suspect.toString() + " committed the crime with the " +
+				weapon.toString() + " in the " + room.toString() +".";
 	}
 	
 	/*-----------------------
@@ -460,20 +612,16 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		JPanel rollPnl = new JPanel(new GridLayout(0,1,2,2));
 		rollPnl.setBorder(new EmptyBorder(0,4,0,2));
 		JPanel dicePnl = new JPanel();
-		// Creating the dice images
-		JLabel dice1 = getDiceImage(firstDie);
+		// Creating the dice images, set by updatePlayerControls
+		dice1 = new JLabel();
 		dice1.setBorder(new LineBorder(Color.BLACK));
-		JLabel dice2 = getDiceImage(secondDie);
+		dice2 = new JLabel();
 		dice2.setBorder(new LineBorder(Color.BLACK));
 		dicePnl.add(dice1);
 		dicePnl.add(dice2);
 
 		// Adding dice and roll button to the roll panel
-		JButton rollBtn = new JButton("Roll.");
-		if(!newPlayer||!player.active)
-			rollBtn.setEnabled(false);
-		else
-			rollBtn.setEnabled(true);
+		rollBtn = new JButton("Roll.");
 
 		rollPnl.add(dicePnl);
 		rollPnl.add(rollBtn);
@@ -481,9 +629,13 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		rollBtn.addActionListener(new ActionListener(){
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				rollDice(); // set player's steps and dice pictures
-				newPlayer = false;
-				redrawPlayerControls();
+				if(client != null){
+					client.roll();
+					return;
+				}
+				game.rollDice(); // set player's steps and dice pictures
+				updatePlayer();
+				updatePlayerControls();
 			}
 		});
 
@@ -491,39 +643,14 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	}
 
 	/**
-	 * Rolls the dice and sets the player's initial amount of steps.
-	 * @param player
-	 */
-	private void rollDice(){
-		firstDie = (int)(Math.random() * 6) + 1;
-		secondDie = (int)(Math.random() * 6) + 1;
-		if(player!=null)
-			player.setStepsRemaining(firstDie + secondDie);
-	}
-
-	/**
-	 * Returns a dice image to match the roll amount.
+	 * Shows the dice image matching a roll, the label only
+	 * 	being repainted if the image changes.
+	 * @param dice
 	 * @param roll
-	 * @return
 	 */
-	private JLabel getDiceImage(int roll){
-		try{
-			switch(roll){
-				case 1:
-					return new JLabel(new ImageIcon(ImageIO.read(new File(IMAGE_PATH + "dice1.png"))));
-				case 2:
-					return new JLabel(new ImageIcon(ImageIO.read(new File(IMAGE_PATH + "dice2.png"))));
-				case 3:
-					return new JLabel(new ImageIcon(ImageIO.read(new File(IMAGE_PATH + "dice3.png"))));
-				case 4:
-					return new JLabel(new ImageIcon(ImageIO.read(new File(IMAGE_PATH + "dice4.png"))));
-				case 5:
-					return new JLabel(new ImageIcon(ImageIO.read(new File(IMAGE_PATH + "dice5.png"))));
-				case 6:
-					return new JLabel(new ImageIcon(ImageIO.read(new File(IMAGE_PATH + "dice6.png"))));
-			}
-		} catch (IOException e1) { e1.printStackTrace(); }
-		return null;
+	private void setDice(JLabel dice, int roll){
+		if(roll < 1 || roll > 6) return;
+		dice.setIcon(ImageCache.icon(Asset.dice(roll)));
 	}
 	
 	/*---------------
@@ -531,73 +658,454 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 --------------*/
 
 	/**
-	 * Creates panel for all the player's cards
+	 * Creates the tab for the player's cards, filled by showHand.
+	 * @return
 	 */
 	private JScrollPane initHandPnl(){
 		JScrollPane hand = new JScrollPane();
-		JPanel handPnl = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		handPnl = new JPanel(new FlowLayout(FlowLayout.LEFT));
 		hand.setAutoscrolls(true);
 		hand.setViewportView(handPnl);
 		hand.setPreferredSize(new Dimension(300, 100));
-		for(Card c: player.getHand()){
-			JLabel picLabel = new JLabel(new ImageIcon(c.getImage()));
+		return hand;
+	}
+
+	/**
+	 * Shows a player's cards in the hand tab.
+	 * @param holder the player or null to remove the tab
+	 */
+	private void showHand(CharacterToken holder){
+		handPnl.removeAll();
+		if(holder == null){
+			gameInfoPnl.remove(handTab);
+			return;
+		}
+		for(Card c: holder.getHand()){
+			JLabel picLabel = new JLabel(ImageCache.icon(Asset.card(c)));
 			handPnl.add(picLabel);
 		}
-		return hand;
+		if(gameInfoPnl.indexOfComponent(handTab) < 0) gameInfoPnl.addTab("Hand", handTab);
+		handPnl.revalidate();
+		handPnl.repaint();
 	}
 
 	/**
-	 * Redraws the player controls panel.
-	 * @param player
-	 * @param newPlayer
+	 * Creates the tab for the chances of the envelope cards, filled by showChances.
+	 * @return
 	 */
-	private void redrawPlayerControls(){
-		remove(playerControls); // remove the old panel
-		initPlayerUI(); // reset the player UI
-		revalidate(); // draw
+	private JScrollPane initChancesPnl(){
+		chancesArea = new JTextArea(4, 28);
+		chancesArea.setEditable(false);
+		chancesArea.setBorder(BorderFactory.createEmptyBorder(4,4,2,2));
+		sampler = new SolutionSampler(new SolutionSampler.Listener(){
+			@Override
+			public void updated(SolutionSampler sampler) {
+				SwingUtilities.invokeLater(new Runnable(){
+					@Override
+					public void run() { showChances(); }
+				});
+			}
+		});
+		return new JScrollPane(chancesArea);
+	}
+
+	/**
+	 * Starts working out the chances of the envelope cards from what the
+	 * 	hand holder knows, in the background. The tab is removed if no
+	 * 	one's hand is shown.
+	 */
+	private void startChances(){
+		sampler.cancel();
+		// the hand shown may still be from the game before
+		if(handHolder == null || game == null || !game.getActivePlayers().contains(handHolder)){
+			gameInfoPnl.remove(chancesTab);
+			return;
+		}
+		Deduction known = knowledge.get(handHolder);
+		if(known == null){
+			known = new Deduction(game.getActivePlayers(), handHolder);
+			game.tellSuggestions(known);
+			game.addListener(known);
+			knowledge.put(handHolder, known);
+		}
+		sampler.start(known, CHANCE_DEALS);
+		if(gameInfoPnl.indexOfComponent(chancesTab) < 0) gameInfoPnl.addTab("Chances", chancesTab);
+		showChances();
+	}
+
+	/**
+	 * Starts working out the chances again once every listener, including
+	 * 	the knowledge, has heard of a change to the game.
+	 */
+	private void startChancesLater(){
+		SwingUtilities.invokeLater(new Runnable(){
+			@Override
+			public void run() { startChances(); }
+		});
+	}
+
+	/**
+	 * Shows the chances worked out so far, one line for each kind of card,
+	 * 	leaving out the cards which cannot be in the envelope.
+	 */
+	private void showChances(){
+		if(sampler.accepted() == 0){
+			chancesArea.setText("Working out the chances...");
+			return;
+		}
+		StringBuilder text = new StringBuilder("In the envelope, from " + sampler.accepted() + " deals:");
+		int kind = 0;
+		for(int id = 0; id < Cards.COUNT; id++){
+			double chance = sampler.probability(Cards.card(id));
+			if(chance == 0) continue;
+			if(Cards.kindMask(id) != kind){
+				kind = Cards.kindMask(id);
+				text.append('\n');
+			} else {
+				text.append(", ");
+			}
+			text.append(String.format("%s %.0f%%", Cards.card(id), 100 * chance));
+		}
+		chancesArea.setText(text.toString());
+		chancesArea.setCaretPosition(0);
 	}
 
 	/**
 	 * Sets the gui up for the next player
 	 */
 	private void nextPlayer(){
-		// allows player to suggest next turn
-		player.suggested = false;
-		getNext();
-		while(!player.active){
-			getNext();
+		game.nextPlayer();
+		updatePlayer();
+		updatePlayerControls();
+		startBotTurn();
+	}
+
+	/**
+	 * Updates the displayed player from the game.
+	 */
+	private void updatePlayer(){
+		player = game.getCurrentPlayer();
+		newPlayer = !game.hasRolled();
+		updateReachable();
+	}
+
+	/**
+	 * Highlights the squares the current player can still move to.
+	 */
+	private void updateReachable(){
+		if(player == null || !player.active || player.getStepsRemaining() <= 0 || (client != null && player != me)){
+			board.setHighlight(null);
+			return;
 		}
-		newPlayer = true;
-		redrawPlayerControls();
+		reachable.compute(game, player);
+		board.setHighlight(reachable);
 	}
-	
+
+	/**
+	 * Replays the game so far on the board one event at a time,
+	 * 	then goes back to the game.
+	 */
+	private void replayGame(){
+		// a game hosted by a server keeps changing while it would be replayed
+		if(game == null || botTurn || replaying || client != null) return;
+		final CluedoGame live = game;
+		final Replay replay = new Replay(boardModel, live.getLog());
+		replaying = true;
+		playerControls.setVisible(false);
+		board.setHighlight(null);
+		board.setGame(replay.getGame());
+		final Timer timer = new Timer(REPLAY_MILLIS, null);
+		timer.addActionListener(new ActionListener(){
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(replay.step()){
+					setTitle("Cluedo Game - replay " + replay.position() + "/" + replay.length()
+							+ ": " + replay.describe());
+					// players out of the game are no longer drawn
+					board.repaint();
+					return;
+				}
+				timer.stop();
+				board.setGame(live);
+				replaying = false;
+				setTitle("Cluedo Game");
+				playerControls.setVisible(true);
+				updateReachable();
+			}
+		});
+		timer.start();
+	}
+
+	/*------------------------
+	 * Computer player methods
+	 ------------------------*/
+	/**
+	 * Starts the turn of the current player if it is a computer player.
+	 */
+	private void startBotTurn(){
+		if(player == null || !isBot(player) || game.isOver()) return;
+		botTurn = true;
+		new BotTurn(this, player, getBot(player)).start();
+	}
+
+	/**
+	 * Takes the secret passage for the computer player.
+	 */
+	void botUsedStairs(){
+		game.useStairs(player);
+		updateReachable();
+		setText(player.getName() + " took the secret passage to the " + player.getRoom() + ".");
+	}
+
+	/**
+	 * Rolls the dice for the computer player.
+	 */
+	void botRolled(){
+		game.rollDice();
+		updatePlayer();
+		updatePlayerControls();
+		setText(player.getName() + " rolled " + (game.getFirstDie() + game.getSecondDie()) + ".");
+	}
+
 	/**
-	 * Gets the next player
+	 * Moves the computer player to a square it chose.
+	 * @param square
 	 */
-	private void getNext(){
-		// get next player
-		if(player.getUid()<game.getActivePlayers().size()){
-			player = game.getActivePlayers().get(player.getUid()); // player's uid is 1-6
+	void botMoved(int square){
+		if(game.destination(player, square) < 0) return;
+		game.moveTo(player, square);
+		updateReachable();
+		if(player.inRoom()){
+			setText(player.getName() + " entered the " + player.getRoom() + ".");
 		}
-		else{
-			player = game.getActivePlayers().get(0);
+	}
+
+	/**
+	 * Shows the outcome of the computer player's suggestion.
+	 * @param result
+	 */
+	void botSuggested(SuggestionResult result){
+		String msg = player.getName() + " suggested " + result.getSuspect() + " with the " +
+				result.getWeapon() + " in the " + result.getRoom() + ".\n";
+		if(result.refuted()){
+			msg += result.getRefuter().getName() + " refuted the suggestion.";
+		} else {
+			msg += "No one could refute the suggestion.";
 		}
+		setText(msg);
 	}
-	
-	/*------------------
-	 * Game over methods
-	 -----------------*/
+
 	/**
-	 * Returns true if there are still active players.
+	 * Checks the computer player's accusation.
+	 * @param accusation
+	 * @return true if the game is over
 	 */
-	private boolean active(){
-		for(CharacterToken t: getPlayers()){
-			if(t.active)
-				return true;
+	boolean botAccused(Card[] accusation){
+		String msg = player.getName() + " accused " + accusation[0] + " of committing the crime with the " +
+				accusation[1] + " in the " + accusation[2] + ".\n";
+		if(game.accuse(accusation[0], accusation[1], accusation[2])){
+			botTurn = false;
+			JOptionPane.showMessageDialog(this, msg + player.getName() + " SOLVED THE CRIME!\n" + answer());
+			newGame();
+			return true;
 		}
+		board.repaintSquare(player.pos());
+		if(!game.isActive()){
+			botTurn = false;
+			gameLost();
+			return true;
+		}
+		JOptionPane.showMessageDialog(this, msg + "The accusation was wrong, " + player.getName() + " is out of the game.");
 		return false;
 	}
-	
+
+	/**
+	 * Ends the computer player's turn.
+	 */
+	void endBotTurn(){
+		botTurn = false;
+		nextPlayer();
+	}
+
+	/**
+	 * Ends the computer player's turn after one of its steps failed.
+	 * @param cause
+	 */
+	void botFailed(Throwable cause){
+		setText(player.getName() + "'s turn failed: " + cause);
+		endBotTurn();
+	}
+
+	/**
+	 * Sets a token to be played by a computer player.
+	 * @param token
+	 * @param bot
+	 */
+	public void addBot(CharacterToken token, AIPlayer bot){
+		bots.put(token, bot);
+	}
+
+	/**
+	 * Returns the computer player controlling a token or null if a person controls it.
+	 * @param token
+	 * @return
+	 */
+	public AIPlayer getBot(CharacterToken token){
+		return bots.get(token);
+	}
+
+	/**
+	 * Returns true if a token is controlled by a computer player.
+	 * @param token
+	 * @return
+	 */
+	public boolean isBot(CharacterToken token){
+		return bots.containsKey(token);
+	}
+
+	/**
+	 * Returns true if a token is controlled by a person at this machine.
+	 * @param token
+	 * @return
+	 */
+	public boolean isLocal(CharacterToken token){
+		return !isBot(token) && (client == null || token == me);
+	}
+
+	/*-----------------------
+	 * Network game methods
+	 -----------------------*/
+	/**
+	 * Joins a game hosted by a server in place of a game played here.
+	 * 	Only the player at this machine can be controlled, and the game
+	 * 	only changes when the server sends what happened.
+	 * @param host
+	 * @param port
+	 * @param room the name the game is joined through
+	 * @param name
+	 * @param players the number of players the game is for
+	 * @return true if the server could be reached
+	 */
+	boolean joinServer(String host, int port, String room, String name, int players){
+		if(!connect(host, port)) return false;
+		setText("Waiting for " + players + " players to join " + room + ".");
+		client.join(room, name, players);
+		return true;
+	}
+
+	/**
+	 * Watches a game hosted by a server without playing. No player can
+	 * 	be controlled and no hand is shown.
+	 * @param host
+	 * @param port
+	 * @param room the name of the room the game is played in
+	 * @return true if the server could be reached
+	 */
+	boolean watchServer(String host, int port, String room){
+		if(!connect(host, port)) return false;
+		setText("Waiting for the game in " + room + ".");
+		client.watch(room);
+		return true;
+	}
+
+	/**
+	 * Connects to a server, showing the game it sends in place of a game played here.
+	 * @param host
+	 * @param port
+	 * @return true if the server could be reached
+	 */
+	private boolean connect(String host, int port){
+		try{
+			client = new GameClient(boardModel, host, port, new Executor(){
+				@Override
+				public void execute(Runnable command) {
+					SwingUtilities.invokeLater(command);
+				}
+			}, new GameClient.Listener(){
+				@Override
+				public void joined(CluedoGame game, CharacterToken token) {
+					me = token;
+					setGame(game);
+					updatePlayer();
+					updatePlayerControls();
+					setText(me == null ? "You are watching." : "You are playing " + me.getCharacter() + ".");
+				}
+
+				@Override
+				public void eventApplied(CluedoGame game, long event) {
+					serverEvent(event);
+				}
+
+				@Override
+				public void refuteRequested(List<Card> cards) {
+					Object card = JOptionPane.showInputDialog(CluedoFrame.this,
+							me.getName() + ", choose a card to show " + player.getName() + ".",
+							"Refute", JOptionPane.QUESTION_MESSAGE, null, cards.toArray(), cards.get(0));
+					client.refute(card == null ? cards.get(0) : (Card) card);
+				}
+
+				@Override
+				public void error(String reason) {
+					JOptionPane.showMessageDialog(CluedoFrame.this, reason, "Alert", JOptionPane.ERROR_MESSAGE);
+				}
+
+				@Override
+				public void disconnected() {
+					if(game != null && game.isOver()) return;
+					JOptionPane.showMessageDialog(CluedoFrame.this, "The connection to the server was lost.",
+							"Alert", JOptionPane.ERROR_MESSAGE);
+				}
+			});
+		} catch(IOException e){
+			JOptionPane.showMessageDialog(this, "Could not reach " + host + ":" + port + ".\n" + e.getMessage(),
+					"Alert", JOptionPane.ERROR_MESSAGE);
+			return false;
+		}
+		rMenuItem.setEnabled(false);
+		return true;
+	}
+
+	/**
+	 * Shows an event the server sent, once it has been made in the game.
+	 * @param event
+	 */
+	private void serverEvent(long event){
+		updatePlayer();
+		updatePlayerControls();
+		GameLog log = game.getLog();
+		setText(log.describe(log.size() - 1));
+		int seat = GameEvent.seat(event);
+		switch(GameEvent.type(event)){
+			case GameEvent.REFUTATION:
+				// only the suggester and refuter are sent the card shown
+				if(player == me && GameEvent.card(event) >= 0){
+					JOptionPane.showMessageDialog(this, game.getActivePlayers().get(seat).getName() +
+							" refuted your suggestion with the " + Cards.card(GameEvent.card(event)));
+				}
+				break;
+			case GameEvent.ACCUSATION:
+				if(!GameEvent.correct(event)) break;
+				JOptionPane.showMessageDialog(this, log.name(seat) + " SOLVED THE CRIME!\n" +
+						crime(Cards.card(GameEvent.suspect(event)), Cards.card(GameEvent.weapon(event)),
+						Cards.card(GameEvent.room(event))));
+				client.close();
+				break;
+			case GameEvent.ELIMINATION:
+				board.repaintSquare(game.getActivePlayers().get(seat).pos());
+				if(!game.isActive()){
+					JOptionPane.showMessageDialog(this, "NO ONE SOLVED THE CRIME...");
+					client.close();
+				} else if(me != null && seat == me.getUid() - 1){
+					JOptionPane.showMessageDialog(this, "You Did Not Solve the Crime...");
+				}
+				break;
+		}
+	}
+
+	/*------------------
+	 * Game over methods
+	 -----------------*/
+
 	/**
 	 * Displays losing message to accuser.
 	 */
@@ -605,7 +1113,7 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		String msg = "You Did Not Solve the Crime...\n" +
 				answer();
 		JOptionPane.showMessageDialog(this, msg);
-		redrawPlayerControls();
+		updatePlayerControls();
 	}
 	
 	/**
@@ -637,13 +1145,218 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 */
 	private void confirmExit() {
 		String msg = "Are You Sure You Want to Exit the Game?" ;
+		if(game != null && !game.isOver()){
+			// offers to save a game still being played
+			String[] options = {"Save and Exit", "Exit", "Cancel"};
+			int result = JOptionPane.showOptionDialog(this, msg, "Alert", 0,
+					JOptionPane.QUESTION_MESSAGE, null, options, options[2]);
+			if(result == 0){
+				if(!canSave()) return;
+				File file = chooseSaveFile(true);
+				if(file == null || !finishSaving(saveGame(file))) return;
+			} else if(result != 1){
+				return;
+			}
+			stopAutosave(true);
+			System.exit(0);
+		}
 		int result = JOptionPane.showConfirmDialog(this, msg,
 		        "Alert", JOptionPane.OK_CANCEL_OPTION);
 		if(result==0){
+			stopAutosave(true);
 			System.exit(0);
 			dispose();
 		}
 	}
+
+	/*------------------------
+	 * Saving and loading games
+	 ------------------------*/
+	/**
+	 * Checks the game is not changing, telling the player to wait if it is.
+	 * @return true if the game can be saved now
+	 */
+	private boolean canSave(){
+		if(client != null){
+			JOptionPane.showMessageDialog(this, "Games hosted by a server cannot be saved.");
+			return false;
+		}
+		if(botTurn || replaying){
+			JOptionPane.showMessageDialog(this, "Wait for the turn or replay to finish before saving.");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Asks for the file to save a game to or load a game from.
+	 * @param save
+	 * @return file or null if none was chosen
+	 */
+	private File chooseSaveFile(boolean save){
+		JFileChooser chooser = new JFileChooser(new File("."));
+		chooser.setFileFilter(new FileNameExtensionFilter("Saved Cluedo games",
+				GameSnapshot.EXTENSION.substring(1)));
+		int result = save ? chooser.showSaveDialog(this) : chooser.showOpenDialog(this);
+		if(result != JFileChooser.APPROVE_OPTION) return null;
+		File file = chooser.getSelectedFile();
+		if(save && !file.getName().endsWith(GameSnapshot.EXTENSION)){
+			file = new File(file.getPath() + GameSnapshot.EXTENSION);
+		}
+		return file;
+	}
+
+	/**
+	 * Saves the game to a file. The snapshot is taken now and written
+	 * 	in the background.
+	 * @param file
+	 * @return the save being written
+	 */
+	private Future<?> saveGame(final File file){
+		final ByteBuffer snapshot = GameSnapshot.encode(game, controllers());
+		return SAVES.submit(new Runnable(){
+			@Override
+			public void run() {
+				try{
+					GameSnapshot.write(snapshot, file);
+				} catch(final IOException e){
+					SwingUtilities.invokeLater(new Runnable(){
+						@Override
+						public void run() {
+							JOptionPane.showMessageDialog(CluedoFrame.this, "The game could not be saved.\n"
+									+ e.getMessage(), "Alert", JOptionPane.ERROR_MESSAGE);
+						}
+					});
+					throw new RuntimeException(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Waits for a save to be written.
+	 * @param save
+	 * @return true if the game was saved
+	 */
+	private boolean finishSaving(Future<?> save){
+		try{
+			save.get();
+			return true;
+		} catch(ExecutionException e){
+			return false;
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Returns what controls each player: 0 for a person or the strategy
+	 * 	of a computer player plus one.
+	 * @return
+	 */
+	private byte[] controllers(){
+		List<CharacterToken> players = game.getActivePlayers();
+		byte[] controllers = new byte[players.size()];
+		for(int i = 0; i < controllers.length; i++){
+			AIPlayer bot = getBot(players.get(i));
+			controllers[i] = (byte) (bot == null ? 0 : Strategy.of(bot).ordinal() + 1);
+		}
+		return controllers;
+	}
+
+	/**
+	 * Carries on a saved game in place of the game being played.
+	 * @param file
+	 */
+	private void loadGame(File file){
+		if(botTurn || replaying || client != null) return;
+		GameSnapshot snapshot;
+		try{
+			snapshot = GameSnapshot.read(boardModel, file);
+		} catch(IOException e){
+			snapshot = null;
+		}
+		if(snapshot == null){
+			JOptionPane.showMessageDialog(this, file.getName() + " is not a game saved on this board.",
+					"Alert", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		resume(snapshot);
+	}
+
+	/**
+	 * Offers to carry on the game being played when the program last
+	 * 	stopped, if it did not finish.
+	 * @return true if the game was carried on
+	 */
+	boolean resumeAutosave(){
+		GameSnapshot snapshot;
+		try{
+			snapshot = GameJournal.recover(boardModel, AUTOSAVE_FILE);
+		} catch(IOException e){
+			snapshot = null;
+		}
+		if(snapshot == null || snapshot.getGame().isOver()) return false;
+		int result = JOptionPane.showConfirmDialog(this, "A game was not finished. Would you like to carry it on?",
+				"Alert", JOptionPane.YES_NO_OPTION);
+		if(result != 0){
+			AUTOSAVE_FILE.delete();
+			GameJournal.journalFile(AUTOSAVE_FILE).delete();
+			return false;
+		}
+		resume(snapshot);
+		return true;
+	}
+
+	/**
+	 * Carries on a saved game in place of the game being played.
+	 * @param snapshot
+	 */
+	private void resume(GameSnapshot snapshot){
+		stopAutosave(false);
+		setGame(snapshot.getGame());
+		bots.clear();
+		List<CharacterToken> players = game.getActivePlayers();
+		for(int i = 0; i < players.size(); i++){
+			int controller = snapshot.controller(i);
+			if(controller <= 0 || controller > Strategy.values().length) continue;
+			AIPlayer bot = Strategy.values()[controller - 1].create(game.playerRandom(i));
+			bot.start(game, players.get(i));
+			// computer players learn from the suggestions made before the save
+			game.tellSuggestions(bot);
+			addBot(players.get(i), bot);
+		}
+		updatePlayer();
+		updatePlayerControls();
+		setText("");
+		startAutosave();
+		startBotTurn();
+	}
+
+	/**
+	 * Starts saving the game after every action if autosave is on.
+	 * 	The game is saved in the background, see GameJournal.
+	 */
+	void startAutosave(){
+		if(!autosave.isSelected() || client != null || game == null || game.isOver()) return;
+		stopAutosave(false);
+		journal = new GameJournal(game, controllers(), AUTOSAVE_FILE);
+	}
+
+	/**
+	 * Stops saving the game after every action.
+	 * @param discard true to delete what has been saved
+	 */
+	private void stopAutosave(boolean discard){
+		if(journal == null) return;
+		try{
+			journal.close(discard);
+		} catch(IOException e){
+			System.out.println("Autosave failed: " + e.getMessage());
+		}
+		journal = null;
+	}
 	
 	/**
 	 * Displays a help dialog message to the player
@@ -663,6 +1376,8 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 * Asks players if they want to start another game.
 	 */
 	private void newGame(){
+		// a finished game has nothing to carry on
+		stopAutosave(true);
 		String msg = "Would You Like To Start Again?" ;
 		int result = JOptionPane.showConfirmDialog(this, msg,
 		        "Alert", JOptionPane.YES_NO_OPTION);
@@ -675,6 +1390,7 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 * Starts a new Cluedo game.
 	 */
 	private void startNewGame(){
+		stopAutosave(true);
 		String[] file = {"boardFile.txt"};
 		Main.main(file);
 		dispose();
@@ -686,105 +1402,78 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 ------------*/
 	@Override
 	public boolean dispatchKeyEvent(KeyEvent e) {
-		// Checking player isnt null
-		if(player == null) return false;
+		// Checking player isnt null and is not a computer player
+		if(player == null || botTurn || replaying || !isLocal(player)) return false;
 		if (e.getID() == KeyEvent.KEY_PRESSED) {
-			// Player must have steps remaining to move
-			if(player!=null && player.getStepsRemaining()>0){
-				// Switch on the key code of the pressed key
-				switch(e.getKeyCode()){
-					// Player attempting to move left (west)
-					case KeyEvent.VK_A:
-					case KeyEvent.VK_LEFT:
-						if(board.canMoveWest(player)){
-							board.moveWest(player);
-							this.setText("");
-							return true;
-						}
-						break;
-					// Player attempting to move up (north)
-					case KeyEvent.VK_W:
-					case KeyEvent.VK_UP:
-						if(board.canMoveNorth(player)){
-							board.moveNorth(player);
-							this.setText("");
-							return true;
-						}
-						break;
-					// Player attempting to move right (east)
-					case KeyEvent.VK_D:
-					case KeyEvent.VK_RIGHT:
-						if(board.canMoveEast(player)){
-							board.moveEast(player);
-							this.setText("");
-							return true;
-						}
-						break;
-					// Player attempting to move down (south)
-					case KeyEvent.VK_S:
-					case KeyEvent.VK_DOWN:
-						if(board.canMoveSouth(player)){
-							board.moveSouth(player);
-							this.setText("");
-							return true;
-						}
-						break;
-				} // end of switch
-			}
+			// Switch on the key code of the pressed key
+			switch(e.getKeyCode()){
+				// Player attempting to move left (west)
+				case KeyEvent.VK_A:
+				case KeyEvent.VK_LEFT:
+					return move(Direction.WEST);
+				// Player attempting to move up (north)
+				case KeyEvent.VK_W:
+				case KeyEvent.VK_UP:
+					return move(Direction.NORTH);
+				// Player attempting to move right (east)
+				case KeyEvent.VK_D:
+				case KeyEvent.VK_RIGHT:
+					return move(Direction.EAST);
+				// Player attempting to move down (south)
+				case KeyEvent.VK_S:
+				case KeyEvent.VK_DOWN:
+					return move(Direction.SOUTH);
+			} // end of switch
 		}
 		return false;
 	}
 
 	@Override
 	public void mousePressed(MouseEvent e) {
-		// Check player isn't null
-		if(player == null) return;
-		
+		// Check player isn't null and is not a computer player
+		if(player == null || botTurn || replaying || !isLocal(player)) return;
+
 		// Checking click source
 		Object source = e.getSource();
-		if(source instanceof Tile){
-			// player must have steps remaining to move on the board
-			if(player != null && player.getStepsRemaining() > 0){
-				// Getting the player position
-				Position pPos = player.pos();
-				// Getting the clicked tile position
-				Position tPos = ((Tile) source).pos();
-				// Player attempting to move north
-				if((pPos.getY()-1 == tPos.getY())&&(pPos.getX() == tPos.getX())){
-					if(board.canMoveNorth(player)){
-						board.moveNorth(player);
-						this.setText("");
-						return;
-					}
-				}
-				// Player attempting to move south
-				if((pPos.getY()+1 == tPos.getY())&&(pPos.getX() == tPos.getX())){
-					if(board.canMoveSouth(player)){
-						board.moveSouth(player);
-						this.setText("");
-						return;
-					}
-				}	
-				// Player attempting to move east
-				if((pPos.getY() == tPos.getY())&&(pPos.getX()+1 == tPos.getX())){
-					if(board.canMoveEast(player)){
-						board.moveEast(player);
-						this.setText("");
-						return;
-					}
-				}
-				// Player attempting to move west
-				if((pPos.getY() == tPos.getY())&&(pPos.getX()-1 == tPos.getX())){
-					if(board.canMoveWest(player)){
-						board.moveWest(player);
-						this.setText("");
-						return;
-					}
-				}
+		if(source == board){
+			// Getting the clicked tile position
+			Position tPos = board.squareAt(e.getX(), e.getY());
+			if(tPos == null) return;
+			// Player moves along the shortest path to any square or room they can reach
+			int square = boardModel.index(tPos.getX(), tPos.getY());
+			int to = game.destination(player, square);
+			if(to < 0) return;
+			if(client != null){
+				if(to != game.squareOf(player)) client.move(square);
+				return;
+			}
+			if(game.moveTo(player, square) > 0){
+				updateReachable();
+				this.setText("");
 			}
 		}
 	}
-	
+
+	/**
+	 * Moves the current player a step if the game allows it.
+	 * @param dir
+	 * @return true if the player moved
+	 */
+	private boolean move(Direction dir){
+		// Player must have steps remaining and a free tile to move
+		if(game.canMove(player, dir) && client != null){
+			client.move(boardModel.neighbour(game.squareOf(player), dir));
+			return true;
+		}
+		if(game.canMove(player, dir)){
+			game.move(player, dir);
+			updateReachable();
+			this.setText("");
+			return true;
+		}
+		return false;
+	}
+
 	/*
 	 * Unused mouse event methods
 	 */
@@ -806,7 +1495,38 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 	 * @param game
 	 */
 	public void setGame(CluedoGame game){
+		if(this.game != null) this.game.removeListener(chancesListener);
 		this.game = game;
+		this.reachable = new ReachableSquares(game.getBoard());
+		board.setGame(game);
+		// what each person knows starts again with the game
+		knowledge.clear();
+		game.addListener(chancesListener);
+		startChances();
+	}
+
+	/**
+	 * Returns the game displayed by this frame.
+	 * @return
+	 */
+	public CluedoGame getGame(){
+		return game;
+	}
+
+	/**
+	 * Returns the player whose turn it is or null if the game has not begun.
+	 * @return
+	 */
+	public CharacterToken getPlayer(){
+		return player;
+	}
+
+	/**
+	 * Returns the connection to the server hosting the game, or null if it is played here.
+	 * @return
+	 */
+	public GameClient getClient(){
+		return client;
 	}
 
 	/**
@@ -825,6 +1545,14 @@ public class CluedoFrame extends JFrame implements MouseListener, KeyEventDispat
 		return board;
 	}
 
+	/**
+	 * Returns the headless board the game is played on.
+	 * @return
+	 */
+	public Board getBoardModel(){
+		return boardModel;
+	}
+
 	/**
 	 * Returns the list of players.
 	 * @return
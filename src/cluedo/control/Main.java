@@ -3,11 +3,19 @@ import java.awt.EventQueue;
 import java.awt.KeyboardFocusManager;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.swing.JOptionPane;
+
+import cluedo.ai.AIPlayer;
+import cluedo.ai.Strategy;
+import cluedo.model.Board;
 import cluedo.model.CharacterToken;
 import cluedo.model.CluedoGame;
-import cluedo.view.CluedoBoard;
+import cluedo.net.GameClient;
+import cluedo.view.AssetLoader;
 
 /**
  * Sets up the Cluedo game and begins running it.
@@ -22,8 +30,8 @@ public class Main {
 	 */
 	private static void checkArgs(String[] args) {
 		// check number of arguments
-		if (args.length != 1) {
-			System.out.println("command: java TextClient gameBoard.txt");
+		if (args.length != 1 && args.length != 4) {
+			System.out.println("command: java TextClient gameBoard.txt [host:port room players|watch]");
 			System.exit(1);
 		}
 
@@ -47,28 +55,61 @@ public class Main {
 	/**
 	 * Initialises the Cluedo game
 	 * @param parent frame
+	 * @param assets images being loaded
 	 */
-	protected static CluedoGame initGame(CluedoFrame frame) {
+	protected static CluedoGame initGame(CluedoFrame frame, AssetLoader assets) {
+		// carries on a game which did not finish last time
+		if(frame.resumeAutosave()) return frame.getGame();
+
 		// Display welcome dialog
-		WelcomeDialog welcome = new WelcomeDialog(frame);
+		WelcomeDialog welcome = new WelcomeDialog(frame, assets);
 		welcome.setAlwaysOnTop(true);
 		int numOfPlayers = welcome.showDialog();
 
 		// Getting player information
 		List<CharacterToken> players = new ArrayList<CharacterToken>();
+		Map<CharacterToken, Strategy> bots = new HashMap<CharacterToken, Strategy>();
 		for(int i = 1; i<=numOfPlayers; i++){
 			PlayerSetupDialog playerSetup = new PlayerSetupDialog(frame, i, players);
 			playerSetup.setAlwaysOnTop(true);
 			playerSetup.setVisible(false);
-			players.add(playerSetup.showDialog());
+			CharacterToken player = playerSetup.showDialog();
+			players.add(player);
+			Strategy strategy = playerSetup.getStrategy();
+			if(strategy != null) bots.put(player, strategy);
 		}
 		
-		// Setting up the game board
-		CluedoBoard board = frame.getBoard();
-		board.initPlayers(players);
-		board.redraw();
-		
-		return new CluedoGame(board, players);
+		// Setting up the game on the board
+		CluedoGame game = new CluedoGame(frame.getBoardModel(), players);
+		frame.setGame(game);
+		// computer players start once the cards have been dealt, with
+		// 	random numbers from the game's seed
+		for(int i = 0; i < players.size(); i++){
+			CharacterToken player = players.get(i);
+			if(!bots.containsKey(player)) continue;
+			AIPlayer bot = bots.get(player).create(game.playerRandom(i));
+			bot.start(game, player);
+			frame.addBot(player, bot);
+		}
+		frame.startAutosave();
+
+		return game;
+	}
+
+	/**
+	 * Joins a game hosted by a server, see cluedo.net.GameServer
+	 * @param frame
+	 * @param args board file, host:port, room and number of players or watch
+	 * @return true if the server was reached
+	 */
+	private static boolean joinServer(CluedoFrame frame, String[] args) {
+		String[] address = args[1].split(":");
+		int port = address.length > 1 ? Integer.parseInt(address[1]) : GameClient.DEFAULT_PORT;
+		if(args[3].equals("watch")) return frame.watchServer(address[0], port, args[2]);
+		String name = JOptionPane.showInputDialog(frame, "Enter your name.", "Join " + args[2],
+				JOptionPane.QUESTION_MESSAGE);
+		if(name == null || name.trim().isEmpty()) return false;
+		return frame.joinServer(address[0], port, args[2], name.trim(), Integer.parseInt(args[3]));
 	}
 
 	/**
@@ -77,22 +118,23 @@ public class Main {
 	 */
 	public static void main(String[] args){
 		checkArgs(args);
+		// start decoding the images before the gui needs them
+		AssetLoader assets = AssetLoader.start();
 		EventQueue.invokeLater(new Runnable(){
 			@Override
 			public void run() {
 				// Creates the cluedo frame
-				CluedoFrame frame = new CluedoFrame(args[0]);
+				CluedoFrame frame = new CluedoFrame(Board.load(args[0]));
 				frame.setVisible(true);
 				
-				// Setting up the game
-				CluedoGame game = initGame(frame);
-				frame.setGame(game);
+				// Setting up the game, or joining one on a server
+				if(args.length < 4 || !joinServer(frame, args)){
+					initGame(frame, assets);
+				}
 				
 				// Adding a key event manager to the cluedo frame
 				KeyboardFocusManager manager = KeyboardFocusManager.getCurrentKeyboardFocusManager();
 		        manager.addKeyEventDispatcher(frame);
-				
-		        frame.player = game.getActivePlayers().get(0); // first player
 			}
 		});
 	}
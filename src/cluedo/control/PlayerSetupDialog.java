@@ -14,6 +14,7 @@ import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -24,6 +25,7 @@ import javax.swing.SwingConstants;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.EtchedBorder;
 
+import cluedo.ai.Strategy;
 import cluedo.model.CharacterToken;
 
 /**
@@ -48,6 +50,10 @@ public class PlayerSetupDialog extends JDialog implements ActionListener {
 	private CharacterToken player;
 	// an array of character buttons
 	private JRadioButton[] characterBtns;
+	// the kinds of player which can be chosen, a person or a computer player
+	private static final String[] PLAYER_TYPES = {"Person", "Computer (easy)", "Computer (medium)", "Computer (hard)"};
+	// a field for choosing who plays the character
+	private JComboBox<String> typeBox;
 
 	public PlayerSetupDialog(CluedoFrame parent, int playerUid, List<CharacterToken> curPlayers) {
 		super(parent, "Player number " + playerUid + " setup", true);
@@ -112,6 +118,19 @@ public class PlayerSetupDialog extends JDialog implements ActionListener {
 		}
 	}
 
+	/**
+	 * Returns the kind of computer player chosen for the resulting player,
+	 * 	or null if a person is playing. The computer player is made once
+	 * 	the game is, see CluedoGame.playerRandom.
+	 * @return
+	 */
+	public Strategy getStrategy(){
+		int type = typeBox.getSelectedIndex();
+		if(type == 0) return null;
+		// the computer types are listed from easiest to hardest, like the strategies
+		return Strategy.values()[type - 1];
+	}
+
 	/**
 	 * Initilizes the player setup dialog GUI
 	 */
@@ -178,6 +197,10 @@ public class PlayerSetupDialog extends JDialog implements ActionListener {
 		namePnl.add(nameLbl, BorderLayout.WEST);
 		namePnl.add(nameField, BorderLayout.CENTER);
 
+		// Creating a box to choose a person or computer player
+		typeBox = new JComboBox<String>(PLAYER_TYPES);
+		namePnl.add(typeBox, BorderLayout.EAST);
+
 		// Creating a panel for character selection
 		JPanel charPnl = createCharacterBtnsPnl();
 
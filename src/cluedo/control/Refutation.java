@@ -175,7 +175,7 @@ public class Refutation extends JDialog implements ActionListener {
 		// Creating player and info message labels
 		// using html tags to underline text
 		JLabel playerMsg = new JLabel("<html><b><u>" + refuter.getName() + ": Can You Refute the Suggestion?</u></b></html>");
-		JLabel infoMsg = new JLabel(frame.player.getName() + " accused " + suggestion.get(0) +
+		JLabel infoMsg = new JLabel(frame.getPlayer().getName() + " accused " + suggestion.get(0) +
 				" of committing the crime with the " + suggestion.get(1) + " in the " + 
 				suggestion.get(2));
 
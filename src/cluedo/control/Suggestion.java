@@ -9,6 +9,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -24,12 +25,14 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
 
+import cluedo.ai.AIPlayer;
 import cluedo.model.Card;
 import cluedo.model.CharRadioBtn;
 import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
 import cluedo.model.RoomRadioBtn;
+import cluedo.model.SuggestionResult;
 import cluedo.model.WeapRadioBtn;
-import cluedo.view.RoomTile;
 
 /**
  * This class creates a custom JDialog which gets
@@ -126,16 +129,35 @@ public class Suggestion extends JDialog implements ActionListener {
 			}
 			else{
 				dispose();
+				// a server asks the refuters itself
+				if(frame.getClient() != null){
+					frame.getClient().suggest(getSuspectCard(), getWeaponCard());
+					return;
+				}
 				// calls another class to handle refutations
 				CharacterToken currentRefuter = refuter;
-				while((refuter = nextRefuter())!= frame.player){
-					Refutation refutation = new Refutation(refuter, frame, this, getSuggestion());
+				while((refuter = nextRefuter())!= frame.getPlayer()){
 					currentRefuter = refuter;
+					AIPlayer bot = frame.getBot(refuter);
+					if(bot != null){
+						// computer players choose their own card to show
+						List<Card> cards = frame.getGame().refutingCards(refuter,
+								getSuspectCard(), getWeaponCard(), frame.getPlayer().getRoom());
+						if(!cards.isEmpty()){
+							refutedCard = cards.size() == 1 ? cards.get(0) : chooseRefutation(bot, cards);
+						}
+					} else {
+						new Refutation(refuter, frame, this, getSuggestion());
+					}
 					if(refuted()){
 						break;
 					}
 				}
 				result(currentRefuter);
+				// lets computer players learn from the suggestion
+				frame.getGame().reportSuggestion(new SuggestionResult(frame.getPlayer(),
+						getSuspectCard(), getWeaponCard(), frame.getPlayer().getRoom(),
+						refuted ? currentRefuter : null, refutedCard));
 			}
 		}
 	}
@@ -152,8 +174,8 @@ public class Suggestion extends JDialog implements ActionListener {
 
 		// Creating player and info message labels
 		// using html tags to underline text
-		JLabel playerMsg = new JLabel("<html><b><u>" + frame.player.getCharacter().toString() + 
-				": " + frame.player.getName() + "</u></b></html>");
+		JLabel playerMsg = new JLabel("<html><b><u>" + frame.getPlayer().getCharacter().toString() + 
+				": " + frame.getPlayer().getName() + "</u></b></html>");
 		JLabel infoMsg = new JLabel("Make Your Suggestion.");
 
 		// Setting labels font, border, and alignments
@@ -242,6 +264,28 @@ public class Suggestion extends JDialog implements ActionListener {
 		return suggestion;
 	}
 	
+	/**
+	 * Returns the suspect card chosen.
+	 * @return
+	 */
+	private CluedoGame.Character getSuspectCard(){
+		for(CluedoGame.Character c: CluedoGame.Character.values()){
+			if(c.toString().equalsIgnoreCase(suspect)) return c;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the weapon card chosen.
+	 * @return
+	 */
+	private CluedoGame.Weapon getWeaponCard(){
+		for(CluedoGame.Weapon w: CluedoGame.Weapon.values()){
+			if(w.toString().equalsIgnoreCase(weapon)) return w;
+		}
+		return null;
+	}
+
 	/**
 	 * Returns a string representation of player's suggestion
 	 * @return
@@ -255,7 +299,7 @@ public class Suggestion extends JDialog implements ActionListener {
 	 * Sets the name of the room.
 	 */
 	private void getRoom(){
-        room = ((RoomTile)frame.player.getTile()).name().toString();
+        room = frame.getPlayer().getRoom().toString();
 	}
 	
 	/**
@@ -300,27 +344,32 @@ public class Suggestion extends JDialog implements ActionListener {
 		}
 	}
 	
+	/**
+	 * Asks a computer player which card to show, on a worker thread and
+	 * 	within the same time budget as its own turns, see BotTurn.
+	 * @param bot
+	 * @param cards
+	 * @return the card chosen, or the first card if the player fails or runs out of time
+	 */
+	private Card chooseRefutation(final AIPlayer bot, final List<Card> cards){
+		final CharacterToken suggester = frame.getPlayer();
+		return BotTurn.decide(new Callable<Card>(){
+			@Override
+			public Card call() { return bot.chooseRefutation(suggester, cards); }
+		}, cards.get(0));
+	}
+
 	/**
 	 * Gets the next player to refute
 	 */
 	private CharacterToken nextRefuter(){
 		if(refuter==null){
 			// gets the player after current player
-			if(frame.player.getUid()<frame.getPlayers().size()){
-				refuter = frame.getPlayers().get(frame.player.getUid());
-			}
-			else{
-				refuter = frame.getPlayers().get(0);
-			}
+			refuter = frame.getGame().playerAfter(frame.getPlayer());
 		}
 		else{
 			// otherwise get next refuter
-			if(refuter.getUid()<frame.getPlayers().size()){
-				refuter = frame.getPlayers().get(refuter.getUid());
-			}
-			else{
-				refuter = frame.getPlayers().get(0);
-			}
+			refuter = frame.getGame().playerAfter(refuter);
 		}
 		return refuter;
 	}
@@ -450,7 +499,7 @@ public class Suggestion extends JDialog implements ActionListener {
 		candlestick.setActionCommand("CANDLESTICK");
 		knife.setActionCommand("KNIFE");
 		pipe.setActionCommand("LEAD PIPE");
-		revolver.setActionCommand("REVOLER");
+		revolver.setActionCommand("REVOLVER");
 		rope.setActionCommand("ROPE");
 		wrench.setActionCommand("WRENCH");
 
@@ -14,13 +14,19 @@ import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.SwingConstants;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import cluedo.view.AssetLoader;
 
 /**
  * This class creates a welcome message as a dialog.
  * 	The dialog welcomes the user(s) and asks for the
- * 	number of players in the game to be entered.
+ * 	number of players in the game to be entered, while
+ * 	showing the progress of loading the game's images.
  * @author Patrick
  *
  */
@@ -30,10 +36,13 @@ public class WelcomeDialog extends JDialog {
 	// Field for the number of players combobox and its result value 
 	private JComboBox<Integer> numPlayersBox;
 	private int result;
+	// Field for the images being loaded in the background
+	private AssetLoader assets;
 
-	public WelcomeDialog(CluedoFrame parent) {
+	public WelcomeDialog(CluedoFrame parent, AssetLoader assets) {
 		super(parent);
-		
+		this.assets = assets;
+
 		initGUI();
 		
 		// make the dialog blocking (always on top)
@@ -118,11 +127,34 @@ public class WelcomeDialog extends JDialog {
 		header.add(heading);
 		header.add(subheader);
 		header.add(numPlayer);
+		header.add(createProgressBar());
 		
 		// display center window
 		add(header, BorderLayout.CENTER);	
 	}
 	
+	/**
+	 * Creates a progress bar showing how many of the game's
+	 * 	images have been loaded.
+	 * @return progress bar
+	 */
+	private JProgressBar createProgressBar() {
+		JProgressBar progress = new JProgressBar(0, assets.total());
+		progress.setStringPainted(true);
+		progress.setBorder(new EmptyBorder(0, 10, 0, 10));
+		// updates the progress each time an image finishes loading
+		ChangeListener update = new ChangeListener(){
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				progress.setValue(assets.loaded());
+				progress.setString(assets.isDone() ? "Ready" : "Loading images...");
+			}
+		};
+		update.stateChanged(null);
+		assets.addChangeListener(update);
+		return progress;
+	}
+
 	/**
 	 * Displays dialog asking if user wants to exit the game
 	 */
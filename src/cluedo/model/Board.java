@@ -0,0 +1,572 @@
+package cluedo.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Scanner;
+import java.util.zip.CRC32;
+
+import cluedo.model.CluedoGame.Room;
+
+/**
+ * A headless representation of the cluedo board read from a board file.
+ * 	The board only stores what kind of square is at each position,
+ * 	so it can be used by the game without any gui.
+ *
+ * 	Squares are numbered row by row from 0. When the board is loaded
+ * 	it works out, once, which squares can be stepped to from each
+ * 	square, so checking a move is a single array lookup.
+ * @author Patrick
+ *
+ */
+public class Board {
+
+	// The kinds of square on the board
+	public static final byte WALL = 0;
+	public static final byte HALLWAY = 1;
+	public static final byte DOORWAY = 2;
+	public static final byte ROOM = 3;
+
+	// The most squares a board can have, 4096x4096, so the tables
+	// 	worked out for it can be indexed with an int
+	public static final int MAX_SQUARES = 1 << 24;
+
+	// Stores the height and width of the board
+	private final int width;
+	private final int height;
+
+	// Stores the kind of each square, row by row
+	private final byte[] kinds;
+	// Stores the symbol of each square as read from the board file
+	private final char[] symbols;
+	// Stores the room of each square or null if not a room square
+	private final Room[] rooms;
+	// Stores the starting square of each character
+	private final EnumMap<CluedoGame.Character, Integer> startSquares =
+			new EnumMap<CluedoGame.Character, Integer>(CluedoGame.Character.class);
+
+	// Stores the square reached by a step in each direction from each square,
+	// 	4 per square in Direction order, or -1 if it cannot be stepped to
+	private int[] neighbours;
+	// Stores a bit for each direction a token can step from each square
+	private byte[] exits;
+	// Stores the room each doorway leads into or null if none
+	private Room[] doorRooms;
+	// Stores the doorways leading into each room
+	private EnumMap<Room, int[]> roomDoors;
+	// Stores the squares inside each room, row by row
+	private EnumMap<Room, int[]> roomSquares;
+	// Stores a position object for each square once it is first needed,
+	// 	so moves need not create them
+	private Position[] positions;
+	// Stores the steps from each square to each room, worked out when first needed
+	private RoomDistances distances;
+
+	/**
+	 * Creates a board from the rows of a board file.
+	 * @param lines
+	 */
+	public Board(List<String> lines) {
+		height = lines.size();
+		int w = 0;
+		for(String line: lines){
+			w = Math.max(w, line.length());
+		}
+		width = w;
+		checkSize(width, height);
+		kinds = new byte[width*height];
+		symbols = new char[width*height];
+		rooms = new Room[width*height];
+		for(int y = 0; y < height; y++){
+			String line = lines.get(y);
+			for(int x = 0; x < width; x++){
+				// missing characters at the end of a short line are walls
+				char c = x < line.length() ? line.charAt(x) : 'X';
+				initSquare(x, y, c);
+			}
+		}
+		initGraph();
+	}
+
+	/**
+	 * Creates a board from data which has already been worked out,
+	 * 	such as a compiled board image.
+	 * @param width
+	 * @param height
+	 * @param symbols
+	 * @param kinds
+	 * @param exits
+	 * @param neighbours
+	 * @param doorRooms
+	 * @param startSquares
+	 * @param roomDoors
+	 * @param roomSquares
+	 * @param distances
+	 */
+	Board(int width, int height, char[] symbols, byte[] kinds, byte[] exits, int[] neighbours,
+			Room[] doorRooms, EnumMap<CluedoGame.Character, Integer> startSquares,
+			EnumMap<Room, int[]> roomDoors, EnumMap<Room, int[]> roomSquares, RoomDistances distances) {
+		checkSize(width, height);
+		this.width = width;
+		this.height = height;
+		this.symbols = symbols;
+		this.kinds = kinds;
+		this.exits = exits;
+		this.neighbours = neighbours;
+		this.doorRooms = doorRooms;
+		this.startSquares.putAll(startSquares);
+		this.roomDoors = roomDoors;
+		this.roomSquares = roomSquares;
+		this.distances = distances;
+		this.positions = new Position[width*height];
+		this.rooms = new Room[width*height];
+		for(int i = 0; i < rooms.length; i++){
+			if(kinds[i] == ROOM){
+				rooms[i] = roomFor(symbols[i]);
+			}
+		}
+	}
+
+	/**
+	 * Checks the board has at least one square and no more than MAX_SQUARES.
+	 * @param width
+	 * @param height
+	 */
+	private static void checkSize(int width, int height) {
+		if(width <= 0 || height <= 0 || (long) width*height > MAX_SQUARES){
+			throw new IllegalArgumentException("Board size not supported: " + width + "x" + height);
+		}
+	}
+
+	/**
+	 * Loads a board. A compiled image of the board is used if there is
+	 * 	one at least as new as the text file, otherwise the text file is
+	 * 	scanned and the room distances are read from a file saved next to
+	 * 	it, or worked out and saved there if there is none.
+	 * @param boardFile
+	 * @return board
+	 */
+	public static Board load(String boardFile) {
+		File image = siblingFile(boardFile, BoardImage.EXTENSION);
+		File text = new File(boardFile);
+		if(image.exists() && (!text.exists() || image.lastModified() >= text.lastModified())){
+			try{
+				Board board = BoardImage.read(image);
+				if(board != null) return board;
+			} catch(IOException e){
+				System.out.println("Board image reading fail: " + e.getMessage());
+			}
+		}
+		Board board = parse(boardFile);
+		board.initDistances(siblingFile(boardFile, ".dist"));
+		return board;
+	}
+
+	/**
+	 * Returns a file saved next to a board file, named after it.
+	 * @param boardFile
+	 * @param extension
+	 * @return
+	 */
+	static File siblingFile(String boardFile, String extension) {
+		String name = boardFile.toLowerCase().endsWith(".txt") ?
+				boardFile.substring(0, boardFile.length() - 4) : boardFile;
+		return new File(name + extension);
+	}
+
+	/**
+	 * Reads the saved room distances, or works them out and saves them.
+	 * @param file
+	 */
+	void initDistances(File file) {
+		if(file.exists()){
+			try{
+				distances = RoomDistances.read(file, this);
+			} catch(IOException e){
+				System.out.println("Distance file reading fail: " + e.getMessage());
+			}
+		}
+		if(distances == null){
+			distances = RoomDistances.compute(this);
+			try{
+				distances.write(file, this);
+			} catch(IOException e){
+				// the distances can always be worked out again
+				System.out.println("Distance file writing fail: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Scans a text file and constructs the board from it.
+	 * @param boardFile
+	 * @return board
+	 */
+	static Board parse(String boardFile) {
+		List<String> lines = new ArrayList<String>();
+		Scanner scanner = null;
+		try{
+			// Creating the scanner on the board file
+			scanner = new Scanner(new File(boardFile));
+			while(scanner.hasNextLine()){
+				lines.add(scanner.nextLine());
+			}
+		} catch(IOException e){
+			// board reading failed
+			System.out.println("Board file reading fail: " + e.getMessage());
+		} finally {
+			if(scanner != null) scanner.close();
+		}
+		return new Board(lines);
+	}
+
+	/**
+	 * Sets up a single square from its board file character.
+	 * @param x
+	 * @param y
+	 * @param c
+	 */
+	private void initSquare(int x, int y, char c) {
+		int index = index(x, y);
+		symbols[index] = c;
+		// If character is a digit, then make square a player starting location
+		if(java.lang.Character.isDigit(c)){
+			kinds[index] = HALLWAY;
+			CluedoGame.Character start = startCharacter(java.lang.Character.digit(c, 10));
+			if(start != null){
+				startSquares.put(start, index);
+			}
+			return;
+		}
+		switch(c){
+			case 'H':
+				kinds[index] = HALLWAY;
+				break;
+			case 'd':
+				kinds[index] = DOORWAY;
+				break;
+			default:
+				Room room = roomFor(c);
+				if(room != null){
+					kinds[index] = ROOM;
+					rooms[index] = room;
+				} else {
+					kinds[index] = WALL;
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Works out which squares can be stepped to from each square
+	 * 	and which room each doorway leads into.
+	 */
+	private void initGraph() {
+		int size = width*height;
+		Direction[] dirs = Direction.values();
+		neighbours = new int[size*dirs.length];
+		exits = new byte[size];
+		doorRooms = new Room[size];
+		positions = new Position[size];
+		EnumMap<Room, List<Integer>> doors = new EnumMap<Room, List<Integer>>(Room.class);
+		EnumMap<Room, List<Integer>> squares = new EnumMap<Room, List<Integer>>(Room.class);
+		for(Room room: Room.values()){
+			doors.put(room, new ArrayList<Integer>());
+			squares.put(room, new ArrayList<Integer>());
+		}
+		for(int y = 0; y < height; y++){
+			for(int x = 0; x < width; x++){
+				int index = index(x, y);
+				if(rooms[index] != null){
+					squares.get(rooms[index]).add(index);
+				}
+				for(Direction d: dirs){
+					int nx = x + d.dx();
+					int ny = y + d.dy();
+					int to = -1;
+					// walls can never be stepped to or from
+					if(kinds[index] != WALL && contains(nx, ny) && kinds[index(nx, ny)] != WALL){
+						to = index(nx, ny);
+						exits[index] |= 1 << d.ordinal();
+						// a doorway leads into the room next to it
+						if(kinds[index] == DOORWAY && kinds[to] == ROOM && doorRooms[index] == null){
+							doorRooms[index] = rooms[to];
+							doors.get(rooms[to]).add(index);
+						}
+					}
+					neighbours[index*dirs.length + d.ordinal()] = to;
+				}
+			}
+		}
+		roomDoors = toArrays(doors);
+		roomSquares = toArrays(squares);
+	}
+
+	/**
+	 * Turns the lists of squares built while loading into arrays.
+	 * @param lists
+	 * @return
+	 */
+	private static EnumMap<Room, int[]> toArrays(EnumMap<Room, List<Integer>> lists) {
+		EnumMap<Room, int[]> arrays = new EnumMap<Room, int[]>(Room.class);
+		for(Room room: lists.keySet()){
+			List<Integer> list = lists.get(room);
+			int[] array = new int[list.size()];
+			for(int i = 0; i < array.length; i++){
+				array[i] = list.get(i);
+			}
+			arrays.put(room, array);
+		}
+		return arrays;
+	}
+
+	/**
+	 * Returns the character which starts on a numbered square.
+	 * @param charID
+	 * @return character or null if none
+	 */
+	private static CluedoGame.Character startCharacter(int charID) {
+		switch(charID){
+			case 1:
+				return CluedoGame.Character.MISS_SCARLETT;
+			case 2:
+				return CluedoGame.Character.COLONEL_MUSTARD;
+			case 3:
+				return CluedoGame.Character.THE_REVEREND_GREEN;
+			case 4:
+				return CluedoGame.Character.MRS_PEACOCK;
+			case 5:
+				return CluedoGame.Character.PROFESSOR_PLUM;
+			case 6:
+				return CluedoGame.Character.MRS_WHITE;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the room represented by a board file character.
+	 * @param c
+	 * @return room or null if not a room character
+	 */
+	public static Room roomFor(char c) {
+		switch(c){
+			case 'C':
+				return Room.CONSERVATORY;
+			case 'I':
+				return Room.BILLIARD_ROOM;
+			case 'L':
+				return Room.LIBRARY;
+			case 'S':
+				return Room.STUDY;
+			case 'B':
+				return Room.BALL_ROOM;
+			case 'A':
+				return Room.HALL;
+			case 'K':
+				return Room.KITCHEN;
+			case 'D':
+				return Room.DINING_ROOM;
+			case 'O':
+				return Room.LOUNGE;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the room connected to this one by a secret passage.
+	 * @param room
+	 * @return opposite room or null if none
+	 */
+	public static Room oppositeRoom(Room room) {
+		if(room == null) return null;
+		switch(room){
+			case LOUNGE:
+				return Room.CONSERVATORY;
+			case CONSERVATORY:
+				return Room.LOUNGE;
+			case KITCHEN:
+				return Room.STUDY;
+			case STUDY:
+				return Room.KITCHEN;
+			default:
+				return null;
+		}
+	}
+
+	/*
+	 * Getter methods
+	 */
+	/**
+	 * Returns the width of the board.
+	 * @return
+	 */
+	public int width(){ return width; }
+	/**
+	 * Returns the height of the board.
+	 * @return
+	 */
+	public int height(){ return height; }
+	/**
+	 * Returns true if the position is on the board.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public boolean contains(int x, int y){
+		return x >= 0 && y >= 0 && x < width && y < height;
+	}
+	/**
+	 * Returns the index of a square in the flat board arrays.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public int index(int x, int y){ return y*width + x; }
+	/**
+	 * Returns the kind of square at a position.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public byte kind(int x, int y){ return kinds[index(x, y)]; }
+	/**
+	 * Returns the board file symbol at a position.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public char symbol(int x, int y){ return symbols[index(x, y)]; }
+	/**
+	 * Returns the room at a position or null if not a room square.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public Room room(int x, int y){ return rooms[index(x, y)]; }
+	/**
+	 * Returns true if a token can stand on the square at a position.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public boolean isOccupyable(int x, int y){ return kinds[index(x, y)] != WALL; }
+	/**
+	 * Returns the number of squares on the board.
+	 * @return
+	 */
+	public int size(){ return kinds.length; }
+	/**
+	 * Returns the kind of a square.
+	 * @param index
+	 * @return
+	 */
+	public byte kind(int index){ return kinds[index]; }
+	/**
+	 * Returns the room of a square or null if not a room square.
+	 * @param index
+	 * @return
+	 */
+	public Room room(int index){ return rooms[index]; }
+	/**
+	 * Returns the position of a square.
+	 * @param index
+	 * @return
+	 */
+	public Position position(int index){
+		Position pos = positions[index];
+		if(pos == null){
+			pos = new Position(index % width, index / width, symbols[index]);
+			positions[index] = pos;
+		}
+		return pos;
+	}
+	/**
+	 * Returns the square reached by a step in a direction.
+	 * @param index
+	 * @param dir
+	 * @return square or -1 if it cannot be stepped to
+	 */
+	public int neighbour(int index, Direction dir){
+		return neighbours[(index << 2) + dir.ordinal()];
+	}
+	/**
+	 * Returns a bit for each direction that can be stepped in
+	 * 	from a square, bit n is set for the Direction with ordinal n.
+	 * @param index
+	 * @return
+	 */
+	public int exits(int index){ return exits[index]; }
+	/**
+	 * Returns the room a doorway leads into or null if none.
+	 * @param index
+	 * @return
+	 */
+	public Room doorRoom(int index){ return doorRooms[index]; }
+	/**
+	 * Returns the doorways leading into a room.
+	 * 	The array is shared and must not be changed.
+	 * @param room
+	 * @return
+	 */
+	public int[] doors(Room room){ return roomDoors.get(room); }
+	/**
+	 * Returns the squares inside a room, row by row.
+	 * 	The array is shared and must not be changed.
+	 * @param room
+	 * @return
+	 */
+	public int[] squares(Room room){ return roomSquares.get(room); }
+	/**
+	 * Returns the steps needed to get from a square into each room.
+	 * @return
+	 */
+	public RoomDistances distances(){
+		if(distances == null){
+			distances = RoomDistances.compute(this);
+		}
+		return distances;
+	}
+	/**
+	 * Returns the steps needed to get from a square into a room,
+	 * 	ignoring other tokens.
+	 * @param index
+	 * @param room
+	 * @return steps or RoomDistances.UNREACHABLE
+	 */
+	public int distance(int index, Room room){ return distances().distance(index, room); }
+	/**
+	 * Returns a checksum of the board layout, used to check saved
+	 * 	data belongs to this board.
+	 * @return
+	 */
+	public long checksum(){
+		CRC32 crc = new CRC32();
+		// update(int) only takes the low byte, so the size goes in whole
+		crc.update(ByteBuffer.allocate(8).putInt(width).putInt(height).array());
+		for(char c: symbols){
+			crc.update(c);
+		}
+		return crc.getValue();
+	}
+	/**
+	 * Returns the starting position of a character or null if none.
+	 * @param character
+	 * @return
+	 */
+	public Position startPosition(CluedoGame.Character character){
+		int square = startSquare(character);
+		return square < 0 ? null : position(square);
+	}
+	/**
+	 * Returns the starting square of a character or -1 if none.
+	 * @param character
+	 * @return
+	 */
+	public int startSquare(CluedoGame.Character character){
+		Integer square = startSquares.get(character);
+		return square == null ? -1 : square;
+	}
+}
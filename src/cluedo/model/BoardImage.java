@@ -0,0 +1,260 @@
+package cluedo.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.EnumMap;
+import java.util.zip.CRC32;
+
+import cluedo.model.CluedoGame.Room;
+
+/**
+ * A compiled image of a board, holding everything worked out when a
+ * 	text board file is loaded: the kind and exits of each square, the
+ * 	squares next to each square, the doorways and squares of each room,
+ * 	the starting squares and the room distances.
+ *
+ * 	The image is read through a memory mapped file straight into the
+ * 	arrays the board uses, so loading it creates no object per square.
+ * 	Board.load uses an image saved next to the text file when there is one.
+ * @author Patrick
+ *
+ */
+public class BoardImage {
+
+	// the extension of a compiled board, replacing .txt
+	public static final String EXTENSION = ".board";
+
+	// identifies a compiled board file
+	private static final int MAGIC = 0x434C4442; // "CLDB"
+	private static final int VERSION = 3;
+	// the bytes before the squares: the magic, version, size, checksums and counts
+	private static final int HEADER = 40;
+	private static final int ROOMS = Room.values().length;
+	private static final int CHARACTERS = CluedoGame.Character.values().length;
+	private static final int DIRECTIONS = Direction.values().length;
+
+	// stored for a doorway which leads into no room
+	private static final byte NO_ROOM = -1;
+
+	private BoardImage() {}
+
+	/**
+	 * Compiles a text board file into an image saved next to it.
+	 * @param args the board files to compile
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length == 0){
+			System.out.println("Usage: java cluedo.model.BoardImage <boardFile.txt>...");
+			return;
+		}
+		for(String boardFile: args){
+			File image = Board.siblingFile(boardFile, EXTENSION);
+			Board board = Board.parse(boardFile);
+			write(board, image);
+			System.out.println(boardFile + " -> " + image + " (" + image.length() + " bytes)");
+		}
+	}
+
+	/**
+	 * Saves an image of a board.
+	 * @param board
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void write(Board board, File file) throws IOException {
+		int size = board.size();
+		ByteBuffer buf = ByteBuffer.allocate(length(board));
+		buf.putInt(MAGIC);
+		buf.putInt(VERSION);
+		buf.putInt(board.width());
+		buf.putInt(board.height());
+		buf.putLong(board.checksum());
+		// the checksum of everything after the header, filled in below
+		buf.putLong(0);
+		buf.putInt(ROOMS);
+		buf.putInt(CHARACTERS);
+		for(int i = 0; i < size; i++){
+			buf.put((byte) board.symbol(i % board.width(), i / board.width()));
+		}
+		for(int i = 0; i < size; i++){
+			buf.put(board.kind(i));
+		}
+		for(int i = 0; i < size; i++){
+			buf.put((byte) board.exits(i));
+		}
+		for(int i = 0; i < size; i++){
+			Room room = board.doorRoom(i);
+			buf.put(room == null ? NO_ROOM : (byte) room.ordinal());
+		}
+		for(int i = 0; i < size; i++){
+			for(Direction dir: Direction.values()){
+				buf.putInt(board.neighbour(i, dir));
+			}
+		}
+		for(CluedoGame.Character c: CluedoGame.Character.values()){
+			buf.putInt(board.startSquare(c));
+		}
+		for(Room room: Room.values()){
+			putSquares(buf, board.doors(room));
+			putSquares(buf, board.squares(room));
+		}
+		for(short d: board.distances().table()){
+			buf.putShort(d);
+		}
+		buf.flip();
+		buf.putLong(24, bodyChecksum(buf));
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try{
+			out.setLength(0);
+			FileChannel channel = out.getChannel();
+			while(buf.hasRemaining()){
+				channel.write(buf);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a board from an image. An image which is cut short or damaged
+	 * 	in a way its checksums miss is reported as an IOException.
+	 * @param file
+	 * @return board or null if the file is not a board image this version can read
+	 * @throws IOException
+	 */
+	public static Board read(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try{
+			FileChannel channel = in.getChannel();
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return read(buf);
+		} catch(RuntimeException e){
+			// an underflow, a bad index or count in an image which passed its checks
+			throw new IOException("Damaged board image: " + e, e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a board from the bytes of an image.
+	 * @param buf
+	 * @return board or null if the bytes are not a board image this version can read
+	 */
+	private static Board read(ByteBuffer buf) {
+		if(buf.remaining() < HEADER) return null;
+		if(buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+		int width = buf.getInt();
+		int height = buf.getInt();
+		long checksum = buf.getLong();
+		long body = buf.getLong();
+		if(buf.getInt() != ROOMS || buf.getInt() != CHARACTERS) return null;
+		// an image whose squares, neighbours, rooms or distances have changed has been damaged
+		if(bodyChecksum(buf) != body) return null;
+		if(width <= 0 || height <= 0 || (long) width*height > Board.MAX_SQUARES) return null;
+		int size = width*height;
+		if(buf.remaining() < size*(4 + DIRECTIONS*4 + ROOMS*2) + CHARACTERS*4) return null;
+
+		byte[] bytes = new byte[size];
+		buf.get(bytes);
+		char[] symbols = new char[size];
+		for(int i = 0; i < size; i++){
+			symbols[i] = (char) (bytes[i] & 0xFF);
+		}
+		byte[] kinds = new byte[size];
+		buf.get(kinds);
+		byte[] exits = new byte[size];
+		buf.get(exits);
+		Room[] rooms = Room.values();
+		Room[] doorRooms = new Room[size];
+		buf.get(bytes);
+		for(int i = 0; i < size; i++){
+			if(bytes[i] != NO_ROOM) doorRooms[i] = rooms[bytes[i]];
+		}
+		int[] neighbours = new int[size*DIRECTIONS];
+		buf.asIntBuffer().get(neighbours);
+		buf.position(buf.position() + neighbours.length*4);
+
+		EnumMap<CluedoGame.Character, Integer> starts =
+				new EnumMap<CluedoGame.Character, Integer>(CluedoGame.Character.class);
+		for(CluedoGame.Character c: CluedoGame.Character.values()){
+			int square = buf.getInt();
+			if(square >= 0) starts.put(c, square);
+		}
+		EnumMap<Room, int[]> doors = new EnumMap<Room, int[]>(Room.class);
+		EnumMap<Room, int[]> squares = new EnumMap<Room, int[]>(Room.class);
+		for(Room room: rooms){
+			doors.put(room, getSquares(buf));
+			squares.put(room, getSquares(buf));
+		}
+		short[] distances = new short[size*ROOMS];
+		if(buf.remaining() != distances.length*2) return null;
+		buf.asShortBuffer().get(distances);
+
+		Board board = new Board(width, height, symbols, kinds, exits, neighbours,
+				doorRooms, starts, doors, squares, new RoomDistances(distances));
+		// an image which does not match its own layout has been damaged
+		if(board.checksum() != checksum) return null;
+		return board;
+	}
+
+	/**
+	 * Returns the number of bytes in the image of a board.
+	 * @param board
+	 * @return
+	 */
+	private static int length(Board board) {
+		int size = board.size();
+		int length = HEADER + size*(4 + DIRECTIONS*4 + ROOMS*2) + CHARACTERS*4;
+		for(Room room: Room.values()){
+			length += 8 + 4*(board.doors(room).length + board.squares(room).length);
+		}
+		return length;
+	}
+
+	/**
+	 * Writes a list of squares with its length in front.
+	 * @param buf
+	 * @param squares
+	 */
+	private static void putSquares(ByteBuffer buf, int[] squares) {
+		buf.putInt(squares.length);
+		for(int square: squares){
+			buf.putInt(square);
+		}
+	}
+
+	/**
+	 * Reads a list of squares written by putSquares.
+	 * @param buf
+	 * @return
+	 */
+	private static int[] getSquares(ByteBuffer buf) {
+		int count = buf.getInt();
+		if(count < 0 || count > buf.remaining() / 4){
+			throw new IndexOutOfBoundsException("List of " + count + " squares");
+		}
+		int[] squares = new int[count];
+		buf.asIntBuffer().get(squares);
+		buf.position(buf.position() + squares.length*4);
+		return squares;
+	}
+
+	/**
+	 * Returns the checksum of the bytes after the header of an image.
+	 * @param image
+	 * @return
+	 */
+	private static long bodyChecksum(ByteBuffer image) {
+		ByteBuffer body = image.duplicate();
+		body.position(HEADER);
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		return crc.getValue();
+	}
+}
@@ -1,7 +1,7 @@
 package cluedo.model;
 
-import java.awt.image.BufferedImage;
-
+/**
+ * Represents a card in the game: a character, weapon or room.
+ */
 public interface Card {
-	public BufferedImage getImage();
 }
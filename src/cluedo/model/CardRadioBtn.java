@@ -1,9 +1,11 @@
 package cluedo.model;
 
-import javax.swing.ImageIcon;
 import javax.swing.JRadioButton;
 import javax.swing.SwingConstants;
 
+import cluedo.view.Asset;
+import cluedo.view.ImageCache;
+
 /**
  * Creates a button representing a card.
  * @author Maria
@@ -17,7 +19,7 @@ public class CardRadioBtn extends JRadioButton{
 	 * @param card
 	 */
 	public CardRadioBtn(Card card){
-		super(card.toString(), new ImageIcon(card.getImage()));
+		super(card.toString(), ImageCache.icon(Asset.card(card)));
 		setHorizontalTextPosition(SwingConstants.CENTER);
 		setVerticalTextPosition(JRadioButton.TOP);
 		this.card = card;
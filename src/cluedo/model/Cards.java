@@ -0,0 +1,161 @@
+package cluedo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import cluedo.model.CluedoGame.Character;
+import cluedo.model.CluedoGame.Room;
+import cluedo.model.CluedoGame.Weapon;
+
+/**
+ * Numbers the 21 cards of the game so sets of cards can be stored
+ * 	as the bits of an int. The characters are numbered 0 to 5, the
+ * 	weapons 6 to 11 and the rooms 12 to 20, in the order of their enums.
+ * @author Patrick
+ *
+ */
+public final class Cards {
+
+	// the number of cards of each kind and in total
+	public static final int CHARACTERS = Character.values().length;
+	public static final int WEAPONS = Weapon.values().length;
+	public static final int ROOMS = Room.values().length;
+	public static final int COUNT = CHARACTERS + WEAPONS + ROOMS;
+
+	// the bits of each kind of card and of every card
+	public static final int CHARACTER_MASK = (1 << CHARACTERS) - 1;
+	public static final int WEAPON_MASK = ((1 << WEAPONS) - 1) << CHARACTERS;
+	public static final int ROOM_MASK = ((1 << ROOMS) - 1) << (CHARACTERS + WEAPONS);
+	public static final int ALL = CHARACTER_MASK | WEAPON_MASK | ROOM_MASK;
+
+	// the card with each number
+	private static final Card[] CARDS = new Card[COUNT];
+	static {
+		for(Character c: Character.values()) CARDS[id(c)] = c;
+		for(Weapon w: Weapon.values()) CARDS[id(w)] = w;
+		for(Room r: Room.values()) CARDS[id(r)] = r;
+	}
+
+	private Cards() {}
+
+	/**
+	 * Returns the number of a card.
+	 * @param card
+	 * @return
+	 */
+	public static int id(Card card) {
+		if(card instanceof Character) return ((Character) card).ordinal();
+		if(card instanceof Weapon) return CHARACTERS + ((Weapon) card).ordinal();
+		if(card instanceof Room) return CHARACTERS + WEAPONS + ((Room) card).ordinal();
+		throw new IllegalArgumentException("Unknown card: " + card);
+	}
+
+	/**
+	 * Returns the card with a number.
+	 * @param id
+	 * @return
+	 */
+	public static Card card(int id) {
+		return CARDS[id];
+	}
+
+	/**
+	 * Returns the bit of a card.
+	 * @param card
+	 * @return
+	 */
+	public static int bit(Card card) {
+		return 1 << id(card);
+	}
+
+	/**
+	 * Returns the bits of a list of cards.
+	 * @param cards
+	 * @return
+	 */
+	public static int mask(List<Card> cards) {
+		int mask = 0;
+		for(Card c: cards){
+			mask |= bit(c);
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the bits of every card of the same kind as a card.
+	 * @param id
+	 * @return
+	 */
+	public static int kindMask(int id) {
+		if(id < CHARACTERS) return CHARACTER_MASK;
+		if(id < CHARACTERS + WEAPONS) return WEAPON_MASK;
+		return ROOM_MASK;
+	}
+
+	/**
+	 * Returns the cards of some bits, in the order of their numbers.
+	 * @param mask
+	 * @return
+	 */
+	public static List<Card> list(int mask) {
+		List<Card> cards = new ArrayList<Card>(Integer.bitCount(mask));
+		for(int m = mask; m != 0; m &= m - 1){
+			cards.add(CARDS[Integer.numberOfTrailingZeros(m)]);
+		}
+		return cards;
+	}
+
+	/**
+	 * Returns the numbers of every card except some.
+	 * @param excluded the bits of the cards left out
+	 * @return
+	 */
+	public static int[] ids(int excluded) {
+		int[] ids = new int[COUNT - Integer.bitCount(excluded & ALL)];
+		int n = 0;
+		for(int id = 0; id < COUNT; id++){
+			if((excluded & (1 << id)) == 0) ids[n++] = id;
+		}
+		return ids;
+	}
+
+	/**
+	 * Shuffles card numbers in place so every order is equally likely.
+	 * @param ids
+	 * @param random
+	 */
+	public static void shuffle(int[] ids, SplittableRandom random) {
+		for(int i = ids.length - 1; i > 0; i--){
+			int j = random.nextInt(i + 1);
+			int t = ids[i];
+			ids[i] = ids[j];
+			ids[j] = t;
+		}
+	}
+
+	/**
+	 * Deals shuffled cards evenly between players. The cards which cannot
+	 * 	be dealt evenly are left over.
+	 * @param ids the shuffled card numbers
+	 * @param hands filled with the bits of each player's hand
+	 * @return the bits of the left over cards
+	 */
+	public static int deal(int[] ids, int[] hands) {
+		int players = hands.length;
+		int unused = ids.length % players;
+		int each = ids.length / players;
+		int left = 0;
+		for(int i = 0; i < unused; i++){
+			left |= 1 << ids[i];
+		}
+		for(int p = 0, i = unused; p < players; p++){
+			int hand = 0;
+			for(int end = i + each; i < end; i++){
+				hand |= 1 << ids[i];
+			}
+			hands[p] = hand;
+		}
+		return left;
+	}
+}
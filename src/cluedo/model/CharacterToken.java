@@ -1,16 +1,8 @@
 package cluedo.model;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 import cluedo.model.CluedoGame.Character;
-import cluedo.view.RoomTile;
-import cluedo.view.Tile;
 
 /**
  * Character token class representing characters on the board
@@ -18,19 +10,16 @@ import cluedo.view.Tile;
  *
  */
 public class CharacterToken extends Token {
-	private static final String IMAGE_PATH = "images/";
 
 	// field for the players unique ID
 	private final int Uid;
 	// stores the players chosen character token
 	private CluedoGame.Character character;
-	// stores the players hand
-	private List<Card> hand;
+	// stores the players hand as the bits of its cards, see Cards
+	private int hand;
 	// stores how many moves the player can make
 	private int stepsRemaining;
-	// stores basic image associated with this character token
-	private BufferedImage image;
-	
+
 	public boolean suggested;
 	public boolean active;
 
@@ -45,7 +34,7 @@ public class CharacterToken extends Token {
 		Uid = playerUID;
 		character = null;
 		setChar(characterStr);
-		hand = new ArrayList<Card>();
+		hand = 0;
 		suggested = false;
 		active = true;
 	}
@@ -57,37 +46,27 @@ public class CharacterToken extends Token {
 	 */
 	private void setChar(String str) {
 		Character res = null;
-		try{
-			switch(str.toUpperCase()){
-				case "MISS SCARLETT":
-					res = Character.MISS_SCARLETT;	
-					image = ImageIO.read(new File(IMAGE_PATH + "scarlett.png"));
-					break;
-				case "COLONEL MUSTARD":
-					res = Character.COLONEL_MUSTARD;
-					image = ImageIO.read(new File(IMAGE_PATH + "mustard.png"));
-					break;
-				case "MRS WHITE":
-					res = Character.MRS_WHITE;
-					image = ImageIO.read(new File(IMAGE_PATH + "white.png"));
-					break;
-				case "MRS PEACOCK":
-					res = Character.MRS_PEACOCK;
-					image = ImageIO.read(new File(IMAGE_PATH + "peacock.png"));
-					break;
-				case "THE REVEREND GREEN":
-					res = Character.THE_REVEREND_GREEN;
-					image = ImageIO.read(new File(IMAGE_PATH + "green.png"));
-					break;
-				case "PROFESSOR PLUM":
-					res = Character.PROFESSOR_PLUM;
-					image = ImageIO.read(new File(IMAGE_PATH + "plum.png"));
-					break;
-			}
-			character = res;
-		} catch(IOException e){
-			e.printStackTrace();
+		switch(str.toUpperCase()){
+			case "MISS SCARLETT":
+				res = Character.MISS_SCARLETT;
+				break;
+			case "COLONEL MUSTARD":
+				res = Character.COLONEL_MUSTARD;
+				break;
+			case "MRS WHITE":
+				res = Character.MRS_WHITE;
+				break;
+			case "MRS PEACOCK":
+				res = Character.MRS_PEACOCK;
+				break;
+			case "THE REVEREND GREEN":
+				res = Character.THE_REVEREND_GREEN;
+				break;
+			case "PROFESSOR PLUM":
+				res = Character.PROFESSOR_PLUM;
+				break;
 		}
+		character = res;
 	}
 
 	/**
@@ -95,7 +74,7 @@ public class CharacterToken extends Token {
 	 * @param card
 	 */
 	public void addCard(Card card) {
-		hand.add(card);
+		hand |= Cards.bit(card);
 	}
 
 	/*
@@ -115,12 +94,22 @@ public class CharacterToken extends Token {
 	 * Returns all the cards in player's hand.
 	 * @return
 	 */
-	public List<Card> getHand(){ return hand; }
+	public List<Card> getHand(){ return Cards.list(hand); }
+	/**
+	 * Returns the bits of the cards in player's hand.
+	 * @return
+	 */
+	public int getHandMask(){ return hand; }
 	/**
 	 * Sets the cards in this hand.
 	 * @param newHand
 	 */
-	public void setHand(List<Card> newHand){ hand = newHand; }
+	public void setHand(List<Card> newHand){ hand = Cards.mask(newHand); }
+	/**
+	 * Sets the cards in this hand from their bits.
+	 * @param newHand
+	 */
+	public void setHandMask(int newHand){ hand = newHand; }
 	/**
 	 * Sets the amount of steps the player can move.
 	 * @param steps
@@ -131,22 +120,12 @@ public class CharacterToken extends Token {
 	 * @return
 	 */
 	public int getStepsRemaining(){ return stepsRemaining; }
-	/**
-	 * Returns the image associated with this character token.
-	 * @return
-	 */
-	public BufferedImage image(){ return image; }
-	
+
 	/**
 	 * Returns true if this character is in a room.
 	 * @return
 	 */
 	public boolean inRoom(){
-		Tile t = this.getTile();
-		if(t == null) return false;
-		if(t instanceof RoomTile){
-			return true;
-		}
-		return false;
+		return room != null;
 	}
 }
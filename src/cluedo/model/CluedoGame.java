@@ -1,50 +1,97 @@
 package cluedo.model;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-
-import javax.imageio.ImageIO;
-
-import cluedo.view.CluedoBoard;
+import java.util.SplittableRandom;
 
 /**
  * Contains the game equipment, cards and players.
+ * 	The game holds all of the rules and state of a game of cluedo
+ * 	and does not depend on any gui, so it can be played headless.
  * @author Patrick
  *
  */
 public class CluedoGame {
 
-	// path to images - source: game-board.blogspot.co.nz/2008/05/clue-characters-board-game-vs-clue.html
-	private static final String IMAGE_PATH = "images/";
 	// represents the current game board
-	private CluedoBoard board;
+	private Board board;
 	// a list of active players in game
 	private List<CharacterToken> activePlayers;
 	// A list of weapons in the game
 	private List<WeaponToken> weapons;
 	// stores the random solution to the game
 	private Card[] solution;
-	// stores the deck of cards for the game
-	private List<Card> deck;
-	// stores the unused leftover cards once all the cards are dealt
-	private List<Card> unusedCards;
+	// stores the numbers of the cards dealt, see Cards
+	private int[] deck;
+	// stores the bits of the unused leftover cards once all the cards are dealt
+	private int unusedCards;
+	// stores the token standing on each square of the board or null if empty
+	private Token[] occupants;
+	// objects notified when the game changes
+	private List<GameListener> listeners = new ArrayList<GameListener>();
+	// search used to find the shortest path of a player moving to a square,
+	// 	shared by the games on each thread as its results are used straight away
+	private static final ThreadLocal<ReachableSquares> PATHS = new ThreadLocal<ReachableSquares>();
+	// the record of every event of the game and the objects told about it
+	private final GameLog log;
+	private List<GameLog.Listener> logListeners = new ArrayList<GameLog.Listener>();
+	// the last suggestion, waiting for its refutation
+	private long suggestion;
+
+	// stores the player whose turn it is or null if the game has not begun
+	private CharacterToken currentPlayer;
+	// stores the current dice roll
+	private int firstDie = 3;
+	private int secondDie = 4;
+	// stores if the current player has rolled this turn
+	private boolean rolled;
+	// stores the player who solved the crime or null if none
+	private CharacterToken winner;
+
+	// stores the seed all the game's random numbers come from
+	private final long seed;
+	// random numbers for setting up the game and for the dice, split from
+	// 	the seed so the deal does not change how the dice roll
+	private final SplittableRandom setupRandom;
+	private final SplittableRandom diceRandom;
 
-	public CluedoGame(CluedoBoard board, List<CharacterToken> players) {
+	/**
+	 * Creates a game with a new random seed.
+	 * @param board
+	 * @param players
+	 */
+	public CluedoGame(Board board, List<CharacterToken> players) {
+		this(board, players, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Creates a game whose deal, weapon rooms and dice all come from a seed,
+	 * 	so the same seed and moves replay the same game.
+	 * @param board
+	 * @param players
+	 * @param seed
+	 */
+	public CluedoGame(Board board, List<CharacterToken> players, long seed) {
 
 		this.setBoard(board);
 		this.setActivePlayers(players);
 
+		this.seed = seed;
+		this.log = new GameLog(seed, players);
+		SplittableRandom random = new SplittableRandom(seed);
+		this.setupRandom = random.split();
+		this.diceRandom = random.split();
+
 		// deals the cards
 		this.solution = initSolution();
 		this.deck = initDeck();
 		dealCards();
-		getDeck();
 
+		// places the tokens on the board
+		this.occupants = new Token[board.width()*board.height()];
+		initPlayers();
+		initWeapons();
 	}
 
 	/**
@@ -55,55 +102,602 @@ public class CluedoGame {
 	 */
 	private Card[] initSolution() {
 		solution = new Card[3];
-		solution[0] = Character.getRandom();
-		solution[1] = Room.getRandom();
-		solution[2] = Weapon.getRandom();
+		solution[0] = Character.getRandom(setupRandom);
+		solution[1] = Room.getRandom(setupRandom);
+		solution[2] = Weapon.getRandom(setupRandom);
 		return solution;
 	}
 
 	/**
-	 * Returns a list of all the cards in the game deck
+	 * Returns the numbers of all the cards in the game deck
 	 * 	excluding the solution cards
-	 * @return list of all cards
+	 * @return numbers of the cards
 	 */
-	private List<Card> initDeck() {
-		List<Card> deck = new ArrayList<Card>();
-		deck.addAll(Arrays.asList(Character.values()));
-		deck.addAll(Arrays.asList(Weapon.values()));
-		deck.addAll(Arrays.asList(Room.values()));
-		deck.removeAll(Arrays.asList(getSolution()));
-		return deck;
+	private int[] initDeck() {
+		int solutionCards = 0;
+		for(Card c: getSolution()){
+			solutionCards |= Cards.bit(c);
+		}
+		return Cards.ids(solutionCards);
 	}
 
 	/**
-	 * Deals the cards evenly to all player leaving out left over cards
+	 * Shuffles the deck once and deals it evenly to all players,
+	 * 	leaving out left over cards
 	 */
 	private void dealCards() {
-		// remove unused cards from deck so remaining cards can be dealt evenly
-		int numUnused = deck.size() % numPlayers();
-		unusedCards = new ArrayList<Card>();
-		for(int i=0; i<numUnused; i++){
-			unusedCards.add(getCardFromDeck());
+		Cards.shuffle(deck, setupRandom);
+		int[] hands = new int[numPlayers()];
+		unusedCards = Cards.deal(deck, hands);
+		for(int i = 0; i < hands.length; i++){
+			activePlayers.get(i).setHandMask(hands[i]);
+		}
+	}
+
+	/**
+	 * Places the players on their starting squares.
+	 */
+	private void initPlayers() {
+		for(CharacterToken p: activePlayers){
+			int start = board.startSquare(p.getCharacter());
+			if(start >= 0){
+				place(p, start);
+			}
 		}
-		// deal cards evenly to players
-		int numCardsToDeal = deck.size() / numPlayers();
-		for(CharacterToken player: getActivePlayers()){
-			for(int i=0; i<numCardsToDeal; i++){
-				player.addCard(getCardFromDeck());
+	}
+
+	/**
+	 * Creates the weapons and puts them in random rooms.
+	 */
+	private void initWeapons() {
+		weapons = new ArrayList<WeaponToken>();
+		weapons.add(new WeaponToken("CANDLESTICK"));
+		weapons.add(new WeaponToken("KNIFE"));
+		weapons.add(new WeaponToken("LEAD_PIPE"));
+		weapons.add(new WeaponToken("REVOLVER"));
+		weapons.add(new WeaponToken("ROPE"));
+		weapons.add(new WeaponToken("WRENCH"));
+		// each weapon goes in a different room
+		Room[] rooms = Room.values();
+		for(int i = rooms.length - 1; i > 0; i--){
+			int j = setupRandom.nextInt(i + 1);
+			Room r = rooms[i];
+			rooms[i] = rooms[j];
+			rooms[j] = r;
+		}
+		for(int i = 0; i < weapons.size() && i < rooms.length; i++){
+			int free = freeSquare(rooms[i]);
+			if(free >= 0){
+				place(weapons.get(i), free);
 			}
 		}
 	}
 
 	/**
-	 * Gets a random card from the remaining deck of cards
-	 * @return random card from deck
+	 * Returns the first empty square in a room.
+	 * @param room
+	 * @return square or -1 if the room is full
+	 */
+	private int freeSquare(Room room) {
+		// only the squares of the room are looked at
+		for(int square: board.squares(room)){
+			if(occupants[square] == null){
+				return square;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the square a token is standing on.
+	 * @param token
+	 * @return
+	 */
+	public int squareOf(Token token) {
+		return board.index(token.x(), token.y());
+	}
+
+	/**
+	 * Moves a token to a square, removing it from its old square.
+	 * @param token
+	 * @param square
 	 */
-	private Card getCardFromDeck() {
-		Card result = deck.get(new Random().nextInt(deck.size()));
-		deck.remove(result);
+	private void place(Token token, int square) {
+		Position from = token.pos();
+		if(from != null){
+			occupants[squareOf(token)] = null;
+		}
+		Position to = board.position(square);
+		occupants[square] = token;
+		token.setPos(to);
+		token.setRoom(board.room(square));
+		for(GameListener l: listeners){
+			l.tokenMoved(token, from, to);
+		}
+	}
+
+	/*
+	 * Methods handling the turns of the game.
+	 */
+	/**
+	 * Begins the game with the first player's turn.
+	 */
+	public void begin() {
+		apply(GameEvent.begin(0));
+	}
+
+	/**
+	 * Rolls the dice and sets the current player's amount of steps.
+	 */
+	public void rollDice() {
+		int first = diceRandom.nextInt(6) + 1;
+		int second = diceRandom.nextInt(6) + 1;
+		apply(GameEvent.roll(seat(currentPlayer), first, second));
+	}
+
+	/**
+	 * Ends the current player's turn and begins the next active player's turn.
+	 */
+	public void nextPlayer() {
+		if(currentPlayer == null || !isActive()) return;
+		apply(GameEvent.endTurn(seat(currentPlayer)));
+	}
+
+	/**
+	 * Returns the player seated after this one.
+	 * @param player
+	 * @return next player
+	 */
+	public CharacterToken playerAfter(CharacterToken player) {
+		// player's uid is 1-6
+		if(player.getUid() < activePlayers.size()){
+			return activePlayers.get(player.getUid());
+		}
+		return activePlayers.get(0);
+	}
+
+	/*
+	 * Methods handling the movement of players around the board.
+	 */
+	/**
+	 * Checks if a player is able to make a step in a direction.
+	 * @param player
+	 * @param dir
+	 * @return
+	 */
+	public boolean canMove(CharacterToken player, Direction dir) {
+		// check parameters
+		if(player == null || player.pos() == null) return false;
+		if(player.getStepsRemaining() <= 0) return false;
+		// the board already knows which squares can be stepped to
+		int to = board.neighbour(squareOf(player), dir);
+		return to >= 0 && occupants[to] == null;
+	}
+
+	/**
+	 * Moves a player a step in a direction.
+	 * @param player
+	 * @param dir
+	 */
+	public void move(CharacterToken player, Direction dir) {
+		if(!canMove(player, dir)){
+			throw new IllegalStateException(player.getName() + " cannot move " + dir);
+		}
+		apply(GameEvent.move(seat(player), board.neighbour(squareOf(player), dir), 1));
+	}
+
+	/**
+	 * Returns the square a player would move to when a square is chosen.
+	 * 	Choosing any square of a room moves to the nearest square of
+	 * 	that room the player can reach.
+	 * @param player
+	 * @param square
+	 * @return square or -1 if the player cannot reach it this turn
+	 */
+	public int destination(CharacterToken player, int square) {
+		if(player == null || player.pos() == null || !player.active) return -1;
+		ReachableSquares paths = paths();
+		paths.compute(this, player);
+		Room room = board.room(square);
+		if(room != null) return paths.nearestSquare(room);
+		return paths.contains(square) ? square : -1;
+	}
+
+	/**
+	 * Moves a player along the shortest free path to a square in one move,
+	 * 	using a step for each square moved through.
+	 * @param player
+	 * @param square
+	 * @return number of steps used
+	 */
+	public int moveTo(CharacterToken player, int square) {
+		int to = destination(player, square);
+		if(to < 0){
+			throw new IllegalStateException(player.getName() + " cannot reach square " + square);
+		}
+		int steps = paths().distance(to);
+		if(steps == 0) return 0;
+		// the squares in between are free so only the ends are changed
+		apply(GameEvent.move(seat(player), to, steps));
+		return steps;
+	}
+
+	/**
+	 * Returns this thread's search over the board, so games waiting for
+	 * 	their players do not each hold one.
+	 * @return
+	 */
+	private ReachableSquares paths() {
+		ReachableSquares paths = PATHS.get();
+		if(paths == null || paths.getBoard() != board){
+			paths = new ReachableSquares(board);
+			PATHS.set(paths);
+		}
+		return paths;
+	}
+
+	/**
+	 * Returns true if the player is in a room with a secret passage.
+	 * @param player
+	 * @return
+	 */
+	public boolean canUseStairs(CharacterToken player) {
+		return player != null && Board.oppositeRoom(player.getRoom()) != null;
+	}
+
+	/**
+	 * Moves the player to the opposite room.
+	 * @param player
+	 */
+	public void useStairs(CharacterToken player) {
+		if(!canUseStairs(player)) return;
+		int free = freeSquare(Board.oppositeRoom(player.getRoom()));
+		if(free < 0) return;
+		apply(GameEvent.stairs(seat(player), free));
+	}
+
+	/*
+	 * Methods handling suggestions and accusations.
+	 */
+	/**
+	 * Returns the cards a player holds which refute a suggestion.
+	 * @param refuter
+	 * @param suspect
+	 * @param weapon
+	 * @param room
+	 * @return list of refuting cards
+	 */
+	public List<Card> refutingCards(CharacterToken refuter, Card suspect, Card weapon, Card room) {
+		return Cards.list(refuter.getHandMask() & (Cards.bit(suspect) | Cards.bit(weapon) | Cards.bit(room)));
+	}
+
+	/**
+	 * Makes a suggestion for the current player in the room they are in.
+	 * 	Each player after them is asked in turn to refute the suggestion,
+	 * 	using the chooser to pick which card they show.
+	 * @param suspect
+	 * @param weapon
+	 * @param chooser
+	 * @return result of the suggestion
+	 */
+	public SuggestionResult suggest(Character suspect, Weapon weapon, CardChooser chooser) {
+		CharacterToken suggester = currentPlayer;
+		if(suggester == null || !suggester.inRoom() || suggester.suggested){
+			throw new IllegalStateException("The current player cannot suggest");
+		}
+		Room room = suggester.getRoom();
+		CharacterToken refuter = null;
+		Card card = null;
+		int suggested = Cards.bit(suspect) | Cards.bit(weapon) | Cards.bit(room);
+		for(CharacterToken p = playerAfter(suggester); p != suggester; p = playerAfter(p)){
+			int cards = p.getHandMask() & suggested;
+			if(cards != 0){
+				refuter = p;
+				card = Integer.bitCount(cards) == 1 ? Cards.card(Integer.numberOfTrailingZeros(cards))
+						: chooser.choose(p, Cards.list(cards));
+				break;
+			}
+		}
+		SuggestionResult result = new SuggestionResult(suggester, suspect, weapon, room, refuter, card);
+		reportSuggestion(result);
 		return result;
 	}
 
+	/**
+	 * Records a suggestion and tells the listeners about it, including
+	 * 	one made through the gui dialogs rather than suggest.
+	 * @param result
+	 */
+	public void reportSuggestion(SuggestionResult result) {
+		apply(GameEvent.suggestion(seat(result.getSuggester()), Cards.id(result.getSuspect()),
+				Cards.id(result.getWeapon()), Cards.id(result.getRoom())));
+		apply(GameEvent.refutation(seat(result.getRefuter()),
+				result.getCard() == null ? -1 : Cards.id(result.getCard())));
+	}
+
+	/**
+	 * Checks the current player's accusation against the solution.
+	 * 	A correct accusation wins the game, otherwise the player
+	 * 	can no longer take turns.
+	 * @param suspect
+	 * @param weapon
+	 * @param room
+	 * @return true if the accusation was correct
+	 */
+	public boolean accuse(Card suspect, Card weapon, Card room) {
+		int accuser = seat(currentPlayer);
+		boolean correct = suspect == solution[0] && room == solution[1] && weapon == solution[2];
+		apply(GameEvent.accusation(accuser, Cards.id(suspect), Cards.id(weapon), Cards.id(room), correct));
+		if(!correct){
+			apply(GameEvent.elimination(accuser));
+		}
+		return correct;
+	}
+
+	/*
+	 * Methods handling the game's events.
+	 */
+	/**
+	 * Makes the change to the game an event describes and adds it to the log.
+	 * 	Every change to the game after it is set up goes through here,
+	 * 	so the log can always rebuild the game.
+	 * @param event
+	 */
+	private void apply(long event) {
+		log.append(event);
+		int seat = GameEvent.seat(event);
+		CharacterToken player = seat < 0 ? null : activePlayers.get(seat);
+		switch(GameEvent.type(event)){
+			case GameEvent.BEGIN:
+				currentPlayer = player;
+				rolled = false;
+				break;
+			case GameEvent.ROLL:
+				firstDie = GameEvent.firstDie(event);
+				secondDie = GameEvent.secondDie(event);
+				if(player != null){
+					player.setStepsRemaining(firstDie + secondDie);
+				}
+				rolled = true;
+				break;
+			case GameEvent.MOVE:
+				player.setStepsRemaining(player.getStepsRemaining() - GameEvent.steps(event));
+				place(player, GameEvent.square(event));
+				break;
+			case GameEvent.STAIRS:
+				player.setStepsRemaining(player.getStepsRemaining() - 1);
+				place(player, GameEvent.square(event));
+				break;
+			case GameEvent.SUGGESTION:
+				player.suggested = true;
+				suggestion = event;
+				break;
+			case GameEvent.REFUTATION:
+				SuggestionResult result = suggestionResult(suggestion, event);
+				for(GameListener l: listeners){
+					l.suggestionMade(result);
+				}
+				break;
+			case GameEvent.ACCUSATION:
+				if(GameEvent.correct(event)){
+					winner = player;
+				} else {
+					int cards = accusedCards(event);
+					for(GameListener l: listeners){
+						l.accusationFailed(player, cards);
+					}
+				}
+				break;
+			case GameEvent.ELIMINATION:
+				player.active = false;
+				break;
+			case GameEvent.END_TURN:
+				// allows player to suggest next turn
+				player.suggested = false;
+				player.setStepsRemaining(0);
+				currentPlayer = player;
+				do {
+					currentPlayer = playerAfter(currentPlayer);
+				} while(!currentPlayer.active);
+				rolled = false;
+				break;
+		}
+		if(endsAction(event)){
+			for(GameLog.Listener l: logListeners){
+				l.actionLogged(log);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if an event is the last one of an action. A suggestion
+	 * 	ends with its refutation and a wrong accusation with the player
+	 * 	being put out of the game.
+	 * @param event
+	 * @return
+	 */
+	private static boolean endsAction(long event) {
+		switch(GameEvent.type(event)){
+			case GameEvent.SUGGESTION:
+				return false;
+			case GameEvent.ACCUSATION:
+				return GameEvent.correct(event);
+		}
+		return true;
+	}
+
+	/**
+	 * Makes the change to the game a logged event describes. The dice are
+	 * 	kept in step with the log, so a game replayed from its seed carries
+	 * 	on exactly as the original would have.
+	 * @param event
+	 */
+	public void replay(long event) {
+		int type = GameEvent.type(event);
+		int seat = GameEvent.seat(event);
+		if(type >= GameEvent.TYPES || seat >= activePlayers.size()
+				|| (seat < 0 && type != GameEvent.ROLL && type != GameEvent.REFUTATION)
+				// no one is left to take the next turn
+				|| (type == GameEvent.END_TURN && !isActive())){
+			throw new IllegalArgumentException("Not an event of this game: " + Long.toHexString(event));
+		}
+		if(type == GameEvent.ROLL){
+			diceRandom.nextInt(6);
+			diceRandom.nextInt(6);
+		}
+		apply(event);
+	}
+
+	/**
+	 * Tells a listener about every suggestion and wrong accusation made so
+	 * 	far, so a listener added to a loaded game learns what it missed.
+	 * @param listener
+	 */
+	public void tellSuggestions(GameListener listener) {
+		long last = 0;
+		for(int i = 0; i < log.size(); i++){
+			long event = log.get(i);
+			if(GameEvent.type(event) == GameEvent.SUGGESTION){
+				last = event;
+			} else if(GameEvent.type(event) == GameEvent.REFUTATION){
+				listener.suggestionMade(suggestionResult(last, event));
+			} else if(GameEvent.type(event) == GameEvent.ACCUSATION && !GameEvent.correct(event)){
+				listener.accusationFailed(activePlayers.get(GameEvent.seat(event)), accusedCards(event));
+			}
+		}
+	}
+
+	/**
+	 * Puts the game in a saved state, see GameSnapshot. The players' hands,
+	 * 	steps and flags are set on the players themselves. The events are
+	 * 	added to the log without being replayed, and the dice are moved on
+	 * 	past the rolls among them.
+	 * @param solution
+	 * @param unused bits of the left over cards
+	 * @param playerSquares square of each player or -1 if off the board
+	 * @param weaponSquares square of each weapon or -1 if off the board
+	 * @param current seat of the player whose turn it is or -1
+	 * @param rolled
+	 * @param first
+	 * @param second
+	 * @param winner seat of the winner or -1
+	 * @param events
+	 */
+	void restore(Card[] solution, int unused, int[] playerSquares, int[] weaponSquares,
+			int current, boolean rolled, int first, int second, int winner, long[] events) {
+		this.solution = solution;
+		this.unusedCards = unused;
+		// every token is lifted off the board before any is put back
+		for(CharacterToken p: activePlayers) lift(p);
+		for(WeaponToken w: weapons) lift(w);
+		for(int i = 0; i < playerSquares.length; i++) drop(activePlayers.get(i), playerSquares[i]);
+		for(int i = 0; i < weaponSquares.length; i++) drop(weapons.get(i), weaponSquares[i]);
+		this.currentPlayer = current < 0 ? null : activePlayers.get(current);
+		this.rolled = rolled;
+		this.firstDie = first;
+		this.secondDie = second;
+		this.winner = winner < 0 ? null : activePlayers.get(winner);
+		for(long event: events){
+			log.append(event);
+			if(GameEvent.type(event) == GameEvent.SUGGESTION){
+				suggestion = event;
+			} else if(GameEvent.type(event) == GameEvent.ROLL){
+				diceRandom.nextInt(6);
+				diceRandom.nextInt(6);
+			}
+		}
+	}
+
+	/**
+	 * Returns the outcome of a logged suggestion.
+	 * @param suggestion
+	 * @param refutation
+	 * @return
+	 */
+	private SuggestionResult suggestionResult(long suggestion, long refutation) {
+		int refuter = GameEvent.seat(refutation);
+		int card = GameEvent.card(refutation);
+		return new SuggestionResult(activePlayers.get(GameEvent.seat(suggestion)),
+				(Character) Cards.card(GameEvent.suspect(suggestion)),
+				(Weapon) Cards.card(GameEvent.weapon(suggestion)),
+				(Room) Cards.card(GameEvent.room(suggestion)),
+				refuter < 0 ? null : activePlayers.get(refuter), card < 0 ? null : Cards.card(card));
+	}
+
+	/**
+	 * Returns the bits of the cards named in a logged accusation.
+	 * @param accusation
+	 * @return
+	 */
+	private static int accusedCards(long accusation) {
+		return 1 << GameEvent.suspect(accusation) | 1 << GameEvent.weapon(accusation) | 1 << GameEvent.room(accusation);
+	}
+
+	/**
+	 * Takes a token off the board without telling the listeners.
+	 * @param token
+	 */
+	private void lift(Token token) {
+		if(token.pos() != null) occupants[squareOf(token)] = null;
+		token.setPos(null);
+		token.setRoom(null);
+	}
+
+	/**
+	 * Puts a token on a square without telling the listeners.
+	 * @param token
+	 * @param square or -1 to leave it off the board
+	 */
+	private void drop(Token token, int square) {
+		if(square < 0) return;
+		occupants[square] = token;
+		token.setPos(board.position(square));
+		token.setRoom(board.room(square));
+	}
+
+	/**
+	 * Returns the seat of a player or -1 if none.
+	 * @param player
+	 * @return
+	 */
+	private int seat(CharacterToken player) {
+		return player == null ? -1 : player.getUid() - 1;
+	}
+
+	/**
+	 * Returns roughly how many bytes the game holds, not counting the board
+	 * 	which games share, so a host can account for the games it keeps.
+	 * 	References are taken to be 4 bytes, as they are on heaps under 32GB.
+	 * @return
+	 */
+	public long footprint() {
+		// the game with its lists, then each player with its name and each weapon
+		long bytes = 240 + 136L * activePlayers.size() + 40L * weapons.size();
+		bytes += 16 + 4L * occupants.length;
+		bytes += 16 + 4L * deck.length;
+		return bytes + log.footprint();
+	}
+
+	/**
+	 * Returns true if there are still active players.
+	 * @return
+	 */
+	public boolean isActive() {
+		for(CharacterToken t: activePlayers){
+			if(t.active)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if the game has been won or everyone has lost.
+	 * @return
+	 */
+	public boolean isOver() {
+		return winner != null || !isActive();
+	}
+
 	/*
 	 * Getter and Setter methods
 	 */
@@ -112,32 +706,113 @@ public class CluedoGame {
 	 * Returns the board
 	 * @return
 	 */
-	public CluedoBoard getBoard() { return board; }
+	public Board getBoard() { return board; }
 
 	/**
 	 * Sets the board
 	 * @param board
 	 */
-	public void setBoard(CluedoBoard board) { 
-		this.board = board; 
+	public void setBoard(Board board) {
+		this.board = board;
 	}
 
 	/**
 	 * Returns all players
 	 * @return
 	 */
-	public List<CharacterToken> getActivePlayers() { 
-		return activePlayers; 
+	public List<CharacterToken> getActivePlayers() {
+		return activePlayers;
 	}
 
 	/**
 	 * Sets all players
 	 * @param activePlayers
 	 */
-	public void setActivePlayers(List<CharacterToken> activePlayers) { 
-		this.activePlayers = activePlayers; 
+	public void setActivePlayers(List<CharacterToken> activePlayers) {
+		this.activePlayers = activePlayers;
 	}
 
+	/**
+	 * Returns the weapons in the game
+	 * @return
+	 */
+	public List<WeaponToken> getWeapons() { return weapons; }
+
+	/**
+	 * Returns the token standing at a position or null if none.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public Token tokenAt(int x, int y) { return occupants[board.index(x, y)]; }
+
+	/**
+	 * Returns true if a token is standing on a square.
+	 * @param square
+	 * @return
+	 */
+	public boolean isOccupied(int square) { return occupants[square] != null; }
+
+	/**
+	 * Returns the player whose turn it is or null if the game has not begun.
+	 * @return
+	 */
+	public CharacterToken getCurrentPlayer() { return currentPlayer; }
+
+	/**
+	 * Returns true if the current player has rolled the dice this turn.
+	 * @return
+	 */
+	public boolean hasRolled() { return rolled; }
+
+	/**
+	 * Returns the value of the first die.
+	 * @return
+	 */
+	public int getFirstDie() { return firstDie; }
+
+	/**
+	 * Returns the value of the second die.
+	 * @return
+	 */
+	public int getSecondDie() { return secondDie; }
+
+	/**
+	 * Returns the player who solved the crime or null if none.
+	 * @return
+	 */
+	public CharacterToken getWinner() { return winner; }
+
+	/**
+	 * Adds an object to be notified of changes to the game.
+	 * @param listener
+	 */
+	public void addListener(GameListener listener) { listeners.add(listener); }
+
+	/**
+	 * Stops notifying an object of changes to the game.
+	 * @param listener
+	 */
+	public void removeListener(GameListener listener) { listeners.remove(listener); }
+
+	/**
+	 * Adds an object to be told each time an action has been logged.
+	 * @param listener
+	 */
+	public void addLogListener(GameLog.Listener listener) { logListeners.add(listener); }
+
+	/**
+	 * Stops telling an object about logged actions.
+	 * @param listener
+	 */
+	public void removeLogListener(GameLog.Listener listener) { logListeners.remove(listener); }
+
+	/**
+	 * Returns the record of every event of the game.
+	 * @return
+	 */
+	public GameLog getLog() { return log; }
+
 	/**
 	 * Returns the solution to the game
 	 * @return game solution
@@ -145,10 +820,34 @@ public class CluedoGame {
 	public Card[] getSolution() { return solution;	}
 
 	/**
-	 * This method returns the current game deck
+	 * Returns the seed the game's random numbers come from.
 	 * @return
 	 */
-	private List<Card> getDeck(){ return deck; }
+	public long getSeed() { return seed; }
+
+	/**
+	 * Returns random numbers for the computer player in a seat, split from
+	 * 	the game's seed after the deal and the dice, so the same seed plays
+	 * 	the same computer players.
+	 * @param seat
+	 * @return
+	 */
+	public Random playerRandom(int seat) {
+		SplittableRandom random = new SplittableRandom(seed);
+		random.split();
+		random.split();
+		SplittableRandom players = random.split();
+		for(int i = 0; i < seat; i++){
+			players.split();
+		}
+		return new Random(players.split().nextLong());
+	}
+
+	/**
+	 * Returns the bits of the cards left over when dealing, see Cards.
+	 * @return
+	 */
+	public int getUnusedCards() { return unusedCards; }
 
 	/**
 	 * Returns the number of current players
@@ -156,6 +855,14 @@ public class CluedoGame {
 	 */
 	private int numPlayers() { return activePlayers.size();	}
 
+	/**
+	 * Picks which card a player shows when they can refute
+	 * 	a suggestion with more than one card.
+	 */
+	public interface CardChooser {
+		public Card choose(CharacterToken refuter, List<Card> cards);
+	}
+
 	/*
 	 * Enums to represent the characters, rooms, and weapons
 	 * 	in the game.
@@ -175,37 +882,14 @@ public class CluedoGame {
 		 * Returns a random card.
 		 * @return
 		 */
-		public static Card getRandom() {
-			return values()[(int) (Math.random() * values().length)];
+		public static Card getRandom(SplittableRandom random) {
+			return values()[random.nextInt(values().length)];
 		}
 
 		@Override
 		public String toString() {
 			return this.name().replaceAll("_", " ");
 		}
-
-		@Override
-		public BufferedImage getImage() {
-			try{
-				switch(this){
-					case MISS_SCARLETT:
-						return ImageIO.read(new File(IMAGE_PATH + "scarlett-card.png"));
-					case COLONEL_MUSTARD:
-						return ImageIO.read(new File(IMAGE_PATH + "mustard-card.png"));
-					case MRS_WHITE:
-						return ImageIO.read(new File(IMAGE_PATH + "white-card.png"));
-					case THE_REVEREND_GREEN:
-						return ImageIO.read(new File(IMAGE_PATH + "green-card.png"));
-					case MRS_PEACOCK:
-						return ImageIO.read(new File(IMAGE_PATH + "peacock-card.png"));
-					case PROFESSOR_PLUM:
-						return ImageIO.read(new File(IMAGE_PATH + "plum-card.png"));
-				}
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			return null;
-		}
 	}
 
 	/**
@@ -223,37 +907,14 @@ public class CluedoGame {
 		 * Returns a random weapon.
 		 * @return
 		 */
-		public static Card getRandom() {
-			return values()[(int) (Math.random() * values().length)];
+		public static Card getRandom(SplittableRandom random) {
+			return values()[random.nextInt(values().length)];
 		}
 
 		@Override
 		public String toString() {
 			return this.name().replaceAll("_", " ");
 		}
-
-		@Override
-		public BufferedImage getImage() {
-			try{
-				switch(this){
-					case CANDLESTICK:
-						return ImageIO.read(new File(IMAGE_PATH + "candlestick-card.png"));
-					case KNIFE:
-						return ImageIO.read(new File(IMAGE_PATH + "knife-card.png"));
-					case LEAD_PIPE:
-						return ImageIO.read(new File(IMAGE_PATH + "pipe-card.png"));
-					case REVOLVER:
-						return ImageIO.read(new File(IMAGE_PATH + "revolver-card.png"));
-					case ROPE:
-						return ImageIO.read(new File(IMAGE_PATH + "rope-card.png"));
-					case WRENCH:
-						return ImageIO.read(new File(IMAGE_PATH + "wrench-card.png"));
-				}
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			return null;
-		}
 	}
 
 	/**
@@ -274,42 +935,13 @@ public class CluedoGame {
 		 * Returns a random room.
 		 * @return
 		 */
-		public static Card getRandom() {
-			return values()[(int) (Math.random() * values().length)];
+		public static Card getRandom(SplittableRandom random) {
+			return values()[random.nextInt(values().length)];
 		}
 
 		@Override
 		public String toString() {
 			return this.name().replaceAll("_", " ");
 		}
-
-		@Override
-		public BufferedImage getImage() {
-			try{
-				switch(this){
-					case KITCHEN:
-						return ImageIO.read(new File(IMAGE_PATH + "kitchen-card.png"));
-					case BALL_ROOM:
-						return ImageIO.read(new File(IMAGE_PATH + "ballroom-card.png"));
-					case CONSERVATORY:
-						return ImageIO.read(new File(IMAGE_PATH + "conservatory-card.png"));
-					case BILLIARD_ROOM:
-						return ImageIO.read(new File(IMAGE_PATH + "billiard-card.png"));
-					case LIBRARY:
-						return ImageIO.read(new File(IMAGE_PATH + "library-card.png"));
-					case STUDY:
-						return ImageIO.read(new File(IMAGE_PATH + "study-card.png"));
-					case HALL:
-						return ImageIO.read(new File(IMAGE_PATH + "hall-card.png"));
-					case LOUNGE:
-						return ImageIO.read(new File(IMAGE_PATH + "lounge-card.png"));
-					case DINING_ROOM:
-						return ImageIO.read(new File(IMAGE_PATH + "diningroom-card.png"));
-				}
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			return null;
-		}
 	}
 }
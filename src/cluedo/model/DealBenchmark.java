@@ -0,0 +1,104 @@
+package cluedo.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import cluedo.model.CluedoGame.Character;
+import cluedo.model.CluedoGame.Room;
+import cluedo.model.CluedoGame.Weapon;
+
+/**
+ * Times dealing the cards the way the game used to, taking random cards
+ * 	out of a list, against shuffling card numbers once and dealing hands
+ * 	as bits. Both deal the same cards to the same number of players.
+ *
+ * 	Usage: java cluedo.model.DealBenchmark [players] [deals]
+ * @author Patrick
+ *
+ */
+public class DealBenchmark {
+
+	// rounds run before timing so the code is compiled
+	private static final int WARM_UP_ROUNDS = 3;
+
+	/**
+	 * Deals the cards by removing random cards from a list.
+	 * @param players
+	 * @param random
+	 * @return the cards dealt to each player
+	 */
+	private static List<List<Card>> dealLists(int players, SplittableRandom random) {
+		Card[] solution = { Character.getRandom(random), Room.getRandom(random), Weapon.getRandom(random) };
+		List<Card> deck = new ArrayList<Card>();
+		deck.addAll(Arrays.asList(Character.values()));
+		deck.addAll(Arrays.asList(Weapon.values()));
+		deck.addAll(Arrays.asList(Room.values()));
+		deck.removeAll(Arrays.asList(solution));
+		int unused = deck.size() % players;
+		for(int i = 0; i < unused; i++){
+			deck.remove(deck.get(new Random().nextInt(deck.size())));
+		}
+		int each = deck.size() / players;
+		List<List<Card>> hands = new ArrayList<List<Card>>();
+		for(int p = 0; p < players; p++){
+			List<Card> hand = new ArrayList<Card>();
+			for(int i = 0; i < each; i++){
+				Card card = deck.get(new Random().nextInt(deck.size()));
+				deck.remove(card);
+				hand.add(card);
+			}
+			hands.add(hand);
+		}
+		return hands;
+	}
+
+	/**
+	 * Deals the cards by shuffling their numbers once.
+	 * @param hands filled with the bits of each player's hand
+	 * @param random
+	 * @return the bits of the left over cards
+	 */
+	private static int dealBits(int[] hands, SplittableRandom random) {
+		int solution = Cards.bit(Character.getRandom(random)) | Cards.bit(Room.getRandom(random))
+				| Cards.bit(Weapon.getRandom(random));
+		int[] deck = Cards.ids(solution);
+		Cards.shuffle(deck, random);
+		return Cards.deal(deck, hands);
+	}
+
+	/**
+	 * Runs the benchmark from the command line.
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		int players = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int deals = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		SplittableRandom random = new SplittableRandom(1);
+		long check = 0;
+
+		for(int round = 0; round <= WARM_UP_ROUNDS; round++){
+			long start = System.nanoTime();
+			for(int d = 0; d < deals; d++){
+				check += dealLists(players, random).get(0).size();
+			}
+			long lists = System.nanoTime() - start;
+
+			int[] hands = new int[players];
+			start = System.nanoTime();
+			for(int d = 0; d < deals; d++){
+				check += dealBits(hands, random) + hands[0];
+			}
+			long bits = System.nanoTime() - start;
+
+			if(round == WARM_UP_ROUNDS){
+				System.out.printf("%d deals to %d players%n", deals, players);
+				System.out.printf("  lists  %8.1f ns/deal%n", (double) lists / deals);
+				System.out.printf("  bits   %8.1f ns/deal%n", (double) bits / deals);
+				System.out.printf("  %.1fx faster (check %d)%n", (double) lists / bits, check & 0xff);
+			}
+		}
+	}
+}
@@ -0,0 +1,375 @@
+package cluedo.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What one player knows about who holds each card, worked out from
+ * 	their own hand and the suggestions they see.
+ *
+ * 	Each owner of cards, the players in seat order followed by the
+ * 	envelope holding the solution and the cards left over when dealing,
+ * 	has a mask of the cards known to be held and a mask of the cards
+ * 	known not to be held, using the card numbers from Cards. A refutation
+ * 	the observer did not see adds a constraint that the refuter holds at
+ * 	least one of the suggested cards, and a wrong accusation rules out
+ * 	the one accused card not known to be in the envelope.
+ * 	After each observation the rules are applied until nothing changes.
+ *
+ * 	Only ints are changed while observing and answering questions,
+ * 	so a deduction can follow every suggestion of many games at once.
+ * @author Patrick
+ *
+ */
+public class Deduction implements GameListener {
+
+	// the cards in the envelope, one of each kind
+	private static final int ENVELOPE_SIZE = 3;
+	private static final int[] KINDS = { Cards.CHARACTER_MASK, Cards.WEAPON_MASK, Cards.ROOM_MASK };
+
+	// the players in seat order
+	private final CharacterToken[] players;
+	// the seat of the player whose knowledge this is
+	private final int observer;
+	// the owner number of the envelope, after the players
+	private final int envelope;
+	// the owner number of the cards left over when dealing, which no one sees
+	private final int leftOver;
+
+	// the cards each owner is known to hold and known not to hold
+	private final int[] held;
+	private final int[] notHeld;
+	// the number of cards each owner holds
+	private final int[] sizes;
+
+	// owners known to hold at least one of some cards, the first oneOfCount are used
+	private int[] oneOfOwners = new int[16];
+	private int[] oneOfCards = new int[16];
+	private int oneOfCount;
+
+	/**
+	 * Creates the knowledge a player starts the game with, their own hand.
+	 * 	The players must be in seat order and already dealt their cards.
+	 * @param players
+	 * @param observer
+	 */
+	public Deduction(List<CharacterToken> players, CharacterToken observer) {
+		this.players = players.toArray(new CharacterToken[players.size()]);
+		this.envelope = this.players.length;
+		this.leftOver = envelope + 1;
+		this.held = new int[leftOver + 1];
+		this.notHeld = new int[leftOver + 1];
+		this.sizes = new int[leftOver + 1];
+		// everyone knows the cards are dealt evenly, see Cards.deal, even
+		// 	when they cannot see the other hands
+		int each = (Cards.COUNT - ENVELOPE_SIZE) / envelope;
+		int dealt = each * envelope;
+		for(int i = 0; i < envelope; i++){
+			sizes[i] = each;
+		}
+		sizes[envelope] = ENVELOPE_SIZE;
+		sizes[leftOver] = Cards.COUNT - ENVELOPE_SIZE - dealt;
+		this.observer = seat(observer);
+		if(this.observer < 0){
+			throw new IllegalArgumentException(observer.getName() + " is not playing");
+		}
+		int hand = observer.getHandMask();
+		held[this.observer] = hand;
+		notHeld[this.observer] = Cards.ALL & ~hand;
+		propagate();
+	}
+
+	/**
+	 * Creates a copy of another deduction, which can be read by
+	 * 	another thread while the original keeps observing.
+	 * @param other
+	 */
+	private Deduction(Deduction other) {
+		this.players = other.players;
+		this.observer = other.observer;
+		this.envelope = other.envelope;
+		this.leftOver = other.leftOver;
+		this.held = other.held.clone();
+		this.notHeld = other.notHeld.clone();
+		this.sizes = other.sizes;
+		this.oneOfOwners = other.oneOfOwners.clone();
+		this.oneOfCards = other.oneOfCards.clone();
+		this.oneOfCount = other.oneOfCount;
+	}
+
+	/**
+	 * Returns a copy of what is known so far.
+	 * @return
+	 */
+	public Deduction copy() {
+		return new Deduction(this);
+	}
+
+	/**
+	 * Returns the seat of a player or -1 if they are not playing.
+	 * @param player
+	 * @return
+	 */
+	public int seat(CharacterToken player) {
+		for(int i = 0; i < players.length; i++){
+			if(players[i] == player) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Learns from a suggestion, seen by the observer. The card shown is only
+	 * 	known if the observer made the suggestion.
+	 * @param result
+	 */
+	public void observe(SuggestionResult result) {
+		int suggester = seat(result.getSuggester());
+		int cards = Cards.bit(result.getSuspect()) | Cards.bit(result.getWeapon()) | Cards.bit(result.getRoom());
+		int refuter = result.refuted() ? seat(result.getRefuter()) : -1;
+		int shown = result.refuted() && suggester == observer ? Cards.id(result.getCard()) : -1;
+		observe(suggester, cards, refuter, shown);
+	}
+
+	/**
+	 * Learns from a suggestion. The players asked before the refuter do not
+	 * 	hold any of the suggested cards, and the refuter holds the card shown,
+	 * 	or at least one of the cards if the observer did not see which.
+	 * @param suggester seat of the player who suggested
+	 * @param cards the bits of the three suggested cards
+	 * @param refuter seat of the refuter or -1 if no one refuted
+	 * @param shown number of the card shown or -1 if not seen
+	 */
+	public void observe(int suggester, int cards, int refuter, int shown) {
+		for(int seat = next(suggester); seat != suggester && seat != refuter; seat = next(seat)){
+			notHeld[seat] |= cards;
+		}
+		if(refuter >= 0){
+			if(shown >= 0){
+				held[refuter] |= 1 << shown;
+			} else {
+				addOneOf(refuter, cards);
+			}
+		}
+		propagate();
+	}
+
+	/**
+	 * Learns that an accusation was wrong, so the cards are not all in the envelope.
+	 * @param cards the bits of the three accused cards
+	 */
+	public void accusationFailed(int cards) {
+		int missing = cards & ~held[envelope];
+		// if two of the cards are known to be in the envelope the third is not
+		if(Integer.bitCount(missing) == 1){
+			notHeld[envelope] |= missing;
+			propagate();
+		}
+	}
+
+	/**
+	 * Returns the seat after a seat.
+	 * @param seat
+	 * @return
+	 */
+	private int next(int seat) {
+		return seat + 1 == players.length ? 0 : seat + 1;
+	}
+
+	/**
+	 * Adds a constraint that an owner holds at least one of some cards.
+	 * @param owner
+	 * @param cards
+	 */
+	private void addOneOf(int owner, int cards) {
+		if(oneOfCount == oneOfOwners.length){
+			oneOfOwners = Arrays.copyOf(oneOfOwners, oneOfCount*2);
+			oneOfCards = Arrays.copyOf(oneOfCards, oneOfCount*2);
+		}
+		oneOfOwners[oneOfCount] = owner;
+		oneOfCards[oneOfCount] = cards;
+		oneOfCount++;
+	}
+
+	/**
+	 * Applies the rules to every owner until nothing more is learnt.
+	 */
+	private void propagate() {
+		boolean changed = true;
+		while(changed){
+			changed = false;
+			// a card held by one owner is not held by any other
+			int anyHeld = 0;
+			for(int o = 0; o <= leftOver; o++){
+				anyHeld |= held[o];
+			}
+			for(int o = 0; o <= leftOver; o++){
+				changed |= exclude(o, anyHeld & ~held[o]);
+			}
+			// a card only one owner can hold is held by them
+			int once = 0;
+			int twice = 0;
+			for(int o = 0; o <= leftOver; o++){
+				int possible = Cards.ALL & ~notHeld[o];
+				twice |= once & possible;
+				once |= possible;
+			}
+			int onlyOne = once & ~twice;
+			for(int o = 0; o <= leftOver; o++){
+				changed |= include(o, onlyOne & ~notHeld[o]);
+			}
+			// an owner known to hold all their cards holds no others,
+			// 	and one who can only hold as many cards as they have holds them all
+			for(int o = 0; o <= leftOver; o++){
+				if(Integer.bitCount(held[o]) == sizes[o]){
+					changed |= exclude(o, Cards.ALL & ~held[o]);
+				}
+				int possible = Cards.ALL & ~notHeld[o];
+				if(Integer.bitCount(possible) == sizes[o]){
+					changed |= include(o, possible);
+				}
+			}
+			// the envelope holds exactly one card of each kind
+			for(int kind: KINDS){
+				if((held[envelope] & kind) != 0){
+					changed |= exclude(envelope, kind & ~held[envelope]);
+				}
+				int possible = kind & ~notHeld[envelope];
+				if(Integer.bitCount(possible) == 1){
+					changed |= include(envelope, possible);
+				}
+			}
+			// a refuter who cannot hold all but one of the cards holds that one
+			for(int i = 0; i < oneOfCount; i++){
+				int o = oneOfOwners[i];
+				int possible = oneOfCards[i] & ~notHeld[o];
+				if((possible & held[o]) != 0 || Integer.bitCount(possible) != 1) continue;
+				changed |= include(o, possible);
+			}
+		}
+	}
+
+	/**
+	 * Records that an owner holds some cards.
+	 * @param owner
+	 * @param cards
+	 * @return true if anything new was learnt
+	 */
+	private boolean include(int owner, int cards) {
+		if((held[owner] | cards) == held[owner]) return false;
+		held[owner] |= cards;
+		return true;
+	}
+
+	/**
+	 * Records that an owner does not hold some cards.
+	 * @param owner
+	 * @param cards
+	 * @return true if anything new was learnt
+	 */
+	private boolean exclude(int owner, int cards) {
+		if((notHeld[owner] | cards) == notHeld[owner]) return false;
+		notHeld[owner] |= cards;
+		return true;
+	}
+
+	/*
+	 * Questions about what is known
+	 */
+	/**
+	 * Returns the cards a player is known to hold.
+	 * @param seat
+	 * @return
+	 */
+	public int held(int seat){ return held[seat]; }
+	/**
+	 * Returns the cards a player is known not to hold.
+	 * @param seat
+	 * @return
+	 */
+	public int notHeld(int seat){ return notHeld[seat]; }
+	/**
+	 * Returns the number of owners: the players, the envelope and the left over cards.
+	 * @return
+	 */
+	int owners(){ return leftOver + 1; }
+	/**
+	 * Returns the owner number of the envelope.
+	 * @return
+	 */
+	int envelope(){ return envelope; }
+	/**
+	 * Returns the number of cards an owner holds.
+	 * @param owner
+	 * @return
+	 */
+	int size(int owner){ return sizes[owner]; }
+	/**
+	 * Returns the number of constraints that an owner holds one of some cards.
+	 * @return
+	 */
+	int oneOfCount(){ return oneOfCount; }
+	/**
+	 * Returns the owner of a constraint.
+	 * @param i
+	 * @return
+	 */
+	int oneOfOwner(int i){ return oneOfOwners[i]; }
+	/**
+	 * Returns the cards of a constraint, at least one of which the owner holds.
+	 * @param i
+	 * @return
+	 */
+	int oneOfCards(int i){ return oneOfCards[i]; }
+	/**
+	 * Returns the cards which could still be in the envelope.
+	 * @return
+	 */
+	public int possibleSolution(){ return Cards.ALL & ~notHeld[envelope]; }
+	/**
+	 * Returns the cards known to be in the envelope.
+	 * @return
+	 */
+	public int knownSolution(){ return held[envelope]; }
+	/**
+	 * Returns true if a character, weapon and room could still be the solution.
+	 * @param suspect
+	 * @param weapon
+	 * @param room
+	 * @return
+	 */
+	public boolean isPossible(int suspect, int weapon, int room) {
+		int cards = (1 << suspect) | (1 << weapon) | (1 << room);
+		return (cards & notHeld[envelope]) == 0;
+	}
+	/**
+	 * Returns how many character, weapon and room triples could still be the solution.
+	 * @return
+	 */
+	public int solutionCount() {
+		int possible = possibleSolution();
+		return Integer.bitCount(possible & Cards.CHARACTER_MASK)
+				* Integer.bitCount(possible & Cards.WEAPON_MASK)
+				* Integer.bitCount(possible & Cards.ROOM_MASK);
+	}
+	/**
+	 * Returns true if only one triple could be the solution.
+	 * @return
+	 */
+	public boolean isSolved(){ return solutionCount() == 1; }
+
+	/*
+	 * Listener methods, so a deduction can follow a game directly
+	 */
+	@Override
+	public void tokenMoved(Token token, Position from, Position to) {}
+
+	@Override
+	public void suggestionMade(SuggestionResult result) {
+		observe(result);
+	}
+
+	@Override
+	public void accusationFailed(CharacterToken accuser, int cards) {
+		accusationFailed(cards);
+	}
+}
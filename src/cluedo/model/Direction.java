@@ -0,0 +1,33 @@
+package cluedo.model;
+
+/**
+ * Represents the four directions a token can move on the board.
+ * @author Patrick
+ *
+ */
+public enum Direction {
+	NORTH(0, -1),
+	EAST(1, 0),
+	SOUTH(0, 1),
+	WEST(-1, 0);
+
+	// Stores the change in position of a step in this direction
+	private final int dx;
+	private final int dy;
+
+	private Direction(int dx, int dy){
+		this.dx = dx;
+		this.dy = dy;
+	}
+
+	/**
+	 * Returns the change in x position of a step in this direction.
+	 * @return
+	 */
+	public int dx(){ return dx; }
+	/**
+	 * Returns the change in y position of a step in this direction.
+	 * @return
+	 */
+	public int dy(){ return dy; }
+}
@@ -0,0 +1,185 @@
+package cluedo.model;
+
+/**
+ * Packs the events of a game into longs so a whole game can be stored
+ * 	in a GameLog and replayed quickly without creating objects.
+ *
+ * 	The lowest 4 bits hold the type of event, the next 4 the seat of the
+ * 	player it happened to (NONE if no one), the next 24 a square or cards
+ * 	and the top 32 a second number such as the steps used. Cards are
+ * 	stored as their numbers, see Cards.
+ * @author Patrick
+ *
+ */
+public final class GameEvent {
+
+	// the types of event
+	public static final int BEGIN = 0;
+	public static final int ROLL = 1;
+	public static final int MOVE = 2;
+	public static final int STAIRS = 3;
+	public static final int SUGGESTION = 4;
+	public static final int REFUTATION = 5;
+	public static final int ACCUSATION = 6;
+	public static final int ELIMINATION = 7;
+	public static final int END_TURN = 8;
+	public static final int TYPES = 9;
+
+	// the seat or card stored when there is none
+	private static final int NONE = 0xF;
+	private static final int NO_CARD = 0x1F;
+
+	private GameEvent() {}
+
+	/*
+	 * Methods creating events
+	 */
+	/**
+	 * The game began with a player's turn.
+	 * @param seat
+	 * @return
+	 */
+	public static long begin(int seat) {
+		return event(BEGIN, seat, 0, 0);
+	}
+
+	/**
+	 * A player rolled the dice.
+	 * @param seat
+	 * @param first
+	 * @param second
+	 * @return
+	 */
+	public static long roll(int seat, int first, int second) {
+		return event(ROLL, seat, first, second);
+	}
+
+	/**
+	 * A player moved to a square using some steps.
+	 * @param seat
+	 * @param square
+	 * @param steps
+	 * @return
+	 */
+	public static long move(int seat, int square, int steps) {
+		return event(MOVE, seat, square, steps);
+	}
+
+	/**
+	 * A player took the secret passage to a square.
+	 * @param seat
+	 * @param square
+	 * @return
+	 */
+	public static long stairs(int seat, int square) {
+		return event(STAIRS, seat, square, 0);
+	}
+
+	/**
+	 * A player suggested a crime.
+	 * @param seat
+	 * @param suspect card number
+	 * @param weapon card number
+	 * @param room card number
+	 * @return
+	 */
+	public static long suggestion(int seat, int suspect, int weapon, int room) {
+		return event(SUGGESTION, seat, cards(suspect, weapon, room), 0);
+	}
+
+	/**
+	 * A player refuted the last suggestion by showing a card.
+	 * @param seat the refuter or -1 if no one could refute it
+	 * @param card card number or -1 if none was shown
+	 * @return
+	 */
+	public static long refutation(int seat, int card) {
+		return event(REFUTATION, seat, card < 0 ? NO_CARD : card, 0);
+	}
+
+	/**
+	 * A player accused someone of the crime.
+	 * @param seat
+	 * @param suspect card number
+	 * @param weapon card number
+	 * @param room card number
+	 * @param correct
+	 * @return
+	 */
+	public static long accusation(int seat, int suspect, int weapon, int room, boolean correct) {
+		return event(ACCUSATION, seat, cards(suspect, weapon, room), correct ? 1 : 0);
+	}
+
+	/**
+	 * A player is out of the game.
+	 * @param seat
+	 * @return
+	 */
+	public static long elimination(int seat) {
+		return event(ELIMINATION, seat, 0, 0);
+	}
+
+	/**
+	 * A player ended their turn.
+	 * @param seat
+	 * @return
+	 */
+	public static long endTurn(int seat) {
+		return event(END_TURN, seat, 0, 0);
+	}
+
+	/**
+	 * Returns a logged event as a player sees it: only the suggester and
+	 * 	the refuter see the card shown in a refutation.
+	 * @param log
+	 * @param index
+	 * @param viewer the seat of the player or -1 for someone not playing
+	 * @return
+	 */
+	public static long seenBy(GameLog log, int index, int viewer) {
+		long event = log.get(index);
+		if(type(event) != REFUTATION || card(event) < 0) return event;
+		// a refutation always comes straight after its suggestion
+		if(viewer >= 0 && (viewer == seat(event) || viewer == seat(log.get(index - 1)))) return event;
+		return event & ~(0x1FL << 8) | (long) NO_CARD << 8;
+	}
+
+	private static long event(int type, int seat, int a, int b) {
+		return type | (long) (seat < 0 ? NONE : seat) << 4 | (long) a << 8 | (long) b << 32;
+	}
+
+	private static int cards(int suspect, int weapon, int room) {
+		return suspect | weapon << 5 | room << 10;
+	}
+
+	/*
+	 * Methods reading events
+	 */
+	public static int type(long event){ return (int) event & 0xF; }
+	/**
+	 * Returns the seat of the player an event happened to or -1 if none.
+	 * @param event
+	 * @return
+	 */
+	public static int seat(long event){
+		int seat = (int) (event >>> 4) & 0xF;
+		return seat == NONE ? -1 : seat;
+	}
+	public static int square(long event){ return (int) (event >>> 8) & 0xFFFFFF; }
+	public static int steps(long event){ return (int) (event >>> 32); }
+	public static int firstDie(long event){ return square(event); }
+	public static int secondDie(long event){ return steps(event); }
+	public static int suspect(long event){ return square(event) & 0x1F; }
+	public static int weapon(long event){ return square(event) >>> 5 & 0x1F; }
+	public static int room(long event){ return square(event) >>> 10 & 0x1F; }
+	public static boolean correct(long event){ return steps(event) != 0; }
+	/**
+	 * Returns the number of the card shown in a refutation or -1 if none.
+	 * @param event
+	 * @return
+	 */
+	public static int card(long event){
+		int card = square(event) & 0x1F;
+		return card == NO_CARD ? -1 : card;
+	}
+}
@@ -0,0 +1,311 @@
+package cluedo.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a game as it is played so it can be carried on after a crash.
+ * 	A full snapshot of the game is saved first, then the events of each
+ * 	action are added to a journal file next to it. Once the journal has
+ * 	grown by COMPACT_EVENTS events a new snapshot is saved and the
+ * 	journal starts again.
+ *
+ * 	The game only copies the new events and hands them over, all writing
+ * 	is done on the journal's own thread, which writes whatever has built
+ * 	up in one go. Each batch in the journal carries a checksum, so a
+ * 	batch cut short by a crash is left out when the game is recovered.
+ * @author Patrick
+ *
+ */
+public class GameJournal implements GameLog.Listener {
+
+	// the extension of a journal, next to its snapshot
+	public static final String EXTENSION = ".journal";
+	// the events journaled before a new snapshot is saved
+	public static final int COMPACT_EVENTS = 1000;
+
+	// identifies a journal file
+	private static final int MAGIC = 0x434C444A; // "CLDJ"
+	private static final int VERSION = 1;
+	// the bytes before the first batch: magic, version, seed and first event
+	private static final int HEADER = 4 + 4 + 8 + 4;
+
+	private final CluedoGame game;
+	private final byte[] controllers;
+	private final File snapshotFile;
+	private final File journalFile;
+	// the number of events handed to the writer and in the last snapshot
+	private int queued;
+	private int compacted;
+
+	// the work waiting for the writer and the thread doing it
+	private final BlockingQueue<Batch> pending = new LinkedBlockingQueue<Batch>();
+	private final Thread writer;
+	// the first error the writer had or null if none
+	private volatile IOException error;
+
+	/**
+	 * Starts journaling a game, saving a snapshot of it first.
+	 * @param game
+	 * @param controllers what controls each player, see GameSnapshot
+	 * @param snapshotFile the snapshot, the journal goes next to it
+	 */
+	public GameJournal(CluedoGame game, byte[] controllers, File snapshotFile) {
+		this.game = game;
+		this.controllers = controllers;
+		this.snapshotFile = snapshotFile;
+		this.journalFile = journalFile(snapshotFile);
+		this.writer = new Thread(new Runnable(){
+			@Override
+			public void run() {
+				write();
+			}
+		}, "journal");
+		writer.setDaemon(true);
+		writer.start();
+		synchronized(this){
+			compact();
+		}
+		game.addLogListener(this);
+	}
+
+	/**
+	 * Hands the events of the action just logged to the writer.
+	 */
+	@Override
+	public synchronized void actionLogged(GameLog log) {
+		int size = log.size();
+		// nothing more is kept once the writer has failed
+		if(size == queued || error != null) return;
+		if(size - compacted >= COMPACT_EVENTS){
+			compact();
+			return;
+		}
+		long[] events = new long[size - queued];
+		for(int i = 0; i < events.length; i++){
+			events[i] = log.get(queued + i);
+		}
+		pending.add(new Batch(queued, events, null));
+		queued = size;
+	}
+
+	/**
+	 * Hands a snapshot of the game to the writer, to replace the journal.
+	 */
+	private void compact() {
+		queued = compacted = game.getLog().size();
+		pending.add(new Batch(queued, null, GameSnapshot.encode(game, controllers)));
+	}
+
+	/**
+	 * Stops journaling, waiting for everything handed over to be written.
+	 * @param discard true to delete the snapshot and journal, when the game
+	 * 	has ended or is not wanted
+	 * @throws IOException if anything could not be written
+	 */
+	public void close(boolean discard) throws IOException {
+		game.removeLogListener(this);
+		pending.add(Batch.STOP);
+		try{
+			writer.join();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		if(discard){
+			journalFile.delete();
+			snapshotFile.delete();
+		}
+		if(error != null) throw error;
+	}
+
+	/**
+	 * Writes the work handed over until told to stop, writing all the
+	 * 	batches waiting at once.
+	 */
+	private void write() {
+		List<Batch> work = new ArrayList<Batch>();
+		List<long[]> events = new ArrayList<long[]>();
+		RandomAccessFile journal = null;
+		boolean stopped = false;
+		try{
+			while(!stopped){
+				work.add(pending.take());
+				pending.drainTo(work);
+				int count = 0;
+				for(Batch b: work){
+					if(b == Batch.STOP){
+						stopped = true;
+						break;
+					}
+					if(b.snapshot != null){
+						// the events before a snapshot are in it already
+						events.clear();
+						count = 0;
+						GameSnapshot.write(b.snapshot, snapshotFile);
+						if(journal != null) journal.close();
+						journal = startJournal(b.first);
+					} else {
+						events.add(b.events);
+						count += b.events.length;
+					}
+				}
+				if(count > 0) append(journal, events, count);
+				work.clear();
+				events.clear();
+			}
+		} catch(IOException e){
+			error = e;
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		} finally {
+			try{
+				if(journal != null) journal.close();
+			} catch(IOException e){
+				if(error == null) error = e;
+			}
+		}
+	}
+
+	/**
+	 * Creates an empty journal of the events after a snapshot.
+	 * @param first the number of events in the snapshot
+	 * @return
+	 * @throws IOException
+	 */
+	private RandomAccessFile startJournal(int first) throws IOException {
+		RandomAccessFile journal = new RandomAccessFile(journalFile, "rw");
+		journal.setLength(0);
+		ByteBuffer buf = ByteBuffer.allocate(HEADER);
+		buf.putInt(MAGIC);
+		buf.putInt(VERSION);
+		buf.putLong(game.getSeed());
+		buf.putInt(first);
+		buf.flip();
+		FileChannel channel = journal.getChannel();
+		while(buf.hasRemaining()){
+			channel.write(buf);
+		}
+		channel.force(false);
+		return journal;
+	}
+
+	/**
+	 * Adds events to the journal as one batch: the number of events,
+	 * 	the events and their checksum.
+	 * @param journal
+	 * @param events
+	 * @param count the number of events
+	 * @throws IOException
+	 */
+	private static void append(RandomAccessFile journal, List<long[]> events, int count) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(4 + count*8 + 8);
+		buf.putInt(count);
+		for(long[] batch: events){
+			for(long e: batch){
+				buf.putLong(e);
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buf.array(), 4, count*8);
+		buf.putLong(crc.getValue());
+		buf.flip();
+		FileChannel channel = journal.getChannel();
+		channel.position(channel.size());
+		while(buf.hasRemaining()){
+			channel.write(buf);
+		}
+		channel.force(false);
+	}
+
+	/**
+	 * Recovers a journaled game: loads the snapshot and replays the events
+	 * 	journaled after it, up to the last one written in full.
+	 * @param board
+	 * @param snapshotFile
+	 * @return the game or null if there is no game to recover
+	 * @throws IOException
+	 */
+	public static GameSnapshot recover(Board board, File snapshotFile) throws IOException {
+		if(!snapshotFile.exists()) return null;
+		GameSnapshot snapshot = GameSnapshot.read(board, snapshotFile);
+		if(snapshot == null) return null;
+		File journalFile = journalFile(snapshotFile);
+		if(!journalFile.exists()) return snapshot;
+		CluedoGame game = snapshot.getGame();
+
+		RandomAccessFile in = new RandomAccessFile(journalFile, "r");
+		try{
+			FileChannel channel = in.getChannel();
+			ByteBuffer buf = ByteBuffer.allocate((int) channel.size());
+			while(buf.hasRemaining() && channel.read(buf) >= 0);
+			buf.flip();
+			if(buf.remaining() < HEADER || buf.getInt() != MAGIC || buf.getInt() != VERSION
+					|| buf.getLong() != game.getSeed()){
+				return snapshot;
+			}
+			int next = buf.getInt();
+			// a journal which starts after the snapshot ends has lost events
+			if(next > game.getLog().size()) return snapshot;
+			CRC32 crc = new CRC32();
+			while(buf.remaining() >= 4){
+				int events = buf.getInt();
+				if(events <= 0 || buf.remaining() < events*8L + 8) break;
+				crc.reset();
+				crc.update(buf.array(), buf.position(), events*8);
+				int start = buf.position();
+				buf.position(start + events*8);
+				if(buf.getLong() != crc.getValue()) break;
+				for(int i = 0; i < events; i++, next++){
+					// events already in the snapshot are skipped
+					if(next >= game.getLog().size()){
+						try{
+							game.replay(buf.getLong(start + i*8));
+						} catch(IllegalArgumentException e){
+							// the game carries on from the last event which made sense
+							return snapshot;
+						}
+					}
+				}
+			}
+		} finally {
+			in.close();
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Returns the journal kept next to a snapshot.
+	 * @param snapshotFile
+	 * @return
+	 */
+	public static File journalFile(File snapshotFile) {
+		return new File(snapshotFile.getPath() + EXTENSION);
+	}
+
+	/**
+	 * Work handed to the writer: events, or a snapshot holding every
+	 * 	event before first.
+	 */
+	private static class Batch {
+		// tells the writer to stop
+		static final Batch STOP = new Batch(0, null, null);
+
+		final int first;
+		final long[] events;
+		final ByteBuffer snapshot;
+
+		Batch(int first, long[] events, ByteBuffer snapshot) {
+			this.first = first;
+			this.events = events;
+			this.snapshot = snapshot;
+		}
+	}
+}
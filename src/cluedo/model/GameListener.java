@@ -0,0 +1,32 @@
+package cluedo.model;
+
+/**
+ * Receives notifications of changes to a cluedo game so views
+ * 	can update themselves from the game state.
+ * @author Patrick
+ *
+ */
+public interface GameListener {
+
+	/**
+	 * Called when a token has moved on the board.
+	 * @param token
+	 * @param from position or null if it was not on the board
+	 * @param to
+	 */
+	public void tokenMoved(Token token, Position from, Position to);
+
+	/**
+	 * Called when a player has made a suggestion and it has been
+	 * 	refuted or no one could refute it.
+	 * @param result
+	 */
+	public void suggestionMade(SuggestionResult result);
+
+	/**
+	 * Called when a player has made a wrong accusation and is out of the game.
+	 * @param accuser
+	 * @param cards the bits of the three accused cards, see Cards
+	 */
+	public void accusationFailed(CharacterToken accuser, int cards);
+}
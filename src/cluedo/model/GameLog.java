@@ -0,0 +1,141 @@
+package cluedo.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cluedo.model.CluedoGame.Character;
+
+/**
+ * The record of everything that happened in a game. Together with the
+ * 	seed and the players, which decide the deal and where the weapons
+ * 	start, the events are all that is needed to rebuild the game.
+ * 	Events are only ever added to the end, see GameEvent.
+ * @author Patrick
+ *
+ */
+public class GameLog {
+
+	// the seed of the game and its players in seat order
+	private final long seed;
+	private final String[] names;
+	private final Character[] characters;
+	// the events in the order they happened
+	private long[] events = new long[64];
+	private int size;
+
+	/**
+	 * Creates an empty log of a game.
+	 * @param seed
+	 * @param players
+	 */
+	GameLog(long seed, List<CharacterToken> players) {
+		this.seed = seed;
+		this.names = new String[players.size()];
+		this.characters = new Character[players.size()];
+		for(int i = 0; i < names.length; i++){
+			names[i] = players.get(i).getName();
+			characters[i] = players.get(i).getCharacter();
+		}
+	}
+
+	/**
+	 * Adds an event to the end of the log.
+	 * @param event
+	 */
+	void append(long event) {
+		if(size == events.length){
+			events = Arrays.copyOf(events, size * 2);
+		}
+		events[size++] = event;
+	}
+
+	/**
+	 * Creates new players to play the logged game again.
+	 * @return
+	 */
+	public List<CharacterToken> createPlayers() {
+		List<CharacterToken> players = new ArrayList<CharacterToken>(names.length);
+		for(int i = 0; i < names.length; i++){
+			players.add(new CharacterToken(names[i], i + 1, characters[i].toString()));
+		}
+		return players;
+	}
+
+	/**
+	 * Describes an event for people to read.
+	 * @param index
+	 * @return
+	 */
+	public String describe(int index) {
+		long e = events[index];
+		int seat = GameEvent.seat(e);
+		String name = seat < 0 ? "No one" : names[seat];
+		switch(GameEvent.type(e)){
+			case GameEvent.BEGIN:
+				return "The game began with " + name + ".";
+			case GameEvent.ROLL:
+				return name + " rolled " + (GameEvent.firstDie(e) + GameEvent.secondDie(e)) + ".";
+			case GameEvent.MOVE:
+				return name + " moved " + GameEvent.steps(e) + " squares.";
+			case GameEvent.STAIRS:
+				return name + " took the secret passage.";
+			case GameEvent.SUGGESTION:
+				return name + " suggested " + Cards.card(GameEvent.suspect(e)) + " with the " +
+						Cards.card(GameEvent.weapon(e)) + " in the " + Cards.card(GameEvent.room(e)) + ".";
+			case GameEvent.REFUTATION:
+				return seat < 0 ? "No one could refute the suggestion." : name + " refuted the suggestion.";
+			case GameEvent.ACCUSATION:
+				return name + " accused " + Cards.card(GameEvent.suspect(e)) + " with the " +
+						Cards.card(GameEvent.weapon(e)) + " in the " + Cards.card(GameEvent.room(e)) +
+						(GameEvent.correct(e) ? " and solved the crime!" : " and was wrong.");
+			case GameEvent.ELIMINATION:
+				return name + " is out of the game.";
+			case GameEvent.END_TURN:
+				return name + " ended their turn.";
+		}
+		return "Unknown event.";
+	}
+
+	/**
+	 * Told each time an action has been logged in full, so the log never
+	 * 	ends part way through an action such as a suggestion.
+	 */
+	public interface Listener {
+		public void actionLogged(GameLog log);
+	}
+
+	/**
+	 * Returns roughly how many bytes the log holds, see CluedoGame.footprint.
+	 * @return
+	 */
+	long footprint() {
+		return 64 + 16 + 8L * events.length + 16 + 4L * names.length;
+	}
+
+	/*
+	 * Getter methods
+	 */
+	public long seed(){ return seed; }
+	/**
+	 * Returns the number of players.
+	 * @return
+	 */
+	public int players(){ return names.length; }
+	public String name(int seat){ return names[seat]; }
+	public Character character(int seat){ return characters[seat]; }
+	/**
+	 * Returns the number of events.
+	 * @return
+	 */
+	public int size(){ return size; }
+	/**
+	 * Returns an event, see GameEvent.
+	 * @param index
+	 * @return
+	 */
+	public long get(int index){
+		if(index >= size) throw new IndexOutOfBoundsException("Event " + index + " of " + size);
+		return events[index];
+	}
+}
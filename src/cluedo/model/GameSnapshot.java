@@ -0,0 +1,302 @@
+package cluedo.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A saved game, holding the whole state of the game: where every token
+ * 	is, the hands, the solution, which players are still in, whose turn
+ * 	it is and their steps left, and the log of the game so far.
+ *
+ * 	A snapshot is taken with encode, which is quick enough for the event
+ * 	dispatch thread, and written with write, which can be done on any
+ * 	thread. Loading sets the state straight from the file rather than
+ * 	replaying the log.
+ * @author Patrick
+ *
+ */
+public class GameSnapshot {
+
+	// the extension of a saved game
+	public static final String EXTENSION = ".cluedo";
+
+	// identifies a saved game file
+	private static final int MAGIC = 0x434C4453; // "CLDS"
+	private static final int VERSION = 1;
+	// the viewer of a snapshot holding everything and the card stored when hidden
+	private static final int EVERYTHING = -2;
+	private static final int HIDDEN = 0x1F;
+
+	// the loaded game and what controls each player
+	private final CluedoGame game;
+	private final byte[] controllers;
+
+	private GameSnapshot(CluedoGame game, byte[] controllers) {
+		this.game = game;
+		this.controllers = controllers;
+	}
+
+	/**
+	 * Prints a summary of saved games and how fast they load.
+	 * @param args the board file then the saved games
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 2){
+			System.out.println("Usage: java cluedo.model.GameSnapshot <boardFile.txt> <game.cluedo>...");
+			return;
+		}
+		Board board = Board.load(args[0]);
+		long start = System.nanoTime();
+		for(int i = 1; i < args.length; i++){
+			GameSnapshot snapshot = read(board, new File(args[i]));
+			if(snapshot == null){
+				System.out.println(args[i] + ": not a saved game of this board");
+				continue;
+			}
+			CluedoGame game = snapshot.getGame();
+			CharacterToken current = game.getCurrentPlayer();
+			CharacterToken winner = game.getWinner();
+			System.out.println(args[i] + ": seed " + game.getSeed() + ", " + game.getLog().size() + " events, "
+					+ (winner != null ? winner.getName() + " won" :
+						current != null ? current.getName() + " to play" : "not begun"));
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d games in %.3f s%n", args.length - 1, seconds);
+	}
+
+	/**
+	 * Takes a snapshot of a game.
+	 * @param game
+	 * @param controllers what controls each player, 0 for a person, or null
+	 * 	if only people play; other values are up to the gui
+	 * @return the snapshot, ready to be written
+	 */
+	public static ByteBuffer encode(CluedoGame game, byte[] controllers) {
+		return encode(game, controllers, EVERYTHING);
+	}
+
+	/**
+	 * Takes a snapshot of what one player can see of a game. The seed,
+	 * 	the solution, the other players' hands, the cards left over when
+	 * 	dealing and the cards shown to other players are left out.
+	 * @param game
+	 * @param viewer the seat of the player or -1 for someone not playing
+	 * @return the snapshot, ready to be written
+	 */
+	public static ByteBuffer encodeFor(CluedoGame game, int viewer) {
+		return encode(game, null, viewer);
+	}
+
+	private static ByteBuffer encode(CluedoGame game, byte[] controllers, int viewer) {
+		boolean all = viewer == EVERYTHING;
+		List<CharacterToken> players = game.getActivePlayers();
+		List<WeaponToken> weapons = game.getWeapons();
+		GameLog log = game.getLog();
+		byte[][] names = new byte[players.size()][];
+		int length = 4*2 + 8*2 + 1 + 1 + weapons.size()*4 + 3 + 5 + 4 + 4 + log.size()*8;
+		for(int i = 0; i < names.length; i++){
+			names[i] = players.get(i).getName().getBytes(StandardCharsets.UTF_8);
+			length += 2 + names[i].length + 1 + 1 + 4 + 4 + 4 + 1;
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(length);
+		buf.putInt(MAGIC);
+		buf.putInt(VERSION);
+		buf.putLong(game.getBoard().checksum());
+		buf.putLong(all ? game.getSeed() : 0);
+		buf.put((byte) players.size());
+		for(int i = 0; i < names.length; i++){
+			CharacterToken p = players.get(i);
+			buf.putShort((short) names[i].length);
+			buf.put(names[i]);
+			buf.put((byte) p.getCharacter().ordinal());
+			buf.put(controllers == null ? 0 : controllers[i]);
+			buf.putInt(all || i == viewer ? p.getHandMask() : 0);
+			buf.putInt(p.pos() == null ? -1 : game.squareOf(p));
+			buf.putInt(p.getStepsRemaining());
+			buf.put((byte) ((p.active ? 1 : 0) | (p.suggested ? 2 : 0)));
+		}
+		buf.put((byte) weapons.size());
+		for(WeaponToken w: weapons){
+			buf.putInt(w.pos() == null ? -1 : game.squareOf(w));
+		}
+		for(Card c: game.getSolution()){
+			buf.put((byte) (all || c == null ? card(c) : HIDDEN));
+		}
+		buf.put((byte) seat(game.getCurrentPlayer()));
+		buf.put((byte) (game.hasRolled() ? 1 : 0));
+		buf.put((byte) game.getFirstDie());
+		buf.put((byte) game.getSecondDie());
+		buf.put((byte) seat(game.getWinner()));
+		buf.putInt(all ? game.getUnusedCards() : 0);
+		buf.putInt(log.size());
+		for(int i = 0; i < log.size(); i++){
+			buf.putLong(all ? log.get(i) : GameEvent.seenBy(log, i, viewer));
+		}
+		buf.flip();
+		return buf;
+	}
+
+	/**
+	 * Writes a snapshot to a file. The snapshot goes to a temporary file
+	 * 	first, so a save which fails part way leaves the old file whole.
+	 * @param snapshot from encode
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void write(ByteBuffer snapshot, File file) throws IOException {
+		ByteBuffer buf = snapshot.duplicate();
+		File temp = new File(file.getPath() + ".tmp");
+		RandomAccessFile out = new RandomAccessFile(temp, "rw");
+		try{
+			out.setLength(0);
+			FileChannel channel = out.getChannel();
+			while(buf.hasRemaining()){
+				channel.write(buf);
+			}
+			channel.force(false);
+		} finally {
+			out.close();
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a saved game.
+	 * @param board the board the game was played on
+	 * @param file
+	 * @return snapshot or null if the file is not a game saved on this board
+	 * 	that this version can read
+	 * @throws IOException
+	 */
+	public static GameSnapshot read(Board board, File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try{
+			FileChannel channel = in.getChannel();
+			ByteBuffer buf = ByteBuffer.allocate((int) channel.size());
+			while(buf.hasRemaining() && channel.read(buf) >= 0);
+			buf.flip();
+			return decode(board, buf);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Loads a game from a snapshot.
+	 * @param board the board the game was played on
+	 * @param buf from encode
+	 * @return snapshot or null if the buffer is not a game saved on this
+	 * 	board that this version can read
+	 */
+	public static GameSnapshot decode(Board board, ByteBuffer buf) {
+		try{
+			if(buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+			if(buf.getLong() != board.checksum()) return null;
+			long seed = buf.getLong();
+			int count = buf.get();
+			if(count < 1 || count > Cards.CHARACTERS) return null;
+			CluedoGame.Character[] characters = CluedoGame.Character.values();
+			List<CharacterToken> players = new ArrayList<CharacterToken>(count);
+			byte[] controllers = new byte[count];
+			int[] hands = new int[count];
+			int[] playerSquares = new int[count];
+			int[] steps = new int[count];
+			byte[] flags = new byte[count];
+			for(int i = 0; i < count; i++){
+				byte[] name = new byte[buf.getShort()];
+				buf.get(name);
+				CluedoGame.Character c = characters[buf.get()];
+				players.add(new CharacterToken(new String(name, StandardCharsets.UTF_8), i + 1, c.toString()));
+				controllers[i] = buf.get();
+				hands[i] = buf.getInt();
+				playerSquares[i] = square(board, buf.getInt());
+				steps[i] = buf.getInt();
+				flags[i] = buf.get();
+			}
+			int[] weaponSquares = new int[buf.get()];
+			for(int i = 0; i < weaponSquares.length; i++){
+				weaponSquares[i] = square(board, buf.getInt());
+			}
+			Card[] solution = { card(buf.get()), card(buf.get()), card(buf.get()) };
+			int current = buf.get();
+			boolean rolled = buf.get() != 0;
+			int first = buf.get();
+			int second = buf.get();
+			int winner = buf.get();
+			int unused = buf.getInt();
+			long[] events = new long[buf.getInt()];
+			buf.asLongBuffer().get(events);
+
+			CluedoGame game = new CluedoGame(board, players, seed);
+			if(weaponSquares.length > game.getWeapons().size() || current >= count || winner >= count) return null;
+			for(int i = 0; i < count; i++){
+				CharacterToken p = players.get(i);
+				p.setHandMask(hands[i]);
+				p.setStepsRemaining(steps[i]);
+				p.active = (flags[i] & 1) != 0;
+				p.suggested = (flags[i] & 2) != 0;
+			}
+			game.restore(solution, unused, playerSquares, weaponSquares,
+					current, rolled, first, second, winner, events);
+			return new GameSnapshot(game, controllers);
+		} catch(RuntimeException e){
+			// a file cut short or holding numbers out of range is not a saved game
+			return null;
+		}
+	}
+
+	/**
+	 * Checks a saved square is on the board.
+	 * @param board
+	 * @param square
+	 * @return
+	 */
+	private static int square(Board board, int square) {
+		if(square >= board.size()) throw new IndexOutOfBoundsException("Square " + square);
+		return square;
+	}
+
+	/**
+	 * Returns the saved number of a card, which may be hidden.
+	 * @param card
+	 * @return
+	 */
+	private static int card(Card card) {
+		return card == null ? HIDDEN : Cards.id(card);
+	}
+
+	/**
+	 * Returns a saved card or null if it was hidden.
+	 * @param id
+	 * @return
+	 */
+	private static Card card(byte id) {
+		return id == HIDDEN ? null : Cards.card(id);
+	}
+
+	private static int seat(CharacterToken player) {
+		return player == null ? -1 : player.getUid() - 1;
+	}
+
+	/*
+	 * Getter methods
+	 */
+	public CluedoGame getGame(){ return game; }
+	/**
+	 * Returns what controls a player, 0 for a person.
+	 * @param seat
+	 * @return
+	 */
+	public byte controller(int seat){ return controllers[seat]; }
+}
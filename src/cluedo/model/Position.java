@@ -7,9 +7,9 @@ package cluedo.model;
  */
 public class Position {
 
-	private int Xpos;
-	private int Ypos;
-	private char symbol;
+	private final int Xpos;
+	private final int Ypos;
+	private final char symbol;
 
 	/**
 	 * Creates a position with a given x, y value.
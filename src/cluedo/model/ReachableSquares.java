@@ -0,0 +1,179 @@
+package cluedo.model;
+
+import java.util.Arrays;
+
+import cluedo.model.CluedoGame.Room;
+
+/**
+ * Works out every square and room a player can reach with
+ * 	the steps they have left, using a breadth first search
+ * 	which stops at the number of steps.
+ *
+ * 	The search reuses the same arrays every time it is run so
+ * 	it can be run after every step, or for many possible rolls,
+ * 	without creating any objects. The results are only valid
+ * 	until the next search.
+ * @author Patrick
+ *
+ */
+public class ReachableSquares {
+
+	// the directions searched from each square
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final Board board;
+	// squares in the order they were reached, the first count are valid
+	private final int[] queue;
+	// steps needed to reach each square, valid where seen equals stamp
+	private final int[] distance;
+	private final int[] seen;
+	// square each square was reached from, valid where seen equals stamp
+	private final int[] parent;
+	// changed for each search so the arrays never need clearing
+	private int stamp;
+	// number of squares reached by the last search
+	private int count;
+	// a bit for each room reached by the last search
+	private int rooms;
+
+	/**
+	 * Creates a search over a board.
+	 * @param board
+	 */
+	public ReachableSquares(Board board) {
+		this.board = board;
+		this.queue = new int[board.size()];
+		this.distance = new int[board.size()];
+		this.seen = new int[board.size()];
+		this.parent = new int[board.size()];
+	}
+
+	/**
+	 * Finds the squares a player can reach with their remaining steps.
+	 * @param game
+	 * @param player
+	 */
+	public void compute(CluedoGame game, CharacterToken player) {
+		compute(game, game.squareOf(player), player.getStepsRemaining());
+	}
+
+	/**
+	 * Finds the squares that can be reached from a square in at most
+	 * 	a number of steps without passing through any other token.
+	 * @param game
+	 * @param start
+	 * @param steps
+	 */
+	public void compute(CluedoGame game, int start, int steps) {
+		nextStamp();
+		rooms = 0;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		seen[start] = stamp;
+		distance[start] = 0;
+		parent[start] = -1;
+		while(head < tail){
+			int square = queue[head++];
+			Room room = board.room(square);
+			if(room != null){
+				rooms |= 1 << room.ordinal();
+			}
+			int d = distance[square];
+			if(d >= steps) continue;
+			int exits = board.exits(square);
+			for(int i = 0; i < DIRECTIONS.length; i++){
+				if((exits & (1 << i)) == 0) continue;
+				int to = board.neighbour(square, DIRECTIONS[i]);
+				if(seen[to] == stamp || game.isOccupied(to)) continue;
+				seen[to] = stamp;
+				distance[to] = d + 1;
+				parent[to] = square;
+				queue[tail++] = to;
+			}
+		}
+		count = tail;
+	}
+
+	/**
+	 * Starts a new search, clearing the arrays only when the stamp wraps around.
+	 */
+	private void nextStamp() {
+		if(++stamp == Integer.MAX_VALUE){
+			Arrays.fill(seen, 0);
+			stamp = 1;
+		}
+	}
+
+	Board getBoard(){ return board; }
+
+	/*
+	 * Results of the last search
+	 */
+	/**
+	 * Returns the number of squares reached, including the start.
+	 * @return
+	 */
+	public int count(){ return count; }
+	/**
+	 * Returns a square reached, nearest first, from 0 to count - 1.
+	 * @param i
+	 * @return
+	 */
+	public int square(int i){ return queue[i]; }
+	/**
+	 * Returns true if a square was reached.
+	 * @param square
+	 * @return
+	 */
+	public boolean contains(int square){ return stamp != 0 && seen[square] == stamp; }
+	/**
+	 * Returns the steps needed to reach a square or -1 if it was not reached.
+	 * @param square
+	 * @return
+	 */
+	public int distance(int square){ return contains(square) ? distance[square] : -1; }
+	/**
+	 * Returns true if any square of a room was reached.
+	 * @param room
+	 * @return
+	 */
+	public boolean reachesRoom(Room room){ return (rooms & (1 << room.ordinal())) != 0; }
+	/**
+	 * Returns a bit for each room reached, bit n is set for the Room with ordinal n.
+	 * @return
+	 */
+	public int rooms(){ return rooms; }
+
+	/**
+	 * Returns the nearest square of a room that was reached.
+	 * @param room
+	 * @return square or -1 if no square of the room was reached
+	 */
+	public int nearestSquare(Room room) {
+		if(!reachesRoom(room)) return -1;
+		// squares are queued nearest first
+		for(int i = 0; i < count; i++){
+			if(board.room(queue[i]) == room) return queue[i];
+		}
+		return -1;
+	}
+
+	/**
+	 * Fills an array with the shortest path to a square which was reached,
+	 * 	from the first step to the square itself.
+	 * @param target
+	 * @param path array at least as long as the distance to the square
+	 * @return number of steps in the path or -1 if the square was not reached
+	 */
+	public int path(int target, int[] path) {
+		if(!contains(target)) return -1;
+		int steps = distance[target];
+		int square = target;
+		for(int i = steps - 1; i >= 0; i--){
+			path[i] = square;
+			square = parent[square];
+		}
+		return steps;
+	}
+}
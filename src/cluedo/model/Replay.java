@@ -0,0 +1,92 @@
+package cluedo.model;
+
+/**
+ * Plays a logged game again from its seed, one event at a time or
+ * 	straight to any point. The game being replayed is a new game with
+ * 	new players, so the original is not changed.
+ * @author Patrick
+ *
+ */
+public class Replay {
+
+	// the log being replayed and the game rebuilt from it
+	private final GameLog log;
+	private final CluedoGame game;
+	// the number of events to replay and the next one to replay
+	private final int end;
+	private int next;
+
+	/**
+	 * Creates a replay of the events logged so far, before any are replayed.
+	 * @param board the board the game was played on
+	 * @param log
+	 */
+	public Replay(Board board, GameLog log) {
+		this.log = log;
+		this.game = new CluedoGame(board, log.createPlayers(), log.seed());
+		this.end = log.size();
+	}
+
+	/**
+	 * Returns a game rebuilt from every logged event.
+	 * @param board
+	 * @param log
+	 * @return
+	 */
+	public static CluedoGame rebuild(Board board, GameLog log) {
+		Replay replay = new Replay(board, log);
+		replay.toEnd();
+		return replay.getGame();
+	}
+
+	/**
+	 * Replays the next event.
+	 * @return false if every event has been replayed
+	 */
+	public boolean step() {
+		if(next == end) return false;
+		game.replay(log.get(next++));
+		return true;
+	}
+
+	/**
+	 * Replays events until a number of them have been replayed.
+	 * @param events
+	 */
+	public void fastForward(int events) {
+		int stop = Math.min(events, end);
+		while(next < stop){
+			game.replay(log.get(next++));
+		}
+	}
+
+	/**
+	 * Replays every remaining event.
+	 */
+	public void toEnd() {
+		fastForward(end);
+	}
+
+	/**
+	 * Describes the last event replayed.
+	 * @return
+	 */
+	public String describe() {
+		return next == 0 ? "The game was set up." : log.describe(next - 1);
+	}
+
+	/*
+	 * Getter methods
+	 */
+	public CluedoGame getGame(){ return game; }
+	/**
+	 * Returns the number of events replayed.
+	 * @return
+	 */
+	public int position(){ return next; }
+	/**
+	 * Returns the number of events in the replay.
+	 * @return
+	 */
+	public int length(){ return end; }
+}
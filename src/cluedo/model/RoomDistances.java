@@ -0,0 +1,186 @@
+package cluedo.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import cluedo.model.CluedoGame.Room;
+
+/**
+ * A table of the fewest steps needed to get from each square of
+ * 	the board into each room, walking through the doorways or taking
+ * 	the secret passages between corner rooms. Other tokens are ignored.
+ *
+ * 	The table is worked out once for a board and can be saved next to
+ * 	the board file so it does not need working out again.
+ * @author Patrick
+ *
+ */
+public class RoomDistances {
+
+	// stored for squares which cannot reach a room, such as walls
+	public static final int UNREACHABLE = -1;
+	// the largest distance stored, longer distances on very large boards are stored as this
+	public static final int FAR = Short.MAX_VALUE;
+
+	// identifies a saved table file
+	private static final int MAGIC = 0x434C4444; // "CLDD"
+	private static final int VERSION = 1;
+	private static final int ROOMS = Room.values().length;
+
+	// the distance from each square to each room, ROOMS entries per square
+	private final short[] distances;
+
+	RoomDistances(short[] distances) {
+		this.distances = distances;
+	}
+
+	/**
+	 * Returns the steps needed to get from a square into a room.
+	 * @param square
+	 * @param room
+	 * @return steps, FAR if at least that many, or UNREACHABLE
+	 */
+	public int distance(int square, Room room) {
+		return distances[square*ROOMS + room.ordinal()];
+	}
+
+	/**
+	 * Returns the whole table, ROOMS entries per square.
+	 * 	The array is shared and must not be changed.
+	 * @return
+	 */
+	short[] table() {
+		return distances;
+	}
+
+	/**
+	 * Returns the room nearest a square.
+	 * @param square
+	 * @return room or null if no room can be reached
+	 */
+	public Room nearestRoom(int square) {
+		Room nearest = null;
+		int best = Integer.MAX_VALUE;
+		for(Room r: Room.values()){
+			int d = distance(square, r);
+			if(d != UNREACHABLE && d < best){
+				best = d;
+				nearest = r;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Works out the table for a board with a breadth first search
+	 * 	out from each room.
+	 * @param board
+	 * @return table
+	 */
+	public static RoomDistances compute(Board board) {
+		int size = board.size();
+		short[] distances = new short[size*ROOMS];
+		Arrays.fill(distances, (short) UNREACHABLE);
+		Direction[] dirs = Direction.values();
+		int[] queue = new int[size];
+		for(Room room: Room.values()){
+			int r = room.ordinal();
+			// stores which rooms' secret passages have been followed
+			boolean[] passageUsed = new boolean[ROOMS];
+			int head = 0;
+			int tail = 0;
+			// every square of the room is already in it
+			for(int i: board.squares(room)){
+				distances[i*ROOMS + r] = 0;
+				queue[tail++] = i;
+			}
+			while(head < tail){
+				int square = queue[head++];
+				int d = distances[square*ROOMS + r];
+				// the secret passage joins every square of the opposite room to this one
+				Room here = board.room(square);
+				Room opposite = Board.oppositeRoom(here);
+				if(opposite != null && !passageUsed[here.ordinal()]){
+					passageUsed[here.ordinal()] = true;
+					for(int i: board.squares(opposite)){
+						if(distances[i*ROOMS + r] == UNREACHABLE){
+							distances[i*ROOMS + r] = step(d);
+							queue[tail++] = i;
+						}
+					}
+				}
+				int exits = board.exits(square);
+				for(Direction dir: dirs){
+					if((exits & (1 << dir.ordinal())) == 0) continue;
+					int to = board.neighbour(square, dir);
+					if(distances[to*ROOMS + r] != UNREACHABLE) continue;
+					distances[to*ROOMS + r] = step(d);
+					queue[tail++] = to;
+				}
+			}
+		}
+		return new RoomDistances(distances);
+	}
+
+	/**
+	 * Returns the distance one step further than d, kept within a short.
+	 * @param d
+	 * @return
+	 */
+	private static short step(int d) {
+		return (short) Math.min(d + 1, FAR);
+	}
+
+	/**
+	 * Reads a saved table, checking it was made for this board.
+	 * @param file
+	 * @param board
+	 * @return table or null if the file was made for a different board
+	 * @throws IOException
+	 */
+	public static RoomDistances read(File file, Board board) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try{
+			if(in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+			if(in.readInt() != board.width() || in.readInt() != board.height()) return null;
+			if(in.readLong() != board.checksum() || in.readInt() != ROOMS) return null;
+			short[] distances = new short[board.size()*ROOMS];
+			for(int i = 0; i < distances.length; i++){
+				distances[i] = in.readShort();
+			}
+			return new RoomDistances(distances);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Saves the table so it can be read back for the same board.
+	 * @param file
+	 * @param board
+	 * @throws IOException
+	 */
+	public void write(File file, Board board) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(board.width());
+			out.writeInt(board.height());
+			out.writeLong(board.checksum());
+			out.writeInt(ROOMS);
+			for(short d: distances){
+				out.writeShort(d);
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
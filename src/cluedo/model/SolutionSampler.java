@@ -0,0 +1,299 @@
+package cluedo.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Estimates the chance that each card is in the envelope by dealing
+ * 	the unknown cards at random many times, keeping only the deals which
+ * 	agree with everything a player has seen.
+ *
+ * 	Sampling runs in the background on a fork/join pool, in batches
+ * 	split across the pool's threads, so the estimates improve while the
+ * 	game goes on. Starting the sampler with new knowledge cancels the
+ * 	sampling of the old knowledge. Listeners are told after each batch,
+ * 	on a pool thread.
+ * @author Patrick
+ *
+ */
+public class SolutionSampler {
+
+	// deals tried in each batch before the estimates are updated
+	private static final int BATCH_SIZE = 20000;
+	// deals tried by one task before it is split no further
+	private static final int SPLIT_SIZE = 1000;
+	// the layout of the counts returned by a batch: one per card,
+	// 	then the deals accepted and the deals tried
+	private static final int ACCEPTED = Cards.COUNT;
+	private static final int TRIED = Cards.COUNT + 1;
+
+	/**
+	 * Receives the estimates as they improve.
+	 */
+	public interface Listener {
+		/**
+		 * Called after each batch of deals, on a pool thread.
+		 * @param sampler
+		 */
+		public void updated(SolutionSampler sampler);
+	}
+
+	private final ForkJoinPool pool;
+	private final Listener listener;
+	// the sampling in progress or null if none has been started
+	private volatile Run run;
+
+	/**
+	 * Creates a sampler running on the common fork/join pool.
+	 * @param listener told when the estimates change or null
+	 */
+	public SolutionSampler(Listener listener) {
+		this(ForkJoinPool.commonPool(), listener);
+	}
+
+	/**
+	 * Creates a sampler running on a pool.
+	 * @param pool
+	 * @param listener told when the estimates change or null
+	 */
+	public SolutionSampler(ForkJoinPool pool, Listener listener) {
+		this.pool = pool;
+		this.listener = listener;
+	}
+
+	/**
+	 * Starts sampling from what a player knows, stopping any earlier sampling.
+	 * 	The knowledge is copied so it can keep changing.
+	 * @param knowledge
+	 * @param deals the number of deals to try or 0 to keep going until stopped
+	 */
+	public synchronized void start(Deduction knowledge, long deals) {
+		cancel();
+		run = new Run(knowledge.copy(), deals);
+		pool.execute(run);
+	}
+
+	/**
+	 * Stops sampling. The estimates made so far are kept.
+	 */
+	public synchronized void cancel() {
+		if(run != null) run.cancelled = true;
+	}
+
+	/**
+	 * Returns true if sampling is still going on.
+	 * @return
+	 */
+	public boolean isRunning() {
+		Run r = run;
+		return r != null && !r.cancelled && !r.isDone();
+	}
+
+	/**
+	 * Returns the chance a card is in the envelope, or 0 before any deal was accepted.
+	 * @param card
+	 * @return
+	 */
+	public double probability(Card card) {
+		Run r = run;
+		if(r == null) return 0;
+		synchronized(r){
+			return r.counts[ACCEPTED] == 0 ? 0 : (double) r.counts[Cards.id(card)] / r.counts[ACCEPTED];
+		}
+	}
+
+	/**
+	 * Returns the number of deals which agreed with the knowledge.
+	 * @return
+	 */
+	public long accepted() {
+		Run r = run;
+		if(r == null) return 0;
+		synchronized(r){
+			return r.counts[ACCEPTED];
+		}
+	}
+
+	/**
+	 * Returns the number of deals tried.
+	 * @return
+	 */
+	public long tried() {
+		Run r = run;
+		if(r == null) return 0;
+		synchronized(r){
+			return r.counts[TRIED];
+		}
+	}
+
+	/**
+	 * The sampling of one piece of knowledge, run batch by batch.
+	 */
+	@SuppressWarnings("serial")
+	private class Run extends RecursiveAction {
+		private final Deduction knowledge;
+		private final long deals;
+		// the totals of every batch so far, guarded by this run
+		private final long[] counts = new long[TRIED + 1];
+		private volatile boolean cancelled;
+
+		private Run(Deduction knowledge, long deals) {
+			this.knowledge = knowledge;
+			this.deals = deals;
+		}
+
+		@Override
+		protected void compute() {
+			long done = 0;
+			while(!cancelled && (deals == 0 || done < deals)){
+				int size = deals == 0 ? BATCH_SIZE : (int) Math.min(BATCH_SIZE, deals - done);
+				long[] batch = new Batch(this, size).invoke();
+				done += size;
+				if(cancelled) return;
+				synchronized(this){
+					for(int i = 0; i < counts.length; i++){
+						counts[i] += batch[i];
+					}
+				}
+				if(listener != null) listener.updated(SolutionSampler.this);
+			}
+		}
+	}
+
+	/**
+	 * Tries a number of deals, splitting them between tasks.
+	 */
+	@SuppressWarnings("serial")
+	private static class Batch extends RecursiveTask<long[]> {
+		private final Run run;
+		private final int deals;
+
+		private Batch(Run run, int deals) {
+			this.run = run;
+			this.deals = deals;
+		}
+
+		@Override
+		protected long[] compute() {
+			if(deals > SPLIT_SIZE){
+				Batch first = new Batch(run, deals / 2);
+				first.fork();
+				long[] counts = new Batch(run, deals - deals / 2).compute();
+				long[] other = first.join();
+				for(int i = 0; i < counts.length; i++){
+					counts[i] += other[i];
+				}
+				return counts;
+			}
+			long[] counts = new long[TRIED + 1];
+			Dealer dealer = new Dealer(run.knowledge);
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for(int i = 0; i < deals && !run.cancelled; i++){
+				counts[TRIED]++;
+				int envelope = dealer.deal(random);
+				if(envelope == 0) continue;
+				counts[ACCEPTED]++;
+				for(int bits = envelope; bits != 0; bits &= bits - 1){
+					counts[Integer.numberOfTrailingZeros(bits)]++;
+				}
+			}
+			return counts;
+		}
+	}
+
+	/**
+	 * Deals cards at random within what is known, reusing its arrays for every deal.
+	 * 	The envelope gets one card of each kind it may hold and the other cards
+	 * 	are shuffled into the hands at their sizes, so every deal agreeing with
+	 * 	what is known is equally likely to be accepted.
+	 */
+	private static class Dealer {
+		private final Deduction knowledge;
+		private final int owners;
+		private final int envelope;
+		// the cards dealt to each owner in the current deal
+		private final int[] hands;
+		// the cards not yet dealt, in random order
+		private final int[] cards = new int[Cards.COUNT];
+
+		private Dealer(Deduction knowledge) {
+			this.knowledge = knowledge;
+			this.owners = knowledge.owners();
+			this.envelope = knowledge.envelope();
+			this.hands = new int[owners];
+		}
+
+		/**
+		 * Deals every card and checks the deal agrees with what is known.
+		 * @param random
+		 * @return the cards in the envelope or 0 if the deal was rejected
+		 */
+		private int deal(ThreadLocalRandom random) {
+			int known = 0;
+			for(int o = 0; o < owners; o++){
+				hands[o] = knowledge.held(o);
+				known |= hands[o];
+			}
+			// one card of each kind goes in the envelope
+			int solution = pick(Cards.CHARACTER_MASK, known, random)
+					| pick(Cards.WEAPON_MASK, known, random)
+					| pick(Cards.ROOM_MASK, known, random);
+			if(Integer.bitCount(solution) != 3) return 0;
+			hands[envelope] = solution;
+			known |= solution;
+			// the other cards are shuffled and dealt to fill every hand, so
+			// 	each deal is as likely as any other before the checks below
+			int count = 0;
+			for(int bits = Cards.ALL & ~known; bits != 0; bits &= bits - 1){
+				int j = random.nextInt(count + 1);
+				cards[count] = cards[j];
+				cards[j] = Integer.numberOfTrailingZeros(bits);
+				count++;
+			}
+			int next = 0;
+			for(int o = 0; o < owners; o++){
+				if(o == envelope) continue;
+				for(int room = knowledge.size(o) - Integer.bitCount(hands[o]); room > 0; room--){
+					if(next == count) return 0;
+					hands[o] |= 1 << cards[next++];
+				}
+				if((hands[o] & knowledge.notHeld(o)) != 0) return 0;
+			}
+			// every refutation which was not seen must be explained by the deal
+			for(int i = 0; i < knowledge.oneOfCount(); i++){
+				if((hands[knowledge.oneOfOwner(i)] & knowledge.oneOfCards(i)) == 0) return 0;
+			}
+			return solution;
+		}
+
+		/**
+		 * Picks the envelope card of one kind.
+		 * @param kind
+		 * @param known cards already given to an owner
+		 * @param random
+		 * @return the bit of the card or 0 if none can be picked
+		 */
+		private int pick(int kind, int known, ThreadLocalRandom random) {
+			int held = knowledge.held(envelope) & kind;
+			if(held != 0) return held;
+			int possible = kind & ~knowledge.notHeld(envelope) & ~known;
+			if(possible == 0) return 0;
+			return nthBit(possible, random.nextInt(Integer.bitCount(possible)));
+		}
+
+		/**
+		 * Returns the nth set bit of a mask.
+		 * @param mask
+		 * @param n
+		 * @return
+		 */
+		private static int nthBit(int mask, int n) {
+			for(int i = 0; i < n; i++){
+				mask &= mask - 1;
+			}
+			return Integer.lowestOneBit(mask);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package cluedo.model;
+
+/**
+ * Stores the outcome of a suggestion made by a player.
+ * @author Maria
+ *
+ */
+public class SuggestionResult {
+
+	// the player who made the suggestion
+	private final CharacterToken suggester;
+	// the suggested crime
+	private final CluedoGame.Character suspect;
+	private final CluedoGame.Weapon weapon;
+	private final CluedoGame.Room room;
+	// the player who refuted the suggestion and the card they showed
+	// or null if no one could refute it
+	private final CharacterToken refuter;
+	private final Card card;
+
+	public SuggestionResult(CharacterToken suggester, CluedoGame.Character suspect,
+			CluedoGame.Weapon weapon, CluedoGame.Room room, CharacterToken refuter, Card card) {
+		this.suggester = suggester;
+		this.suspect = suspect;
+		this.weapon = weapon;
+		this.room = room;
+		this.refuter = refuter;
+		this.card = card;
+	}
+
+	/*
+	 * Getter methods
+	 */
+	public CharacterToken getSuggester(){ return suggester; }
+	public CluedoGame.Character getSuspect(){ return suspect; }
+	public CluedoGame.Weapon getWeapon(){ return weapon; }
+	public CluedoGame.Room getRoom(){ return room; }
+	/**
+	 * Returns the player who refuted the suggestion or null if none.
+	 * @return
+	 */
+	public CharacterToken getRefuter(){ return refuter; }
+	/**
+	 * Returns the card shown to refute the suggestion or null if none.
+	 * @return
+	 */
+	public Card getCard(){ return card; }
+	/**
+	 * Returns true if the suggestion was refuted.
+	 * @return
+	 */
+	public boolean refuted(){ return refuter != null; }
+}
@@ -1,7 +1,5 @@
 package cluedo.model;
 
-import cluedo.view.OccupyableTile;
-
 public abstract class Token {
 
 	// Stores the name of the token
@@ -9,23 +7,17 @@ public abstract class Token {
 	// Stores the position of the token
 	// or null if not on board.
 	protected Position pos;
-	protected OccupyableTile tile;
+	// Stores the room the token is in
+	// or null if not in a room.
+	protected CluedoGame.Room room;
 
 	public Token(String name){
 		this.name = name;
 	}
-	
+
 	/*
 	 * Getter/setter methods
 	 */
-	public OccupyableTile getTile() {
-		return tile;
-	}
-
-	public void setTile(OccupyableTile tile) {
-		this.tile = tile;
-		this.pos = tile.pos();
-	}
 	/**
 	 * Returns the name of this token.
 	 * @return
@@ -51,4 +43,14 @@ public abstract class Token {
 	 * @param pos
 	 */
 	public void setPos(Position pos){ this.pos = pos; }
+	/**
+	 * Returns the room this token is in or null if none.
+	 * @return
+	 */
+	public CluedoGame.Room getRoom(){ return room; }
+	/**
+	 * Sets the room this token is in.
+	 * @param room
+	 */
+	public void setRoom(CluedoGame.Room room){ this.room = room; }
 }
@@ -1,26 +1,16 @@
 package cluedo.model;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.imageio.ImageIO;
-
 import cluedo.model.CluedoGame.Weapon;
 
 /**
- * A game token displayed on the board to represent a weapon. 
+ * A game token displayed on the board to represent a weapon.
  * @author Maria
  *
  */
 public class WeaponToken extends Token {
-	private static final String IMAGE_PATH = "images/";
 	private String name;
-	private char symbol;
-	private BufferedImage image;
-	
+	private Weapon weapon;
+
 	/**
 	 * Creates a weapon token.
 	 * @param name
@@ -28,7 +18,7 @@ public class WeaponToken extends Token {
 	public WeaponToken(String name) {
 		super(name);
 		this.name = name;
-		getImage();
+		this.weapon = getWeapon(name);
 	}
 
 	/**
@@ -60,38 +50,13 @@ public class WeaponToken extends Token {
 		}
 		return res;
 	}
-	
-	/**
-	 * Returns an basic image associated with this weapon.
-	 * @return
-	 */
-	private void getImage() {
-		try{
-			switch(name){
-				case "CANDLESTICK":
-					image = ImageIO.read(new File(IMAGE_PATH + "candlestick.png"));
-				case "KNIFE":
-					image = ImageIO.read(new File(IMAGE_PATH + "knife.png"));
-				case "LEAD_PIPE":
-					image = ImageIO.read(new File(IMAGE_PATH + "pipe.png"));
-				case "REVOLVER":
-					image = ImageIO.read(new File(IMAGE_PATH + "revolver.png"));
-				case "ROPE":
-					image = ImageIO.read(new File(IMAGE_PATH + "rope.png"));
-				case "WRENCH":
-					image = ImageIO.read(new File(IMAGE_PATH + "wrench.png"));
-			}
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-	}
-	
+
 	/**
-	 * Returns the image associated with this weapon.
+	 * Returns the weapon this token represents.
 	 * @return
 	 */
-	public BufferedImage image(){
-		return image;
+	public Weapon getWeapon(){
+		return weapon;
 	}
 
 	@Override
@@ -0,0 +1,67 @@
+package cluedo.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The spectators of a game hosted by a GameServer. Each message is made
+ * 	once and the same read only frame is queued for every spectator, so
+ * 	a game can be watched by thousands. The game's thread only queues the
+ * 	frames and the server's thread sends them, and a spectator who falls
+ * 	behind loses their oldest events rather than holding up the game.
+ * 	A spectator who loses events asks for the game again, see GameClient,
+ * 	and the whole game then replaces what they were still waiting for.
+ * @author Patrick
+ *
+ */
+class Audience {
+
+	// the frames waiting for each spectator before the oldest events are dropped
+	static final int QUEUE = 64;
+
+	private final List<Connection> spectators = new ArrayList<Connection>();
+
+	void add(Connection spectator) {
+		spectators.add(spectator);
+	}
+
+	void remove(Connection spectator) {
+		spectators.remove(spectator);
+	}
+
+	/**
+	 * Queues a frame for one spectator, waking the server to send it.
+	 * @param spectator
+	 * @param frame
+	 */
+	void send(Connection spectator, ByteBuffer frame) {
+		if(spectator.offer(frame, QUEUE)) spectator.key.selector().wakeup();
+	}
+
+	/**
+	 * Queues a frame for every spectator, waking the server once to send them.
+	 * @param frame
+	 */
+	void publish(ByteBuffer frame) {
+		Connection woken = null;
+		for(Connection c: spectators){
+			if(c.offer(frame, QUEUE)) woken = c;
+		}
+		if(woken != null) woken.key.selector().wakeup();
+	}
+
+	/**
+	 * Returns roughly how many bytes the spectators' connections hold, see CluedoGame.footprint.
+	 * @return
+	 */
+	long footprint() {
+		// each connection with its buffer and a full queue of shared frames
+		return 40 + spectators.size() * (4 + 640 + 256 + 48L * QUEUE);
+	}
+
+	/*
+	 * Getter methods
+	 */
+	int size(){ return spectators.size(); }
+}
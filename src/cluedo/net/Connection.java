@@ -0,0 +1,196 @@
+package cluedo.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A client connected to a GameServer. Frames are read as they arrive
+ * 	and frames being sent wait in a queue until the socket can take them,
+ * 	so a slow client never holds up the server. Frames are read on the
+ * 	server's thread but may be sent from the thread of any game.
+ * @author Patrick
+ *
+ */
+class Connection {
+
+	final SocketChannel channel;
+	final SelectionKey key;
+	// the bytes read which do not make a whole frame yet, messages are small
+	private ByteBuffer in = ByteBuffer.allocate(256);
+	// the frames waiting to be sent
+	private final ArrayDeque<ByteBuffer> out = new ArrayDeque<ByteBuffer>();
+
+	// the game the client plays in or watches and their seat, or null and -1 if none
+	ServerGame game;
+	int seat = -1;
+
+	Connection(SocketChannel channel, SelectionKey key) {
+		this.channel = channel;
+		this.key = key;
+	}
+
+	/**
+	 * Reads what has arrived and adds the whole frames to a list.
+	 * 	Each frame holds its type then its message.
+	 * @param frames
+	 * @return false if the client has gone or sent something which is not a frame
+	 * @throws IOException
+	 */
+	boolean read(List<ByteBuffer> frames) throws IOException {
+		if(channel.read(in) < 0) return false;
+		in.flip();
+		while(in.remaining() >= 4){
+			int length = in.getInt(in.position());
+			if(length < 1 || length > Protocol.MAX_FRAME) return false;
+			if(in.remaining() < 4 + length) break;
+			byte[] frame = new byte[length];
+			in.position(in.position() + 4);
+			in.get(frame);
+			frames.add(ByteBuffer.wrap(frame));
+		}
+		in.compact();
+		// room is made for a frame bigger than the buffer
+		if(!in.hasRemaining()){
+			ByteBuffer bigger = ByteBuffer.allocate(in.capacity() * 2);
+			in.flip();
+			bigger.put(in);
+			in = bigger;
+		}
+		return true;
+	}
+
+	/**
+	 * Sends a frame, or queues it if the socket cannot take it yet.
+	 * 	The frame itself is not changed, so one frame can be sent to many clients.
+	 * @param frame
+	 */
+	synchronized void send(ByteBuffer frame) {
+		if(!key.isValid()) return;
+		out.add(frame.duplicate());
+		if(out.size() == 1){
+			try{
+				flush();
+			} catch(IOException e){
+				// the server finds the socket broken when it next writes
+				writeLater();
+			}
+		}
+	}
+
+	/**
+	 * Queues a frame for the server to send, dropping the oldest events
+	 * 	waiting if there are too many. A state holds the whole game, so it
+	 * 	replaces every frame waiting which has not begun to be sent. Nothing
+	 * 	is written here, so the frames of many clients can be queued quickly.
+	 * @param frame
+	 * @param limit the frames which can wait
+	 * @return true if the server must be woken to send the frame
+	 */
+	synchronized boolean offer(ByteBuffer frame, int limit) {
+		if(!key.isValid()) return false;
+		if(frame.get(4) == Protocol.STATE){
+			Iterator<ByteBuffer> queued = out.iterator();
+			while(queued.hasNext()){
+				if(queued.next().position() == 0) queued.remove();
+			}
+		} else if(out.size() >= limit){
+			// a frame partly sent or holding the whole game must still be sent whole
+			Iterator<ByteBuffer> queued = out.iterator();
+			while(queued.hasNext()){
+				ByteBuffer f = queued.next();
+				if(f.position() == 0 && f.get(4) == Protocol.EVENTS){
+					queued.remove();
+					break;
+				}
+			}
+		}
+		out.add(frame.duplicate());
+		return interest(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+	}
+
+	/**
+	 * Returns true if a frame of a type is waiting to be sent, or is part sent.
+	 * @param type
+	 * @return
+	 */
+	synchronized boolean waiting(byte type) {
+		for(ByteBuffer f: out){
+			if(f.get(4) == type) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Sends as many queued frames as the socket will take, and asks to
+	 * 	be told when it can take more if any are left.
+	 * @throws IOException
+	 */
+	synchronized void flush() throws IOException {
+		if(out.size() > 1){
+			// frames which have piled up go in one write
+			channel.write(out.toArray(new ByteBuffer[out.size()]));
+			while(!out.isEmpty() && !out.peek().hasRemaining()){
+				out.poll();
+			}
+		}
+		while(!out.isEmpty()){
+			ByteBuffer next = out.peek();
+			channel.write(next);
+			if(next.hasRemaining()) break;
+			out.poll();
+		}
+		if(out.isEmpty()) interest(SelectionKey.OP_READ);
+		else writeLater();
+	}
+
+	/**
+	 * Asks the server to send the rest once the socket can take more.
+	 */
+	private void writeLater() {
+		if(interest(SelectionKey.OP_READ | SelectionKey.OP_WRITE)) key.selector().wakeup();
+	}
+
+	/**
+	 * Changes what the server waits for on the socket. The server must be
+	 * 	woken once it is to wait for writing, as it may be waiting on the old interest.
+	 * @param ops
+	 * @return true if the interest changed
+	 */
+	private boolean interest(int ops) {
+		try{
+			if(key.interestOps() == ops) return false;
+			key.interestOps(ops);
+			return true;
+		} catch(CancelledKeyException e){
+			// the client has gone
+			return false;
+		}
+	}
+
+	/**
+	 * Returns roughly how many bytes the connection holds, see CluedoGame.footprint.
+	 * @return
+	 */
+	long footprint() {
+		// the channel, its socket and key, and the queue
+		return 640 + in.capacity();
+	}
+
+	/**
+	 * Disconnects the client.
+	 */
+	void close() {
+		key.cancel();
+		try{
+			channel.close();
+		} catch(IOException e){
+			// the client is gone either way
+		}
+	}
+}
@@ -0,0 +1,300 @@
+package cluedo.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cluedo.model.Board;
+import cluedo.model.Card;
+import cluedo.model.Cards;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.GameSnapshot;
+
+/**
+ * Plays in a game hosted by a GameServer. The client keeps a copy of
+ * 	the game as its player sees it: it starts from the snapshot the
+ * 	server sends and replays each event the server sends after it, so
+ * 	the copy is never changed any other way. Actions are sent to the
+ * 	server, and only change the copy once the server sends their events.
+ * 	Events come with their number in the log, and if any go missing the
+ * 	client asks for the whole game again rather than play on a wrong copy.
+ *
+ * 	Messages are read on a thread of the client's own and handed to an
+ * 	executor, such as the event dispatch thread, which changes the copy
+ * 	and tells the listener.
+ * @author Patrick
+ *
+ */
+public class GameClient {
+
+	// the port used when none is given, see GameServer
+	public static final int DEFAULT_PORT = GameServer.DEFAULT_PORT;
+
+	private final Board board;
+	private final SocketChannel channel;
+	private final Executor executor;
+	private final Listener listener;
+	private Thread reader;
+
+	// the copy of the game and the player of this client, null until it begins
+	private CluedoGame game;
+	private CharacterToken me;
+	// true while waiting for the whole game after events went missing
+	private boolean resyncing;
+
+	/**
+	 * Connects to a server.
+	 * @param board the board the server plays on
+	 * @param host
+	 * @param port
+	 * @param executor runs the changes to the game and the calls to the listener
+	 * @param listener
+	 * @throws IOException
+	 */
+	public GameClient(Board board, String host, int port, Executor executor, Listener listener) throws IOException {
+		this.board = board;
+		this.executor = executor;
+		this.listener = listener;
+		this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+		channel.socket().setTcpNoDelay(true);
+	}
+
+	/**
+	 * Asks to join the game in a room and starts listening to the server.
+	 * @param room
+	 * @param name
+	 * @param players the number of players the game is for
+	 */
+	public void join(String room, String name, int players) {
+		listen();
+		send(Protocol.join(room, name, players));
+	}
+
+	/**
+	 * Asks to watch the game in a room without playing and starts
+	 * 	listening to the server. The copy of the game only shows what
+	 * 	someone not playing could see.
+	 * @param room
+	 */
+	public void watch(String room) {
+		listen();
+		send(Protocol.message(Protocol.WATCH, room));
+	}
+
+	private void listen() {
+		reader = new Thread(new Runnable(){
+			@Override
+			public void run() {
+				read();
+			}
+		}, "game-client");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/*
+	 * Methods sending the actions of the player. The game is only changed
+	 * 	once the server sends back what happened.
+	 */
+	public void roll() { send(Protocol.message(Protocol.ROLL)); }
+	public void stairs() { send(Protocol.message(Protocol.STAIRS)); }
+	public void endTurn() { send(Protocol.message(Protocol.END_TURN)); }
+
+	/**
+	 * Moves to a square, see CluedoGame.moveTo.
+	 * @param square
+	 */
+	public void move(int square) {
+		send(Protocol.message(Protocol.MOVE, square));
+	}
+
+	/**
+	 * Suggests a crime in the room the player is in.
+	 * @param suspect
+	 * @param weapon
+	 */
+	public void suggest(Card suspect, Card weapon) {
+		send(Protocol.message(Protocol.SUGGEST, (byte) Cards.id(suspect), (byte) Cards.id(weapon)));
+	}
+
+	/**
+	 * Shows a card when the server asks, see Listener.refuteRequested.
+	 * @param card
+	 */
+	public void refute(Card card) {
+		// a single byte would be taken as an int
+		send(Protocol.message(Protocol.REFUTE, new byte[]{ (byte) Cards.id(card) }));
+	}
+
+	/**
+	 * Accuses someone of the crime.
+	 * @param suspect
+	 * @param weapon
+	 * @param room
+	 */
+	public void accuse(Card suspect, Card weapon, Card room) {
+		send(Protocol.message(Protocol.ACCUSE, (byte) Cards.id(suspect), (byte) Cards.id(weapon), (byte) Cards.id(room)));
+	}
+
+	/**
+	 * Disconnects from the server, leaving the game.
+	 */
+	public void close() {
+		try{
+			channel.close();
+		} catch(IOException e){
+			// disconnected either way
+		}
+	}
+
+	/**
+	 * Sends a message to the server. If it cannot be sent the connection
+	 * 	is closed, and the listener is told it has gone.
+	 * @param frame
+	 */
+	private synchronized void send(ByteBuffer frame) {
+		ByteBuffer buf = frame.duplicate();
+		try{
+			while(buf.hasRemaining()){
+				channel.write(buf);
+			}
+		} catch(IOException e){
+			close();
+		}
+	}
+
+	/**
+	 * Reads messages from the server until it disconnects.
+	 */
+	private void read() {
+		ByteBuffer length = ByteBuffer.allocate(4);
+		try{
+			while(true){
+				length.clear();
+				readFully(length);
+				int size = length.getInt(0);
+				if(size < 1 || size > Protocol.MAX_FRAME) throw new IOException("Bad frame of " + size + " bytes");
+				final ByteBuffer frame = ByteBuffer.allocate(size);
+				readFully(frame);
+				frame.flip();
+				executor.execute(new Runnable(){
+					@Override
+					public void run() {
+						receive(frame.get(), frame);
+					}
+				});
+			}
+		} catch(IOException e){
+			// the server or this client closed the connection
+		} catch(RuntimeException e){
+			// a copy which has gone wrong cannot carry on
+			System.out.println("Game client failed: " + e);
+		}
+		close();
+		executor.execute(new Runnable(){
+			@Override
+			public void run() {
+				listener.disconnected();
+			}
+		});
+	}
+
+	private void readFully(ByteBuffer buf) throws IOException {
+		while(buf.hasRemaining()){
+			if(channel.read(buf) < 0) throw new EOFException();
+		}
+	}
+
+	/**
+	 * Acts on a message from the server.
+	 * @param type
+	 * @param message
+	 */
+	private void receive(byte type, ByteBuffer message) {
+		switch(type){
+			case Protocol.STATE:
+				int seat = message.get();
+				GameSnapshot snapshot = GameSnapshot.decode(board, message.slice());
+				if(snapshot == null){
+					listener.error("The server plays on a different board");
+					close();
+					return;
+				}
+				game = snapshot.getGame();
+				me = seat < 0 ? null : game.getActivePlayers().get(seat);
+				resyncing = false;
+				listener.joined(game, me);
+				break;
+			case Protocol.EVENTS:
+				if(game == null || resyncing) return;
+				int next = Protocol.varint(message);
+				if(next > game.getLog().size()){
+					resyncing = true;
+					send(Protocol.message(Protocol.RESYNC));
+					return;
+				}
+				for(; message.hasRemaining(); next++){
+					long event = Protocol.event(message);
+					// events the copy already has are skipped
+					if(next < game.getLog().size()) continue;
+					game.replay(event);
+					listener.eventApplied(game, event);
+				}
+				break;
+			case Protocol.ASK_REFUTE:
+				listener.refuteRequested(Cards.list(message.getInt()));
+				break;
+			case Protocol.ERROR:
+				listener.error(Protocol.text(message));
+				break;
+		}
+	}
+
+	/**
+	 * Told what the server sends, on the client's executor.
+	 */
+	public interface Listener {
+		/**
+		 * The game has begun, or the client's copy was replaced as events
+		 * 	went missing.
+		 * @param game the client's copy of the game
+		 * @param me the client's player, or null for a spectator
+		 */
+		public void joined(CluedoGame game, CharacterToken me);
+		/**
+		 * An event has happened and been made in the copy of the game.
+		 * @param game
+		 * @param event see GameEvent
+		 */
+		public void eventApplied(CluedoGame game, long event);
+		/**
+		 * The player must choose which card to show, see GameClient.refute.
+		 * @param cards the cards which refute the suggestion
+		 */
+		public void refuteRequested(List<Card> cards);
+		/**
+		 * The server would not carry out an action.
+		 * @param reason
+		 */
+		public void error(String reason);
+		/**
+		 * The connection to the server has closed.
+		 */
+		public void disconnected();
+	}
+
+	/*
+	 * Getter methods
+	 */
+	public CluedoGame getGame(){ return game; }
+	/**
+	 * Returns the client's player, or null for a spectator or before the game begins.
+	 * @return
+	 */
+	public CharacterToken getMe(){ return me; }
+}
@@ -0,0 +1,326 @@
+package cluedo.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cluedo.model.Board;
+
+/**
+ * Hosts games for players on other machines. One thread serves every
+ * 	client through a selector, so thousands of games can be played at
+ * 	once without a thread for each player. Once a game has its players
+ * 	it runs in a Session, and the messages of its players are handed
+ * 	to the session to carry out, see SessionHost.
+ *
+ * 	Clients join a game through the name of a room, and the game begins
+ * 	once the number of players asked for have joined, see Protocol.
+ * 	Others can watch the game in a room without playing, see Audience.
+ * @author Patrick
+ *
+ */
+public class GameServer implements Runnable {
+
+	// the port used when none is given
+	public static final int DEFAULT_PORT = 7319;
+
+	private final Board board;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	// the games waiting for players and the last game begun by room,
+	// 	and the host of the games being played
+	private final Map<String, ServerGame> waiting = new HashMap<String, ServerGame>();
+	private final Map<String, ServerGame> playing = new ConcurrentHashMap<String, ServerGame>();
+	private final SessionHost sessions = new SessionHost(Runtime.getRuntime().availableProcessors());
+	private Thread thread;
+	private volatile boolean running;
+
+	/**
+	 * Runs a server from the command line until the program is stopped.
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1){
+			System.out.println("command: java cluedo.net.GameServer boardFile.txt [port]");
+			System.exit(1);
+		}
+		int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+		GameServer server = new GameServer(Board.load(args[0]), port);
+		System.out.println("Serving Cluedo on port " + server.getPort());
+		server.run();
+	}
+
+	/**
+	 * Creates a server listening on a port.
+	 * @param board the board every game is played on
+	 * @param port or 0 for any free port
+	 * @throws IOException
+	 */
+	public GameServer(Board board, int port) throws IOException {
+		this.board = board;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		running = true;
+	}
+
+	/**
+	 * Starts serving on a thread of its own.
+	 */
+	public void start() {
+		thread = new Thread(this, "game-server");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops serving and disconnects every client.
+	 */
+	public void stop() {
+		running = false;
+		selector.wakeup();
+		if(thread != null){
+			try{
+				thread.join();
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+		}
+		sessions.shutdown();
+	}
+
+	@Override
+	public void run() {
+		List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+		try{
+			while(running){
+				selector.select();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while(keys.hasNext()){
+					SelectionKey key = keys.next();
+					keys.remove();
+					if(!key.isValid()) continue;
+					if(key.isAcceptable()){
+						accept();
+						continue;
+					}
+					Connection client = (Connection) key.attachment();
+					try{
+						if(key.isWritable()) client.flush();
+						if(key.isReadable()){
+							boolean open = client.read(frames);
+							for(ByteBuffer frame: frames){
+								handle(client, frame.get(), frame);
+							}
+							frames.clear();
+							if(!open) disconnect(client);
+						}
+					} catch(IOException e){
+						frames.clear();
+						disconnect(client);
+					}
+				}
+			}
+		} catch(IOException e){
+			System.out.println("Game server failed: " + e);
+		} finally {
+			for(SelectionKey key: selector.keys()){
+				if(key.attachment() instanceof Connection) ((Connection) key.attachment()).close();
+			}
+			try{
+				server.close();
+				selector.close();
+			} catch(IOException e){
+				// closing anyway
+			}
+		}
+	}
+
+	/**
+	 * Accepts a new client.
+	 * @throws IOException
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if(channel == null) return;
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+		key.attach(new Connection(channel, key));
+	}
+
+	/**
+	 * Carries out a message from a client.
+	 * @param client
+	 * @param type
+	 * @param message
+	 */
+	private void handle(final Connection client, final byte type, final ByteBuffer message) {
+		try{
+			if(type == Protocol.JOIN){
+				join(client, Protocol.text(message), Protocol.text(message), message.get());
+				return;
+			}
+			if(type == Protocol.WATCH){
+				watch(client, Protocol.text(message));
+				return;
+			}
+			final ServerGame game = client.game;
+			if(game == null || game.session == null){
+				client.send(Protocol.message(Protocol.ERROR, game == null ? "Join a game first" : "The game has not begun"));
+				return;
+			}
+			game.session.execute(new Runnable(){
+				@Override
+				public void run() {
+					try{
+						game.handle(client, type, message);
+					} catch(RuntimeException e){
+						client.send(Protocol.message(Protocol.ERROR, "Bad message: " + e));
+					}
+					if(game.isOver() || game.abandoned()) finished(game);
+				}
+			});
+		} catch(RuntimeException e){
+			// a message cut short must not stop the server
+			client.send(Protocol.message(Protocol.ERROR, "Bad message: " + e));
+		}
+	}
+
+	/**
+	 * Seats a client at the game waiting in a room, beginning the game
+	 * 	once it has all its players.
+	 * @param client
+	 * @param room
+	 * @param name
+	 * @param players
+	 */
+	private void join(Connection client, String room, String name, int players) {
+		if(client.game != null){
+			client.send(Protocol.message(Protocol.ERROR, "You are already in a game"));
+			return;
+		}
+		if(players < 2 || players > 6){
+			client.send(Protocol.message(Protocol.ERROR, "A game needs 2 to 6 players"));
+			return;
+		}
+		ServerGame game = waiting.get(room);
+		if(game == null){
+			game = new ServerGame(board, room, players);
+			waiting.put(room, game);
+		} else if(game.players() != players){
+			client.send(Protocol.message(Protocol.ERROR, "The game in " + room + " is for " + game.players() + " players"));
+			return;
+		}
+		game.join(client, name);
+		if(game.isFull()){
+			waiting.remove(room);
+			final ServerGame full = game;
+			playing.put(room, full);
+			full.session = sessions.open(full);
+			full.session.execute(new Runnable(){
+				@Override
+				public void run() {
+					full.start();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Adds a client as a spectator of the game in a room, the game being
+	 * 	played there or else the game waiting for players.
+	 * @param client
+	 * @param room
+	 */
+	private void watch(final Connection client, String room) {
+		if(client.game != null){
+			client.send(Protocol.message(Protocol.ERROR, "You are already in a game"));
+			return;
+		}
+		ServerGame found = playing.get(room);
+		if(found == null) found = waiting.get(room);
+		if(found == null){
+			client.send(Protocol.message(Protocol.ERROR, "There is no game in " + room));
+			return;
+		}
+		final ServerGame game = found;
+		if(game.session == null){
+			game.watch(client);
+			return;
+		}
+		// the game is begun and told of the spectator on its own thread
+		client.game = game;
+		game.session.execute(new Runnable(){
+			@Override
+			public void run() {
+				game.watch(client);
+			}
+		});
+	}
+
+	/**
+	 * Disconnects a client, taking them out of their game.
+	 * @param client
+	 */
+	private void disconnect(final Connection client) {
+		client.close();
+		final ServerGame game = client.game;
+		if(game == null) return;
+		client.game = null;
+		if(game.session == null){
+			game.leaveBeforeStart(client);
+			if(game.abandoned()) waiting.remove(game.room());
+			return;
+		}
+		game.session.execute(new Runnable(){
+			@Override
+			public void run() {
+				game.leave(client);
+				if(game.abandoned() || game.isOver()) finished(game);
+			}
+		});
+	}
+
+	/**
+	 * Stops hosting a game which is over or which every player has left,
+	 * 	on the game's own thread.
+	 * @param game
+	 */
+	private void finished(ServerGame game) {
+		playing.remove(game.room(), game);
+		game.session.close();
+	}
+
+	/*
+	 * Getter methods
+	 */
+	/**
+	 * Returns the port the server listens on.
+	 * @return
+	 */
+	public int getPort(){ return server.socket().getLocalPort(); }
+	/**
+	 * Returns the number of games being played. Only a rough count while the server runs.
+	 * @return
+	 */
+	public int playing(){ return sessions.size(); }
+	/**
+	 * Returns roughly how many bytes the games being played hold, see CluedoGame.footprint.
+	 * @return
+	 */
+	public long footprint(){ return sessions.footprint(); }
+}
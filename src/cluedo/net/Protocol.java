@@ -0,0 +1,211 @@
+package cluedo.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import cluedo.model.GameEvent;
+
+/**
+ * The messages sent between a GameServer and its clients. Each message
+ * 	is a frame: the number of bytes after it as an int, the type of
+ * 	message as a byte, then the message itself.
+ *
+ * 	Clients send the actions of their player and the server, which holds
+ * 	the real game, answers with the events of the game. Each player is
+ * 	only sent what they could see at a real table, see GameEvent.seenBy.
+ * 	The events are the changes to the game, so the state is only sent
+ * 	whole when a game begins or a client finds events have gone missing.
+ * @author Patrick
+ *
+ */
+public final class Protocol {
+
+	// the largest frame either side accepts
+	public static final int MAX_FRAME = 1 << 20;
+	// the bytes in front of every message: its length and type
+	public static final int HEADER = 5;
+
+	/*
+	 * Messages from clients
+	 */
+	// join a game: room name, player name, number of players
+	public static final byte JOIN = 1;
+	public static final byte ROLL = 2;
+	// move to a square: the square
+	public static final byte MOVE = 3;
+	public static final byte STAIRS = 4;
+	// suggest a crime in the player's room: suspect and weapon card numbers
+	public static final byte SUGGEST = 5;
+	// show a card to refute a suggestion: the card number
+	public static final byte REFUTE = 6;
+	// accuse: suspect, weapon and room card numbers
+	public static final byte ACCUSE = 7;
+	public static final byte END_TURN = 8;
+	// send the state of the game again, as events have gone missing
+	public static final byte RESYNC = 9;
+	// watch a game without playing: room name
+	public static final byte WATCH = 10;
+
+	/*
+	 * Messages from the server
+	 */
+	// the game has begun: the player's seat, or -1 for a spectator, then a snapshot, see GameSnapshot.encodeFor
+	public static final byte STATE = 20;
+	// things happened in the game: the number of the first in the log, then each event, see events
+	public static final byte EVENTS = 21;
+	// choose a card to show: the bits of the cards which can be shown
+	public static final byte ASK_REFUTE = 22;
+	// an action was not allowed: the reason
+	public static final byte ERROR = 23;
+
+	private Protocol() {}
+
+	/**
+	 * Returns a new frame ready for its message to be added.
+	 * @param type
+	 * @param length the number of bytes in the message
+	 * @return
+	 */
+	public static ByteBuffer frame(byte type, int length) {
+		ByteBuffer buf = ByteBuffer.allocate(HEADER + length);
+		buf.putInt(1 + length);
+		buf.put(type);
+		return buf;
+	}
+
+	/**
+	 * Returns a frame holding no more than its type.
+	 * @param type
+	 * @return
+	 */
+	public static ByteBuffer message(byte type) {
+		return ready(frame(type, 0));
+	}
+
+	/**
+	 * Returns a frame holding some bytes.
+	 * @param type
+	 * @param bytes
+	 * @return
+	 */
+	public static ByteBuffer message(byte type, byte... bytes) {
+		return ready(frame(type, bytes.length).put(bytes));
+	}
+
+	/**
+	 * Returns a frame holding an int.
+	 * @param type
+	 * @param value
+	 * @return
+	 */
+	public static ByteBuffer message(byte type, int value) {
+		return ready(frame(type, 4).putInt(value));
+	}
+
+	/**
+	 * Returns a frame holding some text.
+	 * @param type
+	 * @param text
+	 * @return
+	 */
+	public static ByteBuffer message(byte type, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		return ready(frame(type, 2 + bytes.length).putShort((short) bytes.length).put(bytes));
+	}
+
+	/**
+	 * Returns a join message.
+	 * @param room
+	 * @param name
+	 * @param players
+	 * @return
+	 */
+	public static ByteBuffer join(String room, String name, int players) {
+		byte[] r = room.getBytes(StandardCharsets.UTF_8);
+		byte[] n = name.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buf = frame(JOIN, 2 + r.length + 2 + n.length + 1);
+		buf.putShort((short) r.length).put(r);
+		buf.putShort((short) n.length).put(n);
+		return ready(buf.put((byte) players));
+	}
+
+	/**
+	 * Returns a frame holding some events of a game. Each event takes a
+	 * 	byte for its type and seat, then its square or cards and its second
+	 * 	number as varints, so most take 3 or 4 bytes rather than 8.
+	 * @param first the number of the first event in the log, which lets
+	 * 	a client find events missing before it
+	 * @param events
+	 * @param count the number of events to send
+	 * @return
+	 */
+	public static ByteBuffer events(int first, long[] events, int count) {
+		ByteBuffer buf = frame(EVENTS, 5 + count*10);
+		putVarint(buf, first);
+		for(int i = 0; i < count; i++){
+			buf.put((byte) events[i]);
+			putVarint(buf, GameEvent.square(events[i]));
+			putVarint(buf, GameEvent.steps(events[i]));
+		}
+		buf.putInt(0, buf.position() - 4);
+		return ready(buf);
+	}
+
+	/**
+	 * Reads an event written by events.
+	 * @param buf
+	 * @return
+	 */
+	public static long event(ByteBuffer buf) {
+		int low = buf.get() & 0xFF;
+		int square = varint(buf) & 0xFFFFFF;
+		int steps = varint(buf);
+		// put back together as GameEvent packs it
+		return low | (long) square << 8 | (long) steps << 32;
+	}
+
+	/**
+	 * Writes a number 7 bits to a byte, the top bit set on every byte
+	 * 	but the last, so small numbers take a single byte.
+	 * @param buf
+	 * @param value taken as unsigned
+	 */
+	public static void putVarint(ByteBuffer buf, int value) {
+		while((value & ~0x7F) != 0){
+			buf.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buf.put((byte) value);
+	}
+
+	/**
+	 * Reads a number written by putVarint.
+	 * @param buf
+	 * @return
+	 */
+	public static int varint(ByteBuffer buf) {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7){
+			byte b = buf.get();
+			value |= (b & 0x7F) << shift;
+			if(b >= 0) return value;
+		}
+		throw new IllegalArgumentException("Varint longer than an int");
+	}
+
+	/**
+	 * Reads text written by message or join.
+	 * @param buf
+	 * @return
+	 */
+	public static String text(ByteBuffer buf) {
+		byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+		buf.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static ByteBuffer ready(ByteBuffer buf) {
+		buf.flip();
+		return buf.asReadOnlyBuffer();
+	}
+}
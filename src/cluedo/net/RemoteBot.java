@@ -0,0 +1,202 @@
+package cluedo.net;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import cluedo.ai.AIPlayer;
+import cluedo.ai.Strategy;
+import cluedo.model.Board;
+import cluedo.model.Card;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.GameEvent;
+
+/**
+ * A computer player in a game hosted by a GameServer. The player's turn
+ * 	is played one action at a time: each action is sent to the server and
+ * 	the next is chosen once its events come back.
+ * @author Patrick
+ *
+ */
+public class RemoteBot implements GameClient.Listener {
+
+	// runs the messages of the client on its reader thread
+	private static final Executor DIRECT = new Executor(){
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	private final AIPlayer bot;
+	private final GameClient client;
+	private CluedoGame game;
+	private CharacterToken me;
+	// counted down once the game is over or the server has gone
+	private final CountDownLatch finished = new CountDownLatch(1);
+
+	/**
+	 * Connects a computer player to a server from the command line, to
+	 * 	fill the empty seats of a game. The server keeps the game's seed
+	 * 	secret, so each player's random numbers are split from a seed of
+	 * 	their own, given last or made up and printed.
+	 * @param args
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if(args.length < 5){
+			System.out.println("command: java cluedo.net.RemoteBot boardFile.txt host:port room players strategy... [seed]");
+			System.out.println("strategies: random, heuristic, deduction");
+			System.exit(1);
+		}
+		Board board = Board.load(args[0]);
+		String[] address = args[1].split(":");
+		int port = address.length > 1 ? Integer.parseInt(address[1]) : GameClient.DEFAULT_PORT;
+		int players = Integer.parseInt(args[3]);
+		int last = args.length;
+		long seed = args[last - 1].matches("-?\\d+") ? Long.parseLong(args[--last]) : new SplittableRandom().nextLong();
+		System.out.println("seed " + seed);
+		SplittableRandom random = new SplittableRandom(seed);
+		RemoteBot[] bots = new RemoteBot[last - 4];
+		for(int i = 0; i < bots.length; i++){
+			Strategy strategy = Strategy.forName(args[i + 4]);
+			bots[i] = new RemoteBot(board, address[0], port, strategy.create(new Random(random.split().nextLong())));
+			bots[i].join(args[2], strategy + " " + (i + 1), players);
+		}
+		for(RemoteBot b: bots){
+			b.awaitEnd(Long.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Connects a computer player to a server.
+	 * @param board
+	 * @param host
+	 * @param port
+	 * @param bot
+	 * @throws IOException
+	 */
+	public RemoteBot(Board board, String host, int port, AIPlayer bot) throws IOException {
+		this.bot = bot;
+		this.client = new GameClient(board, host, port, DIRECT, this);
+	}
+
+	/**
+	 * Joins the game in a room.
+	 * @param room
+	 * @param name
+	 * @param players
+	 */
+	public void join(String room, String name, int players) {
+		client.join(room, name, players);
+	}
+
+	/**
+	 * Waits for the game to end.
+	 * @param millis
+	 * @return the copy of the game, or null if it did not end in time
+	 * @throws InterruptedException
+	 */
+	public CluedoGame awaitEnd(long millis) throws InterruptedException {
+		return finished.await(millis, TimeUnit.MILLISECONDS) ? game : null;
+	}
+
+	@Override
+	public void joined(CluedoGame game, CharacterToken me) {
+		boolean resynced = this.game != null;
+		this.game = game;
+		this.me = me;
+		bot.start(game, me);
+		// a copy sent again after events went missing holds suggestions the player must learn
+		game.tellSuggestions(bot);
+		// the turn is given up, as what was missed of it is not known
+		if(resynced && !game.isOver() && game.getCurrentPlayer() == me) client.endTurn();
+	}
+
+	@Override
+	public void eventApplied(CluedoGame game, long event) {
+		if(game.isOver()){
+			client.close();
+			return;
+		}
+		if(game.getCurrentPlayer() != me) return;
+		switch(GameEvent.type(event)){
+			case GameEvent.BEGIN:
+			case GameEvent.END_TURN:
+				startTurn();
+				break;
+			case GameEvent.ROLL:
+				int square = bot.chooseMove(game);
+				int to = square < 0 ? -1 : game.destination(me, square);
+				// moving nowhere sends no event back
+				if(to >= 0 && to != game.squareOf(me)) client.move(square);
+				else afterMove();
+				break;
+			case GameEvent.MOVE:
+			case GameEvent.STAIRS:
+				afterMove();
+				break;
+			case GameEvent.REFUTATION:
+				endTurn();
+				break;
+		}
+	}
+
+	private void startTurn() {
+		if(bot.useStairs(game) && game.canUseStairs(me)) client.stairs();
+		else client.roll();
+	}
+
+	/**
+	 * Suggests if the player can, otherwise ends the turn.
+	 */
+	private void afterMove() {
+		if(me.inRoom() && !me.suggested){
+			Card[] suggestion = bot.chooseSuggestion(game);
+			if(suggestion != null){
+				client.suggest(suggestion[0], suggestion[1]);
+				return;
+			}
+		}
+		endTurn();
+	}
+
+	/**
+	 * Accuses if the player wants to, otherwise ends the turn. The server
+	 * 	ends the turn of a wrong accusation itself.
+	 */
+	private void endTurn() {
+		Card[] accusation = bot.chooseAccusation(game);
+		if(accusation != null) client.accuse(accusation[0], accusation[1], accusation[2]);
+		else client.endTurn();
+	}
+
+	@Override
+	public void refuteRequested(List<Card> cards) {
+		client.refute(bot.chooseRefutation(game.getCurrentPlayer(), cards));
+	}
+
+	@Override
+	public void error(String reason) {
+		System.out.println(me == null ? reason : me.getName() + ": " + reason);
+		// the turn is given up rather than left waiting
+		if(game != null && game.getCurrentPlayer() == me) client.endTurn();
+	}
+
+	@Override
+	public void disconnected() {
+		finished.countDown();
+	}
+
+	/**
+	 * Returns the player's copy of the game or null if it has not begun.
+	 * @return
+	 */
+	public CluedoGame getGame(){ return game; }
+}
@@ -0,0 +1,420 @@
+package cluedo.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import cluedo.model.Board;
+import cluedo.model.Card;
+import cluedo.model.Cards;
+import cluedo.model.CharacterToken;
+import cluedo.model.CluedoGame;
+import cluedo.model.GameEvent;
+import cluedo.model.GameLog;
+import cluedo.model.GameSnapshot;
+
+/**
+ * A game hosted by a GameServer. The server holds the real game and
+ * 	carries out the actions its clients send, checking each is allowed.
+ * 	After every action the new events are sent to each player as they
+ * 	would see them, see GameEvent.seenBy. Once begun the game is only
+ * 	used by the tasks of its Session.
+ *
+ * 	Players who leave are skipped: their turns end at once and they show
+ * 	the first card they can when asked to refute.
+ *
+ * 	Spectators are sent what someone not playing would see, see Audience.
+ * @author Patrick
+ *
+ */
+class ServerGame implements GameLog.Listener {
+
+	private final Board board;
+	// the room the game was joined through and the players wanted
+	private final String room;
+	private final int players;
+	// the client in each seat, null once they have left
+	private final List<Connection> seats = new ArrayList<Connection>();
+	private final List<String> names = new ArrayList<String>();
+	private final Audience audience = new Audience();
+	private CluedoGame game;
+	// the session running the game once it has all its players
+	Session session;
+
+	// the number of events sent to the players
+	private int sent;
+	// what spectators see of the whole game, made again once events are sent
+	private ByteBuffer publicState;
+	// true once the current player has taken the secret passage this turn
+	private boolean usedStairs;
+	// the suggestion waiting for its refuter to choose a card, or null
+	private Card[] pending;
+	private CharacterToken refuter;
+
+	/**
+	 * Creates a game waiting for its players.
+	 * @param board
+	 * @param room
+	 * @param players the number of players, 2 to 6
+	 */
+	ServerGame(Board board, String room, int players) {
+		this.board = board;
+		this.room = room;
+		this.players = players;
+	}
+
+	/**
+	 * Seats a client at the game.
+	 * @param client
+	 * @param name
+	 */
+	void join(Connection client, String name) {
+		client.game = this;
+		client.seat = seats.size();
+		seats.add(client);
+		names.add(name);
+	}
+
+	/**
+	 * Adds a spectator to the game, sending them the game if it has begun.
+	 * @param client
+	 */
+	void watch(Connection client) {
+		client.game = this;
+		client.seat = -1;
+		audience.add(client);
+		if(started()) audience.send(client, state(-1));
+	}
+
+	/**
+	 * Takes a client away from a game which has not begun.
+	 * @param client
+	 */
+	void leaveBeforeStart(Connection client) {
+		if(client.seat < 0){
+			audience.remove(client);
+			return;
+		}
+		int seat = seats.indexOf(client);
+		seats.remove(seat);
+		names.remove(seat);
+		for(int i = seat; i < seats.size(); i++){
+			seats.get(i).seat = i;
+		}
+	}
+
+	/**
+	 * Deals the cards, sends each player what they can see of the game and begins it.
+	 */
+	void start() {
+		List<CharacterToken> tokens = new ArrayList<CharacterToken>(players);
+		CluedoGame.Character[] characters = CluedoGame.Character.values();
+		for(int i = 0; i < players; i++){
+			tokens.add(new CharacterToken(names.get(i), i + 1, characters[i].toString()));
+		}
+		game = new CluedoGame(board, tokens);
+		for(int i = 0; i < players; i++){
+			seats.get(i).send(state(i));
+		}
+		if(audience.size() > 0) audience.publish(state(-1));
+		game.addLogListener(this);
+		game.begin();
+	}
+
+	/**
+	 * Returns what a player can see of the whole game. What spectators
+	 * 	see is made once for all of them until the game changes.
+	 * @param seat or -1 for a spectator
+	 * @return
+	 */
+	private ByteBuffer state(int seat) {
+		if(seat < 0 && publicState != null) return publicState;
+		ByteBuffer snapshot = GameSnapshot.encodeFor(game, seat);
+		ByteBuffer state = Protocol.frame(Protocol.STATE, 1 + snapshot.remaining());
+		state.put((byte) seat).put(snapshot).flip();
+		if(seat < 0) publicState = state.asReadOnlyBuffer();
+		return state;
+	}
+
+	/**
+	 * Sends the events of the action just logged to every player still
+	 * 	here, in one message for each player.
+	 */
+	@Override
+	public void actionLogged(GameLog log) {
+		int count = log.size() - sent;
+		if(count == 0) return;
+		long[] events = new long[count];
+		for(int i = 0; i < count; i++){
+			events[i] = log.get(sent + i);
+			int type = GameEvent.type(events[i]);
+			if(type == GameEvent.BEGIN || type == GameEvent.END_TURN) usedStairs = false;
+			else if(type == GameEvent.STAIRS) usedStairs = true;
+		}
+		// the events are the same for everyone unless a card is hidden,
+		// 	and those who do not see it see what spectators see
+		long[] seen = new long[count];
+		boolean hidden = false;
+		for(int j = 0; j < count; j++){
+			seen[j] = GameEvent.seenBy(log, sent + j, -1);
+			hidden |= seen[j] != events[j];
+		}
+		ByteBuffer shared = Protocol.events(sent, events, count);
+		ByteBuffer seenByAll = hidden ? Protocol.events(sent, seen, count) : shared;
+		for(int i = 0; i < seats.size(); i++){
+			Connection c = seats.get(i);
+			if(c == null) continue;
+			boolean same = true;
+			for(int j = 0; j < count && hidden; j++){
+				same &= GameEvent.seenBy(log, sent + j, i) == events[j];
+			}
+			c.send(same ? shared : seenByAll);
+		}
+		audience.publish(seenByAll);
+		publicState = null;
+		sent += count;
+	}
+
+	/**
+	 * Carries out an action sent by a player.
+	 * @param client
+	 * @param type
+	 * @param message
+	 */
+	void handle(Connection client, byte type, ByteBuffer message) {
+		if(!started()){
+			error(client, "The game has not begun");
+			return;
+		}
+		if(type == Protocol.RESYNC){
+			// the game still waiting to be sent answers the request already
+			if(client.waiting(Protocol.STATE)) return;
+			if(client.seat < 0) audience.send(client, state(-1));
+			else client.send(state(client.seat));
+			return;
+		}
+		if(client.seat < 0){
+			error(client, "Spectators cannot play");
+			return;
+		}
+		if(game.isOver()){
+			error(client, "The game is over");
+			return;
+		}
+		CharacterToken player = game.getActivePlayers().get(client.seat);
+		if(type == Protocol.REFUTE){
+			refute(client, player, card(message));
+			return;
+		}
+		if(player != game.getCurrentPlayer()){
+			error(client, "It is not your turn");
+			return;
+		}
+		if(pending != null){
+			error(client, "Waiting for " + refuter.getName() + " to refute");
+			return;
+		}
+		switch(type){
+			case Protocol.ROLL:
+				if(game.hasRolled() || usedStairs) error(client, "You have already moved");
+				else game.rollDice();
+				break;
+			case Protocol.STAIRS:
+				if(game.hasRolled() || usedStairs) error(client, "You have already moved");
+				else if(!game.canUseStairs(player)) error(client, "There is no secret passage here");
+				else game.useStairs(player);
+				break;
+			case Protocol.MOVE:
+				int square = message.getInt();
+				if(!game.hasRolled()) error(client, "Roll the dice first");
+				else if(square < 0 || square >= board.size() || game.destination(player, square) < 0){
+					error(client, "You cannot reach that square");
+				}
+				else game.moveTo(player, square);
+				break;
+			case Protocol.SUGGEST:
+				suggest(client, player, card(message), card(message));
+				break;
+			case Protocol.ACCUSE:
+				Card suspect = card(message);
+				Card weapon = card(message);
+				Card room = card(message);
+				if(!(suspect instanceof CluedoGame.Character) || !(weapon instanceof CluedoGame.Weapon)
+						|| !(room instanceof CluedoGame.Room)){
+					error(client, "That is not an accusation");
+				}
+				else if(!game.accuse(suspect, weapon, room)) endTurn();
+				break;
+			case Protocol.END_TURN:
+				endTurn();
+				break;
+			default:
+				error(client, "Unknown message " + type);
+		}
+	}
+
+	/**
+	 * Makes a suggestion for the current player. If the refuter has a
+	 * 	choice of cards and is still here they are asked which to show,
+	 * 	and the suggestion waits for their answer.
+	 * @param client
+	 * @param player
+	 * @param suspect
+	 * @param weapon
+	 */
+	private void suggest(Connection client, CharacterToken player, Card suspect, Card weapon) {
+		if(!(suspect instanceof CluedoGame.Character) || !(weapon instanceof CluedoGame.Weapon)){
+			error(client, "That is not a suggestion");
+			return;
+		}
+		if(!player.inRoom() || player.suggested){
+			error(client, "You cannot suggest now");
+			return;
+		}
+		int suggested = Cards.bit(suspect) | Cards.bit(weapon) | Cards.bit(player.getRoom());
+		for(CharacterToken p = game.playerAfter(player); p != player; p = game.playerAfter(p)){
+			int cards = p.getHandMask() & suggested;
+			if(cards == 0) continue;
+			Connection other = seats.get(p.getUid() - 1);
+			if(Integer.bitCount(cards) > 1 && other != null){
+				pending = new Card[]{ suspect, weapon };
+				refuter = p;
+				other.send(Protocol.message(Protocol.ASK_REFUTE, cards));
+				return;
+			}
+			break;
+		}
+		finishSuggestion(suspect, weapon, null);
+	}
+
+	/**
+	 * Shows the card a refuter chose to the suggester.
+	 * @param client
+	 * @param player
+	 * @param card
+	 */
+	private void refute(Connection client, CharacterToken player, Card card) {
+		if(pending == null || player != refuter){
+			error(client, "You have not been asked to refute");
+			return;
+		}
+		if(card == null || (player.getHandMask() & Cards.bit(card) & suggestedCards()) == 0){
+			error(client, "You cannot show that card");
+			return;
+		}
+		finishSuggestion(pending[0], pending[1], card);
+	}
+
+	/**
+	 * Makes the suggestion waiting to be refuted in the real game.
+	 * @param suspect
+	 * @param weapon
+	 * @param card the card the refuter chose, or null to show their first
+	 */
+	private void finishSuggestion(Card suspect, Card weapon, final Card card) {
+		pending = null;
+		refuter = null;
+		game.suggest((CluedoGame.Character) suspect, (CluedoGame.Weapon) weapon, new CluedoGame.CardChooser(){
+			@Override
+			public Card choose(CharacterToken refuter, List<Card> cards) {
+				return card != null && cards.contains(card) ? card : cards.get(0);
+			}
+		});
+	}
+
+	/**
+	 * Returns the bits of the cards in the suggestion waiting to be refuted.
+	 * @return
+	 */
+	private int suggestedCards() {
+		return Cards.bit(pending[0]) | Cards.bit(pending[1]) | Cards.bit(game.getCurrentPlayer().getRoom());
+	}
+
+	/**
+	 * Ends the current turn, skipping the turns of players who have left.
+	 */
+	private void endTurn() {
+		do {
+			game.nextPlayer();
+		} while(!game.isOver() && !abandoned() && seats.get(game.getCurrentPlayer().getUid() - 1) == null);
+	}
+
+	/**
+	 * Takes a player who has left out of the game.
+	 * @param client
+	 */
+	void leave(Connection client) {
+		if(client.seat < 0){
+			audience.remove(client);
+			return;
+		}
+		seats.set(client.seat, null);
+		if(game.isOver()) return;
+		if(abandoned()){
+			// players out of the game who are still here can only watch it stop
+			for(Connection c: seats){
+				if(c != null) error(c, "Every player still in the game has left");
+			}
+			return;
+		}
+		CharacterToken player = game.getActivePlayers().get(client.seat);
+		if(pending != null){
+			// the suggester left, or the refuter who shows their first card instead
+			if(player == refuter) finishSuggestion(pending[0], pending[1], null);
+			else pending = null;
+		}
+		if(player == game.getCurrentPlayer()) endTurn();
+	}
+
+	/**
+	 * Reads the number of a card sent by a client.
+	 * @param message
+	 * @return the card or null if there is no such card
+	 */
+	private static Card card(ByteBuffer message) {
+		int id = message.get();
+		return id >= 0 && id < Cards.COUNT ? Cards.card(id) : null;
+	}
+
+	private static void error(Connection client, String reason) {
+		client.send(Protocol.message(Protocol.ERROR, reason));
+	}
+
+	/**
+	 * Returns true once every player has left, or once the game has begun
+	 * 	and every player still in it has left, as no one is left to take a turn.
+	 * @return
+	 */
+	boolean abandoned() {
+		for(int i = 0; i < seats.size(); i++){
+			if(seats.get(i) != null && (game == null || game.getActivePlayers().get(i).active)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns roughly how many bytes the game and its clients hold, see CluedoGame.footprint.
+	 * @return
+	 */
+	long footprint() {
+		long bytes = 96 + 48L * seats.size() + audience.footprint();
+		for(Connection c: seats){
+			if(c != null) bytes += c.footprint();
+		}
+		CluedoGame game = this.game;
+		return game == null ? bytes : bytes + game.footprint();
+	}
+
+	/*
+	 * Getter methods
+	 */
+	String room(){ return room; }
+	int players(){ return players; }
+	/**
+	 * Returns true once every player has joined.
+	 * @return
+	 */
+	boolean isFull(){ return seats.size() == players; }
+	boolean started(){ return game != null; }
+	boolean isOver(){ return game != null && game.isOver(); }
+}
@@ -0,0 +1,91 @@
+package cluedo.net;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * A game running in a SessionHost. The session carries out the tasks of
+ * 	its game one at a time and in the order they were given, on whichever
+ * 	of the host's threads is free, so the game is never changed by two
+ * 	threads at once. A session holds no thread while it has nothing to do,
+ * 	so a game waiting on its players costs only its memory.
+ * @author Patrick
+ *
+ */
+class Session implements Executor {
+
+	// the number of tasks run before the thread is given to other sessions
+	private static final int BATCH = 64;
+
+	private final SessionHost host;
+	private final ServerGame game;
+	// the tasks waiting to run, and true while they wait for or run on a thread
+	private final ArrayDeque<Runnable> tasks = new ArrayDeque<Runnable>();
+	private boolean scheduled;
+
+	private final Runnable drain = new Runnable(){
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
+	Session(SessionHost host, ServerGame game) {
+		this.host = host;
+		this.game = game;
+	}
+
+	/**
+	 * Runs a task once the tasks given before it have run.
+	 * @param task
+	 */
+	@Override
+	public void execute(Runnable task) {
+		synchronized(this){
+			tasks.add(task);
+			if(scheduled) return;
+			scheduled = true;
+		}
+		host.schedule(drain);
+	}
+
+	/**
+	 * Runs the waiting tasks, handing the thread back after a batch so
+	 * 	a busy game cannot hold up the others.
+	 */
+	private void drain() {
+		for(int i = 0; i < BATCH; i++){
+			Runnable task;
+			synchronized(this){
+				task = tasks.poll();
+				if(task == null){
+					scheduled = false;
+					return;
+				}
+			}
+			try{
+				task.run();
+			} catch(RuntimeException e){
+				// a mistake in one game must not stop the others
+				System.out.println("Game in " + game.room() + " failed: " + e);
+			}
+		}
+		host.schedule(drain);
+	}
+
+	/**
+	 * Takes the session out of its host once the game is over or abandoned.
+	 * 	Tasks still given to it are run, so late messages are answered.
+	 */
+	void close() {
+		host.closed(this);
+	}
+
+	/**
+	 * Returns roughly how many bytes the session holds, see CluedoGame.footprint.
+	 * @return
+	 */
+	long footprint() {
+		return 64 + game.footprint();
+	}
+}
@@ -0,0 +1,97 @@
+package cluedo.net;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the games of a GameServer, each in a Session of its own. A few
+ * 	threads are shared by every session, so thousands of games can be
+ * 	hosted at once without a thread for each: a game only takes a thread
+ * 	while it has messages to act on.
+ * @author Patrick
+ *
+ */
+class SessionHost {
+
+	private final ExecutorService threads;
+	// the games being played
+	private final Set<Session> sessions = Collections.newSetFromMap(new ConcurrentHashMap<Session, Boolean>());
+
+	/**
+	 * Creates a host running its games on a number of threads.
+	 * @param threads
+	 */
+	SessionHost(int threads) {
+		final AtomicInteger count = new AtomicInteger();
+		this.threads = Executors.newFixedThreadPool(threads, new ThreadFactory(){
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "game-session-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Creates a session for a game which is about to begin.
+	 * @param game
+	 * @return
+	 */
+	Session open(ServerGame game) {
+		Session session = new Session(this, game);
+		sessions.add(session);
+		return session;
+	}
+
+	/**
+	 * Runs the tasks of a session on a free thread.
+	 * @param drain
+	 */
+	void schedule(Runnable drain) {
+		try{
+			threads.execute(drain);
+		} catch(RejectedExecutionException e){
+			// the host has shut down and its games with it
+		}
+	}
+
+	void closed(Session session) {
+		sessions.remove(session);
+	}
+
+	/**
+	 * Stops the threads, dropping the tasks of every game.
+	 */
+	void shutdown() {
+		threads.shutdownNow();
+		sessions.clear();
+	}
+
+	/**
+	 * Returns roughly how many bytes the games hold, see CluedoGame.footprint.
+	 * @return
+	 */
+	long footprint() {
+		long bytes = 0;
+		for(Session s: sessions){
+			bytes += s.footprint();
+		}
+		return bytes;
+	}
+
+	/*
+	 * Getter methods
+	 */
+	/**
+	 * Returns the number of games being played.
+	 * @return
+	 */
+	int size(){ return sessions.size(); }
+}
@@ -0,0 +1,118 @@
+package cluedo.view;
+
+import cluedo.model.Card;
+import cluedo.model.CluedoGame;
+
+/**
+ * Represents every image in the image folder used by the game.
+ * @author Patrick
+ *
+ */
+public enum Asset {
+	// card images - source: game-board.blogspot.co.nz/2008/05/clue-characters-board-game-vs-clue.html
+	SCARLETT_CARD("scarlett-card.png"),
+	MUSTARD_CARD("mustard-card.png"),
+	WHITE_CARD("white-card.png"),
+	GREEN_CARD("green-card.png"),
+	PEACOCK_CARD("peacock-card.png"),
+	PLUM_CARD("plum-card.png"),
+	CANDLESTICK_CARD("candlestick-card.png"),
+	KNIFE_CARD("knife-card.png"),
+	PIPE_CARD("pipe-card.png"),
+	REVOLVER_CARD("revolver-card.png"),
+	ROPE_CARD("rope-card.png"),
+	WRENCH_CARD("wrench-card.png"),
+	KITCHEN_CARD("kitchen-card.png"),
+	BALL_ROOM_CARD("ballroom-card.png"),
+	CONSERVATORY_CARD("conservatory-card.png"),
+	BILLIARD_ROOM_CARD("billiard-card.png"),
+	LIBRARY_CARD("library-card.png"),
+	STUDY_CARD("study-card.png"),
+	HALL_CARD("hall-card.png"),
+	LOUNGE_CARD("lounge-card.png"),
+	DINING_ROOM_CARD("diningroom-card.png"),
+	// token images drawn on the board
+	SCARLETT("scarlett.png"),
+	MUSTARD("mustard.png"),
+	WHITE("white.png"),
+	GREEN("green.png"),
+	PEACOCK("peacock.png"),
+	PLUM("plum.png"),
+	CANDLESTICK("candlestick.png"),
+	KNIFE("knife.png"),
+	PIPE("pipe.png"),
+	REVOLVER("revolver.png"),
+	ROPE("rope.png"),
+	WRENCH("wrench.png"),
+	// dice faces
+	DICE1("dice1.png"),
+	DICE2("dice2.png"),
+	DICE3("dice3.png"),
+	DICE4("dice4.png"),
+	DICE5("dice5.png"),
+	DICE6("dice6.png"),
+	// menu icons
+	EXIT("exit.png"),
+	NEW("new.png"),
+	HELP("help.png");
+
+	// Path to the images used in the game
+	private static final String IMAGE_PATH = "images/";
+
+	// Stores the file name of this image
+	private final String file;
+
+	private Asset(String file){
+		this.file = file;
+	}
+
+	/**
+	 * Returns the path of the image file.
+	 * @return
+	 */
+	public String path(){
+		return IMAGE_PATH + file;
+	}
+
+	/**
+	 * Returns the image of a card.
+	 * @param card
+	 * @return
+	 */
+	public static Asset card(Card card){
+		if(card instanceof CluedoGame.Character){
+			return values()[SCARLETT_CARD.ordinal() + ((CluedoGame.Character) card).ordinal()];
+		}
+		if(card instanceof CluedoGame.Weapon){
+			return values()[CANDLESTICK_CARD.ordinal() + ((CluedoGame.Weapon) card).ordinal()];
+		}
+		return values()[KITCHEN_CARD.ordinal() + ((CluedoGame.Room) card).ordinal()];
+	}
+
+	/**
+	 * Returns the image drawn on the board for a character.
+	 * @param character
+	 * @return
+	 */
+	public static Asset token(CluedoGame.Character character){
+		return values()[SCARLETT.ordinal() + character.ordinal()];
+	}
+
+	/**
+	 * Returns the image drawn on the board for a weapon.
+	 * @param weapon
+	 * @return
+	 */
+	public static Asset token(CluedoGame.Weapon weapon){
+		return values()[CANDLESTICK.ordinal() + weapon.ordinal()];
+	}
+
+	/**
+	 * Returns the image of a die showing a roll from 1 to 6.
+	 * @param roll
+	 * @return
+	 */
+	public static Asset dice(int roll){
+		return values()[DICE1.ordinal() + roll - 1];
+	}
+}
@@ -0,0 +1,143 @@
+package cluedo.view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import cluedo.model.CluedoGame;
+
+/**
+ * Decodes all of the game's images into the ImageCache on
+ * 	background threads so the gui does not wait for them.
+ * 	Anyone who needs an image before it has been loaded
+ * 	only waits for that one image.
+ * @author Patrick
+ *
+ */
+public class AssetLoader {
+
+	// the images in the order they are needed by the gui
+	private final List<Asset> assets;
+	// number of images decoded so far
+	private final AtomicInteger loaded = new AtomicInteger();
+	// objects told on the event thread when an image has been decoded
+	private final List<ChangeListener> listeners = new ArrayList<ChangeListener>();
+
+	private AssetLoader(List<Asset> assets){
+		this.assets = assets;
+	}
+
+	/**
+	 * Starts decoding every image on a pool of background threads.
+	 * @return loader tracking the progress
+	 */
+	public static AssetLoader start(){
+		AssetLoader loader = new AssetLoader(loadOrder());
+		loader.run();
+		return loader;
+	}
+
+	/**
+	 * Returns every image, with the ones the gui shows first at the front.
+	 * @return
+	 */
+	private static List<Asset> loadOrder(){
+		Set<Asset> order = new LinkedHashSet<Asset>();
+		// the menu and dice are shown as soon as the window opens
+		order.addAll(Arrays.asList(Asset.EXIT, Asset.NEW, Asset.HELP));
+		for(int roll = 1; roll <= 6; roll++){
+			order.add(Asset.dice(roll));
+		}
+		// then the tokens drawn on the board
+		for(CluedoGame.Character c: CluedoGame.Character.values()){
+			order.add(Asset.token(c));
+		}
+		for(CluedoGame.Weapon w: CluedoGame.Weapon.values()){
+			order.add(Asset.token(w));
+		}
+		// then the cards shown once the game begins
+		order.addAll(Arrays.asList(Asset.values()));
+		return new ArrayList<Asset>(order);
+	}
+
+	/**
+	 * Submits a task to decode each image.
+	 */
+	private void run(){
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), assets.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory(){
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "asset-loader-" + count.incrementAndGet());
+				// loading images should never stop the program from exiting
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		for(Asset asset: assets){
+			executor.execute(new Runnable(){
+				@Override
+				public void run() {
+					ImageCache.image(asset);
+					loaded.incrementAndGet();
+					fireChanged();
+				}
+			});
+		}
+		// threads finish once every image has been decoded
+		executor.shutdown();
+	}
+
+	/**
+	 * Tells the listeners on the event thread that another image has loaded.
+	 */
+	private void fireChanged(){
+		SwingUtilities.invokeLater(new Runnable(){
+			@Override
+			public void run() {
+				ChangeEvent e = new ChangeEvent(AssetLoader.this);
+				for(ChangeListener l: listeners){
+					l.stateChanged(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Adds an object to be told on the event thread when an image has loaded.
+	 * 	Must be called on the event thread.
+	 * @param listener
+	 */
+	public void addChangeListener(ChangeListener listener){
+		listeners.add(listener);
+	}
+
+	/**
+	 * Returns the number of images decoded so far.
+	 * @return
+	 */
+	public int loaded(){ return loaded.get(); }
+
+	/**
+	 * Returns the number of images to decode.
+	 * @return
+	 */
+	public int total(){ return assets.size(); }
+
+	/**
+	 * Returns true once every image has been decoded.
+	 * @return
+	 */
+	public boolean isDone(){ return loaded() == total(); }
+}
@@ -1,539 +1,366 @@
 package cluedo.view;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.GridLayout;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Scanner;
 
-import javax.swing.ImageIcon;
-import javax.swing.JButton;
-import javax.swing.JPanel;
+import javax.swing.JComponent;
 import javax.swing.border.EmptyBorder;
-import javax.swing.border.LineBorder;
 
 import cluedo.control.CluedoFrame;
+import cluedo.model.Board;
 import cluedo.model.CharacterToken;
-import cluedo.model.CluedoGame.Room;
+import cluedo.model.CluedoGame;
+import cluedo.model.GameListener;
 import cluedo.model.Position;
+import cluedo.model.ReachableSquares;
+import cluedo.model.SuggestionResult;
+import cluedo.model.Token;
 import cluedo.model.WeaponToken;
 
 /**
- * This class represents the cluedo board for the game
+ * This class represents the cluedo board for the game.
+ * 	It is a single component which paints the squares and tokens
+ * 	of the headless board and game, works out which square was
+ * 	clicked, and repaints only the squares a token moved between.
  * @author Patrick
  *
  */
-public class CluedoBoard {
+@SuppressWarnings("serial")
+public class CluedoBoard extends JComponent implements GameListener {
 
-	// Path to the images used on the board
-	private static final String IMAGE_PATH = "images/";
-	
-	// Stores the height and width of the board
-	private int HEIGHT = 0;
-	private int WIDTH = 0;
+	// squares are 24x24 px in size unless the board is resized
+	private static final int TILE_SIZE = 24;
+	// larger boards start with smaller squares so they fit on the screen
+	private static final int MAX_PREFERRED_SIZE = 800;
 
-	// The board is made up of a 2D array of Jbuttons
-	private Tile[][] boardSquares = new Tile[22][22];
-	// field to store the board panel
-	private JPanel board;
-	// field to stores the player starting tiles
-	private List<HallwayTile> startTiles = new ArrayList<HallwayTile>();
-	// field to store the weapon tokens in the game
-	private List<WeaponToken> weaponTokens = new ArrayList<WeaponToken>();
+	// Colours of the different kinds of square
+	private static final Color HALLWAY_COLOR = Color.decode("#525564");
+	private static final Color HALLWAY_BORDER = Color.decode("#BEB9B5").darker();
+	private static final Color DOORWAY_COLOR = new Color(85,60,45).brighter();
+	private static final Color ROOM_COLOR = Color.decode("#660000").brighter();
+	private static final Color WALL_COLOR = Color.decode("#BEB9B5").darker();
+	private static final Color HIGHLIGHT_COLOR = new Color(255, 230, 120, 110);
+
+	// the board this view is drawn from
+	private Board model;
+	// the game whose tokens are drawn or null if none
+	private CluedoGame game;
+	// the squares the current player can reach or null if none are shown
+	private ReachableSquares highlight;
+	// the squares covering the highlighted squares, x and y from min to max,
+	// 	or null if none are highlighted
+	private Rectangle highlightArea;
 	// reference to the gui
 	private CluedoFrame parent;
 
 	/**
-	 * Creates the board from a file and a reference to the gui.
-	 * @param boardFile
+	 * Creates the board view from a board and a reference to the gui.
+	 * @param model
 	 * @param frame
 	 */
-	public CluedoBoard(String boardFile, CluedoFrame frame) {
+	public CluedoBoard(Board model, CluedoFrame frame) {
+		this.model = model;
 		this.parent = frame;
-		// initialise the board squares from file
-		initSquares(boardFile);
 		// initialise the board
 		initBoard();
-		// initialise the weapon tokens
-		initWeapons();
-	}
-
-	/**
-	 * Scans a text file and constructs a 2D array
-	 * 	of board squares
-	 * @param boardFile
-	 */
-	private void initSquares(String boardFile){
-		Scanner scanner = null;
-		try{
-			// Creating the scanner on the board file
-			scanner = new Scanner(new File(boardFile));
-			for(HEIGHT=0; scanner.hasNextLine(); HEIGHT++){
-				// reading a line of text
-				char[] line = scanner.nextLine().toCharArray();
-				for(WIDTH=0; WIDTH < line.length; WIDTH++){
-					// read the text character
-					char c = line[WIDTH];
-					Tile b;
-					// If character is a digit, then make tile a player starting location
-					if(Character.isDigit(c)){
-						int digit = Character.digit(c, 10);
-						// Create this tile as a player starting tile
-						b = new HallwayTile('H');
-						((HallwayTile) b).setStartCharacter(digit);
-						startTiles.add((HallwayTile) b);
-					} else {
-						// get the tile represented by the character
-						b = (Tile) getTile(c);
-					}
-					// set the tile on the board
-					boardSquares[WIDTH][HEIGHT] = b;
-				}
-			}
-		} catch(IOException e){
-			// board reading failed
-			System.out.println("Board file reading fail: " + e.getMessage());
-		}
 	}
 
 	/**
 	 * Initlises the cluedo board and adds it to
 	 * 	the parent board frame
-	 * @param frame
 	 */
 	private void initBoard() {
 		// Setting the parent frame border
 		parent.getGui().setBorder(new EmptyBorder(6, 12, 6, 12));
-		// Setting up the board
-		board = new JPanel(new GridLayout(22, 22));
-        board.setBorder(new LineBorder(Color.BLACK));
-        // Adding the board to the frame
-        parent.getGui().add(board);
-        // Adding all the board squares to the board
-        for (int ii = 0; ii < HEIGHT; ii++) {
-            for(int jj = 0; jj < WIDTH; jj++) {
-            	// Added a mouse listener and setting position
-            	// 	before adding to the board
-            	boardSquares[jj][ii].addMouseListener(parent);
-            	boardSquares[jj][ii].setPos(new Position(jj,ii));
-            	board.add(boardSquares[jj][ii]);
-            }
-        }
+		// Setting up the board size
+		int tile = Math.min(TILE_SIZE, MAX_PREFERRED_SIZE / Math.max(model.width(), model.height()));
+		tile = Math.max(tile, 1);
+		setPreferredSize(new Dimension(model.width()*tile + 2, model.height()*tile + 2));
+		setOpaque(true);
+		// Enables tool tips, the text is worked out from the mouse position
+		setToolTipText("");
+		// Clicks are passed on to the gui
+		addMouseListener(parent);
+		// Adding the board to the frame
+		parent.getGui().add(this);
 	}
 
 	/**
-	 * Initialises the players onto the board.
-	 * @param list of players
+	 * Draws the tokens of a game and repaints
+	 * 	the board whenever they move. A game replacing
+	 * 	another only repaints the squares either had tokens on.
+	 * @param game
 	 */
-	public void initPlayers(List<CharacterToken> players) {
-		for(HallwayTile t: startTiles){
-			for(CharacterToken p: players){
-				if(t.getStartCharacter() != null){
-					if(p.getCharacter().toString().equalsIgnoreCase(
-							t.getStartCharacter().toString())){
-						initCharacterTile(t, p.getCharacter().toString(), p.getName());
-						//t.setCharacter(p);
-						p.setTile(t);
-						p.setPos(t.pos());
-					}
-				}
-			}
+	public void setGame(CluedoGame game) {
+		CluedoGame old = this.game;
+		if(old != null) old.removeListener(this);
+		this.game = game;
+		game.addListener(this);
+		if(old == null){
+			repaint();
+			return;
 		}
+		repaintTokens(old);
+		repaintTokens(game);
 	}
-	
+
 	/**
-	 * Add weapons to the board.
+	 * Repaints the squares the tokens of a game stand on.
+	 * @param game
 	 */
-	public void initWeapons(){
-		weaponTokens.add(new WeaponToken("CANDLESTICK"));
-		weaponTokens.add(new WeaponToken("KNIFE"));
-		weaponTokens.add(new WeaponToken("LEAD_PIPE"));
-		weaponTokens.add(new WeaponToken("REVOLVER"));
-		weaponTokens.add(new WeaponToken("ROPE"));
-		weaponTokens.add(new WeaponToken("WRENCH"));
-		placeWeapons();
+	private void repaintTokens(CluedoGame game) {
+		for(CharacterToken p: game.getActivePlayers()){
+			repaintSquare(p.pos());
+		}
+		for(WeaponToken w: game.getWeapons()){
+			repaintSquare(w.pos());
+		}
 	}
-	
+
+	@Override
+	public void tokenMoved(Token token, Position from, Position to) {
+		// only the squares the token left and entered need repainting
+		repaintSquare(from);
+		repaintSquare(to);
+	}
+
+	@Override
+	public void suggestionMade(SuggestionResult result) {
+		// suggestions do not change the board
+	}
+
+	@Override
+	public void accusationFailed(CharacterToken accuser, int cards) {
+		// the accuser's token stays where it is
+	}
+
 	/**
-	 * Puts all the weapons in random rooms
+	 * Highlights the squares found by a search, or removes
+	 * 	the highlighting if the search is null.
+	 * @param reachable
 	 */
-	private void placeWeapons(){
-		boolean finishedAll = false;
-		List<Room> rooms = new ArrayList<Room>(Arrays.asList(
-				Room.BALL_ROOM, Room.BILLIARD_ROOM, Room.CONSERVATORY,
-				Room.DINING_ROOM, Room.HALL, Room.KITCHEN,
-				Room.LIBRARY, Room.LOUNGE, Room.STUDY));
-		WeaponToken weapon = weaponTokens.get(0);
-		for(int i = 0; i < HEIGHT; i++){
-			for(int j = 0; j < WIDTH; j++){
-				if(boardSquares[i][j] instanceof RoomTile){
-					RoomTile rTile = (RoomTile)boardSquares[i][j];
-					if(rooms.contains(rTile.name())){
-						rTile.setWeapon(weapon);
-						weapon.setTile(rTile);
-						rTile.setFancy();
-						rooms.remove(rTile.name());
-						int index = weaponTokens.indexOf(weapon);
-						if(index < weaponTokens.size()-1)
-							weapon = weaponTokens.get(index+1);
-						else{
-							finishedAll = true;
-							break;
-						}
-					}
-				}
-			}
-			if(finishedAll)
-				break;
-		}
+	public void setHighlight(ReachableSquares reachable) {
+		if(highlight == null && reachable == null) return;
+		highlight = reachable;
+		// only the squares highlighted before and after need repainting,
+		// 	which keeps large boards quick
+		repaintArea(highlightArea);
+		highlightArea = reachable == null ? null : area(reachable);
+		repaintArea(highlightArea);
 	}
-	
+
 	/**
-	 * Gets a board tile from a character
-	 * @param c
-	 * @return board tile
+	 * Returns the squares covering every square found by a search.
+	 * @param reachable
+	 * @return
 	 */
-	private JButton getTile(char c) {
-		JButton b = new JButton();
-		switch(c){
-		case 'C':
-		case 'I':
-		case 'L':
-		case 'S':
-		case 'B':
-		case 'A':
-		case 'K':
-		case 'D':
-		case 'O':
-			b = new RoomTile(c);
-			break;
-		case 'd':
-			b = new DoorwayTile(c);
-			break;
-		case 'X':
-			b = new WallTile(c);
-			break;
-		case 'H':
-			b = new HallwayTile(c);
-			break;
+	private Rectangle area(ReachableSquares reachable) {
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = -1;
+		int maxY = -1;
+		for(int i = 0; i < reachable.count(); i++){
+			Position pos = model.position(reachable.square(i));
+			minX = Math.min(minX, pos.getX());
+			minY = Math.min(minY, pos.getY());
+			maxX = Math.max(maxX, pos.getX());
+			maxY = Math.max(maxY, pos.getY());
 		}
-		// tiles are 24x24 px in size
-		ImageIcon icon = new ImageIcon(
-		                new BufferedImage(24, 24, BufferedImage.TYPE_INT_ARGB));
-		b.setIcon(icon);
-		b.setPreferredSize(new Dimension(24, 24));
-		return b;
+		if(maxX < 0) return null;
+		return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
 	}
-	
+
 	/**
-	 * This method redraws the cluedoBoard on the parent
-	 * 	CluedoFrame.
+	 * Repaints a block of squares.
+	 * @param area squares to repaint or null for none
 	 */
-	public void redraw(){
-		parent.getGui().removeAll();
-		parent.getGui().revalidate();
-		
-		parent.getGui().add(board);
-		parent.getGui().revalidate();
-		parent.getGui().repaint();
+	private void repaintArea(Rectangle area) {
+		if(area == null) return;
+		int size = squareSize();
+		repaint(originX() + area.x*size, originY() + area.y*size, area.width*size, area.height*size);
 	}
 
 	/**
-	 * This method creates the character token images and
-	 *  sets the tool tip text.
-	 * @param c
-	 * @return board square jbutton
+	 * Repaints a single square of the board.
+	 * @param pos
 	 */
-	private void initCharacterTile(JButton tile, String charName, String playerName) {
-
-		switch(charName.toUpperCase()){
-			case "MISS SCARLETT":
-				tile.setIcon(new ImageIcon(IMAGE_PATH + "scarlett.png"));
-				tile.setToolTipText(playerName + ": MISS SCARLETT");
-				break;
-			case "COLONEL MUSTARD":
-				tile.setIcon(new ImageIcon(IMAGE_PATH + "mustard.png"));
-				tile.setToolTipText(playerName + ": COLONEL MUSTARD");
-				break;
-			case "THE REVEREND GREEN":
-				tile.setIcon(new ImageIcon(IMAGE_PATH + "green.png"));
-				tile.setToolTipText(playerName + ": THE REVERENED GREEN");
-				break;
-			case "MRS PEACOCK":
-				tile.setIcon(new ImageIcon(IMAGE_PATH + "peacock.png"));
-				tile.setToolTipText(playerName + ": MRS PEACOCK");
-				break;
-			case "PROFESSOR PLUM":
-				tile.setIcon(new ImageIcon(IMAGE_PATH + "plum.png"));
-				tile.setToolTipText(playerName + ": PROFESSOR PLUM");
-				break;
-			case "MRS WHITE":
-				tile.setIcon(new ImageIcon(IMAGE_PATH + "white.png"));
-				tile.setToolTipText(playerName + ": MRS WHITE");
-				break;
-		}
+	public void repaintSquare(Position pos) {
+		if(pos == null) return;
+		repaint(squareBounds(pos.getX(), pos.getY()));
 	}
-	
+
 	/*
-	 * Methods handeling the movement of players around the board.
+	 * Methods working out where the squares are drawn.
 	 */
 	/**
-	 * Checks if a player is able to make a move north
-	 * @param player
+	 * Returns the size squares are drawn at to fit the component.
 	 * @return
 	 */
-	public boolean canMoveNorth(CharacterToken player){
-		// check parameter
-		if(player==null) return false;	
-		// already in north most square
-		if(player.y() - 1 < 0){
-			return false;
-		}
-		
-		// getting player position
-		int xpos = player.x();
-		int ypos = player.y();
-		
-		// Getting the north tile
-		Tile tile = boardSquares[xpos][ypos-1];
-		// Checking if the player can move to the tile
-		if(tile instanceof OccupyableTile){
-			if(!((OccupyableTile) tile).isOccupied()){
-				return true;
-			}
-		}
-		return false;
-	}
-	/**
-	 * Moves a player north on the board
-	 * @param player
-	 */
-	public void moveNorth(CharacterToken player){
-		// Resetting the old tile
-		player.getTile().reset();
-		player.getTile().setCharacter(null);
-		
-		// Get the new tile position
-		Position newPos = new Position(player.x(),player.y()-1);
-		
-		// Setting up the new tile
-		OccupyableTile newTile = (OccupyableTile)boardSquares[newPos.getX()][newPos.getY()];
-		initCharacterTile(newTile, player.getCharacter().toString(), player.getName());
-		newTile.setCharacter(player);
-		
-		// Moving the player to the new position
-		player.setStepsRemaining(player.getStepsRemaining() - 1);
-		player.setPos(newPos);
-		player.setTile((OccupyableTile) newTile);
+	private int squareSize() {
+		int size = Math.min((getWidth() - 2) / model.width(), (getHeight() - 2) / model.height());
+		return Math.max(size, 1);
 	}
+
 	/**
-	 * Checks if a player can move east on the board
-	 * @param player
+	 * Returns the x position of the left edge of the board.
 	 * @return
 	 */
-	public boolean canMoveEast(CharacterToken player){
-		// check parameter
-		if(player==null) return false;	
-		// already in east most square
-		if(player.x() + 1 >= WIDTH){
-			return false;
-		}
-		
-		// Getting player position
-		int xpos = player.x();
-		int ypos = player.y();
-		
-		// Getting the new tile
-		Tile tile = boardSquares[xpos+1][ypos];
-		// Checking if the player can move to the tile
-		if(tile instanceof OccupyableTile){
-			if(!((OccupyableTile) tile).isOccupied()){
-				return true;
-			}
-		}
-		return false;
+	private int originX() {
+		return (getWidth() - squareSize()*model.width()) / 2;
 	}
+
 	/**
-	 * Moves a player east on the board
-	 * @param player
+	 * Returns the y position of the top edge of the board.
+	 * @return
 	 */
-	public void moveEast(CharacterToken player){
-		// Resetting the old tile
-		player.getTile().reset();
-		player.getTile().setCharacter(null);
-		
-		// Getting the new tile position
-		Position newPos = new Position(player.x()+1,player.y());
-		
-		// Getting the new tile
-		OccupyableTile newTile = (OccupyableTile)boardSquares[newPos.getX()][newPos.getY()];
-		initCharacterTile(newTile, player.getCharacter().toString(), player.getName());
-		newTile.setCharacter(player);
-		
-		// Moving the player to the new tile
-		player.setStepsRemaining(player.getStepsRemaining() - 1);
-		player.setPos(newPos);
-		player.setTile((OccupyableTile) newTile);
+	private int originY() {
+		return (getHeight() - squareSize()*model.height()) / 2;
 	}
+
 	/**
-	 * Checks if a player can move south on the board
-	 * @param player
+	 * Returns the area a square is drawn in.
+	 * @param x
+	 * @param y
 	 * @return
 	 */
-	public boolean canMoveSouth(CharacterToken player){
-		// check parameter
-		if(player==null) return false;	
-		// already in south most square
-		if(player.y() + 1 >= HEIGHT){
-			return false;
-		}
-		
-		// Getting player position
-		int xpos = player.x();
-		int ypos = player.y();
-		
-		// Getting the new tile
-		Tile tile = boardSquares[xpos][ypos+1];
-		// Checking if the player can move to the tile
-		if(tile instanceof OccupyableTile){
-			if(!((OccupyableTile) tile).isOccupied()){
-				return true;
-			}
-		}
-		return false;
+	private Rectangle squareBounds(int x, int y) {
+		int size = squareSize();
+		return new Rectangle(originX() + x*size, originY() + y*size, size, size);
 	}
+
 	/**
-	 * Moves a player south on the board
-	 * @param player
+	 * Returns the board position drawn at a point on this component.
+	 * @param px
+	 * @param py
+	 * @return position or null if the point is off the board
 	 */
-	public void moveSouth(CharacterToken player){
-		// Resetting the old tile
-		player.getTile().reset();
-		player.getTile().setCharacter(null);
-		
-		// Getting the new tile position
-		Position newPos = new Position(player.x(),player.y()+1);
-		
-		// Getting the new tile
-		OccupyableTile newTile = (OccupyableTile)boardSquares[newPos.getX()][newPos.getY()];
-		initCharacterTile(newTile, player.getCharacter().toString(), player.getName());
-		newTile.setCharacter(player);
-		
-		// Moving the player to the new tile
-		player.setStepsRemaining(player.getStepsRemaining() - 1);
-		player.setPos(newPos);
-		player.setTile((OccupyableTile) newTile);
+	public Position squareAt(int px, int py) {
+		int size = squareSize();
+		int dx = px - originX();
+		int dy = py - originY();
+		if(dx < 0 || dy < 0) return null;
+		int x = dx / size;
+		int y = dy / size;
+		if(!model.contains(x, y)) return null;
+		return new Position(x, y);
 	}
-	/**
-	 * Checks if a player can move west on the board
-	 * @param player
-	 * @return
+
+	/*
+	 * Painting methods
 	 */
-	public boolean canMoveWest(CharacterToken player){
-		// check parameter
-		if(player==null) return false;	
-		// already in south most square
-		if(player.x() - 1 < 0){
-			return false;
+	@Override
+	protected void paintComponent(Graphics g) {
+		int size = squareSize();
+		int ox = originX();
+		int oy = originY();
+		// painting the background around the board
+		Rectangle clip = g.getClipBounds();
+		if(clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+		if(getBackground() != null){
+			g.setColor(getBackground());
+			g.fillRect(clip.x, clip.y, clip.width, clip.height);
 		}
-		
-		// Getting player position
-		int xpos = player.x();
-		int ypos = player.y();
-		
-		// Getting the new tile
-		Tile tile = boardSquares[xpos-1][ypos];
-		// Checking if the player can move to the tile
-		if(tile instanceof OccupyableTile){
-			if(!((OccupyableTile) tile).isOccupied()){
-				return true;
+		// only the squares inside the area being repainted are painted
+		int minX = Math.max(0, (clip.x - ox) / size);
+		int minY = Math.max(0, (clip.y - oy) / size);
+		int maxX = Math.min(model.width() - 1, (clip.x + clip.width - ox) / size);
+		int maxY = Math.min(model.height() - 1, (clip.y + clip.height - oy) / size);
+		for(int y = minY; y <= maxY; y++){
+			for(int x = minX; x <= maxX; x++){
+				paintSquare(g, x, y, ox + x*size, oy + y*size, size);
 			}
 		}
-		return false;
-	}
-	/**
-	 * Moves a player west on the board
-	 * @param player
-	 */
-	public void moveWest(CharacterToken player){
-		// Resetting the old tile
-		player.getTile().reset();
-		player.getTile().setCharacter(null);
-		
-		// Getting the new tile position
-		Position newPos = new Position(player.x()-1,player.y());
-		
-		// Getting the new tile
-		OccupyableTile newTile = (OccupyableTile)boardSquares[newPos.getX()][newPos.getY()];
-		initCharacterTile(newTile, player.getCharacter().toString(), player.getName());
-		newTile.setCharacter(player);
-		
-		// Moving the player to the new tile
-		player.setStepsRemaining(player.getStepsRemaining() - 1);
-		player.setPos(newPos);
-		player.setTile((OccupyableTile) newTile);
+		// painting the board outline
+		g.setColor(Color.BLACK);
+		g.drawRect(ox - 1, oy - 1, size*model.width() + 1, size*model.height() + 1);
 	}
 
 	/**
-	 * Moves the player to the opposite room.
-	 * @param player
+	 * Paints a single square and the token standing on it.
+	 * @param g
+	 * @param x
+	 * @param y
+	 * @param px
+	 * @param py
+	 * @param size
 	 */
-	public void useStairs(CharacterToken player){
-		boolean moved = false;
-		RoomTile room = ((RoomTile)player.getTile());
-		Room opp = oppositeRoom(room);
-		for(int i = 0; i < WIDTH; i++){
-			for(int j = 0; j < HEIGHT; j++){
-				Tile t = boardSquares[i][j];
-				if(t instanceof RoomTile){
-					RoomTile newTile = (RoomTile)t;
-					if(newTile.name()==opp){
-						
-						// Resetting the old tile
-						player.getTile().reset();
-						player.getTile().setCharacter(null);
-						
-						// Stores player in tile
-						initCharacterTile(newTile, player.getCharacter().toString(), player.getName());
-						newTile.setCharacter(player);
-						
-						// Moving the player to the new tile
-						player.setStepsRemaining(player.getStepsRemaining() - 1);
-						player.setPos(new Position(i, j));
-						player.setTile(newTile);
-						moved = true;
-						break;
-					}
-						
-				}
-			}
-			if(moved)
+	private void paintSquare(Graphics g, int x, int y, int px, int py, int size) {
+		switch(model.kind(x, y)){
+			case Board.HALLWAY:
+				g.setColor(HALLWAY_COLOR);
+				g.fillRect(px, py, size, size);
+				g.setColor(HALLWAY_BORDER);
+				g.drawRect(px, py, size - 1, size - 1);
+				break;
+			case Board.DOORWAY:
+				g.setColor(DOORWAY_COLOR);
+				g.fillRect(px, py, size, size);
 				break;
+			case Board.ROOM:
+				g.setColor(ROOM_COLOR);
+				g.fillRect(px, py, size, size);
+				break;
+			default:
+				g.setColor(WALL_COLOR);
+				g.fillRect(px, py, size, size);
+				break;
+		}
+		// shading the squares the player can move to
+		if(highlight != null && highlight.distance(model.index(x, y)) > 0){
+			g.setColor(HIGHLIGHT_COLOR);
+			g.fillRect(px, py, size, size);
+		}
+		if(game == null) return;
+		Asset asset = tokenImage(game.tokenAt(x, y));
+		if(asset != null){
+			// the cache keeps a copy of the image already drawn at this size
+			BufferedImage image = ImageCache.image(asset, size, size);
+			g.drawImage(image, px, py, null);
 		}
 	}
-	
+
 	/**
-	 * Returns the opposite room to this one.
-	 * @param room
+	 * Returns the image drawn for a token or null if it is not drawn.
+	 * @param token
 	 * @return
 	 */
-	public Room oppositeRoom(Tile room){
-		if(room == null || !(room instanceof RoomTile))
-			return null;
-		RoomTile rTile = (RoomTile)room;
-		switch(rTile.name()){
-			case LOUNGE:
-				return Room.CONSERVATORY;
-			case CONSERVATORY:
-				return Room.LOUNGE;
-			case KITCHEN:
-				return Room.STUDY;
-			case STUDY:
-				return Room.KITCHEN;
+	private Asset tokenImage(Token token) {
+		if(token instanceof CharacterToken){
+			CharacterToken player = (CharacterToken) token;
+			// players who have lost are no longer shown
+			if(!player.active) return null;
+			return Asset.token(player.getCharacter());
+		}
+		if(token instanceof WeaponToken){
+			return Asset.token(((WeaponToken) token).getWeapon());
+		}
+		return null;
+	}
+
+	@Override
+	public String getToolTipText(MouseEvent e) {
+		Position pos = squareAt(e.getX(), e.getY());
+		if(pos == null) return null;
+		if(game != null){
+			Token token = game.tokenAt(pos.getX(), pos.getY());
+			if(token instanceof CharacterToken && ((CharacterToken) token).active){
+				CharacterToken player = (CharacterToken) token;
+				return player.getName() + ": " + player.getCharacter().toString();
+			}
+			if(token instanceof WeaponToken){
+				return ((WeaponToken) token).getWeapon().toString();
+			}
+		}
+		switch(model.kind(pos.getX(), pos.getY())){
+			case Board.ROOM:
+				return model.room(pos.getX(), pos.getY()).toString();
+			case Board.DOORWAY:
+				return "A DOORWAY";
+			case Board.WALL:
+				return "A WALL";
 		}
 		return null;
 	}
@@ -0,0 +1,211 @@
+package cluedo.view;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * A cache shared by the whole program which decodes each image
+ * 	file at most once and hands out the same image and icon objects
+ * 	to everyone who asks for them. Images handed out must not be
+ * 	drawn on.
+ * @author Patrick
+ *
+ */
+public class ImageCache {
+
+	// stands in for an image which could not be read, so that the
+	// 	failure is cached and reported only once
+	private static final BufferedImage MISSING =
+			new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+	// decoded images at their original size
+	private static final ConcurrentMap<Asset, BufferedImage> images =
+			new ConcurrentHashMap<Asset, BufferedImage>();
+	// icons and resized images, keyed by asset and size
+	private static final ConcurrentMap<Key, BufferedImage> scaled =
+			new ConcurrentHashMap<Key, BufferedImage>();
+	private static final ConcurrentMap<Key, ImageIcon> icons =
+			new ConcurrentHashMap<Key, ImageIcon>();
+
+	// counts of requests found in or missing from the cache
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	// total time spent decoding image files
+	private static final AtomicLong decodeNanos = new AtomicLong();
+
+	private ImageCache(){}
+
+	/**
+	 * Returns the image of an asset at its original size.
+	 * @param asset
+	 * @return image or null if it could not be read
+	 */
+	public static BufferedImage image(Asset asset){
+		BufferedImage image = images.get(asset);
+		if(image != null){
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+			// only one thread decodes each file, others wait for its result
+			image = images.computeIfAbsent(asset, ImageCache::decode);
+		}
+		return image == MISSING ? null : image;
+	}
+
+	/**
+	 * Returns the image of an asset resized to fit a width and height.
+	 * @param asset
+	 * @param width
+	 * @param height
+	 * @return image or null if it could not be read
+	 */
+	public static BufferedImage image(Asset asset, int width, int height){
+		Key key = new Key(asset, width, height);
+		BufferedImage image = scaled.get(key);
+		if(image != null){
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+			image = scaled.computeIfAbsent(key, ImageCache::resize);
+		}
+		return image == MISSING ? null : image;
+	}
+
+	/**
+	 * Returns an icon of an asset at its original size.
+	 * @param asset
+	 * @return
+	 */
+	public static ImageIcon icon(Asset asset){
+		return icon(new Key(asset, 0, 0));
+	}
+
+	/**
+	 * Returns an icon of an asset resized to fit a width and height.
+	 * @param asset
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	public static ImageIcon icon(Asset asset, int width, int height){
+		return icon(new Key(asset, width, height));
+	}
+
+	private static ImageIcon icon(Key key){
+		ImageIcon icon = icons.get(key);
+		if(icon != null){
+			hits.incrementAndGet();
+			return icon;
+		}
+		misses.incrementAndGet();
+		return icons.computeIfAbsent(key, ImageCache::createIcon);
+	}
+
+	/**
+	 * Creates an icon of an image.
+	 * @param key
+	 * @return
+	 */
+	private static ImageIcon createIcon(Key key){
+		Image image = key.width == 0 ? image(key.asset) : image(key.asset, key.width, key.height);
+		return image == null ? new ImageIcon() : new ImageIcon(image);
+	}
+
+	/**
+	 * Reads an image file.
+	 * @param asset
+	 * @return image or MISSING if it could not be read
+	 */
+	private static BufferedImage decode(Asset asset){
+		long start = System.nanoTime();
+		try{
+			BufferedImage image = ImageIO.read(new File(asset.path()));
+			if(image != null) return image;
+			System.err.println("Cannot read image " + asset.path() + ": unknown format");
+		} catch(IOException e){
+			System.err.println("Cannot read image " + asset.path() + ": " + e.getMessage());
+		} finally {
+			decodeNanos.addAndGet(System.nanoTime() - start);
+		}
+		return MISSING;
+	}
+
+	/**
+	 * Draws an image at a new size.
+	 * @param key
+	 * @return resized image or MISSING if the image could not be read
+	 */
+	private static BufferedImage resize(Key key){
+		BufferedImage original = image(key.asset);
+		if(original == null) return MISSING;
+		BufferedImage result = new BufferedImage(key.width, key.height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = result.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g.drawImage(original, 0, 0, key.width, key.height, null);
+		g.dispose();
+		return result;
+	}
+
+	/*
+	 * Cache statistics
+	 */
+	/**
+	 * Returns the number of requests answered from the cache.
+	 * @return
+	 */
+	public static long hits(){ return hits.get(); }
+	/**
+	 * Returns the number of requests which had to create an image or icon.
+	 * @return
+	 */
+	public static long misses(){ return misses.get(); }
+	/**
+	 * Returns the total time spent decoding image files in nanoseconds.
+	 * @return
+	 */
+	public static long decodeNanos(){ return decodeNanos.get(); }
+	/**
+	 * Returns true if an asset has already been decoded.
+	 * @param asset
+	 * @return
+	 */
+	public static boolean isLoaded(Asset asset){ return images.containsKey(asset); }
+
+	/**
+	 * Identifies an image of an asset at a particular size.
+	 */
+	private static class Key {
+		private final Asset asset;
+		private final int width;
+		private final int height;
+
+		private Key(Asset asset, int width, int height){
+			this.asset = asset;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if(!(o instanceof Key)) return false;
+			Key k = (Key) o;
+			return asset == k.asset && width == k.width && height == k.height;
+		}
+
+		@Override
+		public int hashCode(){
+			return (asset.ordinal()*31 + width)*31 + height;
+		}
+	}
+}
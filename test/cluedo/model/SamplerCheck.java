@@ -0,0 +1,98 @@
+package cluedo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the chances found by a SolutionSampler against an exact count
+ * 	of every deal agreeing with what a player knows, on a small game
+ * 	where every deal can be counted.
+ *
+ * 	Usage: java cluedo.model.SamplerCheck [deals], built with the sources in src
+ * @author Patrick
+ *
+ */
+public class SamplerCheck {
+
+	// the most a sampled chance may be off by
+	private static final double TOLERANCE = 0.01;
+
+	/**
+	 * Runs the check from the command line, exiting with 1 if it fails.
+	 * @param args
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		long deals = args.length > 0 ? Long.parseLong(args[0]) : 2000000;
+		// three players; the first holds Scarlett, two weapons and three rooms
+		List<CharacterToken> players = new ArrayList<CharacterToken>();
+		players.add(new CharacterToken("Scarlett", 1, "Miss Scarlett"));
+		players.add(new CharacterToken("Mustard", 2, "Colonel Mustard"));
+		players.add(new CharacterToken("White", 3, "Mrs White"));
+		players.get(0).setHandMask(1 << 0 | 1 << 6 | 1 << 7 | 1 << 12 | 1 << 13 | 1 << 14);
+		Deduction knowledge = new Deduction(players, players.get(0));
+		// the second player passes twice and the third shows the rooms
+		knowledge.observe(0, 1 << 1 | 1 << 8 | 1 << 15, 2, 15);
+		knowledge.observe(0, 1 << 2 | 1 << 9 | 1 << 16, 2, 16);
+
+		long[] counts = new long[Cards.COUNT + 1];
+		int[] hands = new int[knowledge.owners()];
+		int left = Cards.ALL;
+		for(int o = 0; o < hands.length; o++){
+			hands[o] = knowledge.held(o);
+			left &= ~hands[o];
+		}
+		count(knowledge, hands, left, counts);
+
+		SolutionSampler sampler = new SolutionSampler(null);
+		sampler.start(knowledge, deals);
+		while(sampler.isRunning()){
+			Thread.sleep(10);
+		}
+		System.out.printf("%d of %d deals accepted, %d agree exactly%n",
+				sampler.accepted(), sampler.tried(), counts[Cards.COUNT]);
+		double worst = 0;
+		for(int id = 0; id < Cards.COUNT; id++){
+			Card card = Cards.card(id);
+			double exact = (double) counts[id] / counts[Cards.COUNT];
+			double sampled = sampler.probability(card);
+			worst = Math.max(worst, Math.abs(exact - sampled));
+			System.out.printf("  %-20s exact %.3f  sampled %.3f%n", card, exact, sampled);
+		}
+		System.out.printf("worst difference %.4f%n", worst);
+		if(worst > TOLERANCE) System.exit(1);
+	}
+
+	/**
+	 * Counts every way of dealing the cards left which agrees with what is
+	 * 	known, and how often each card is in the envelope. Each card goes to
+	 * 	every owner who may hold it and has room for it in turn.
+	 * @param knowledge
+	 * @param hands the cards dealt to each owner so far
+	 * @param left the cards not yet dealt
+	 * @param counts added to for each card in the envelope, the last is the number of deals
+	 */
+	private static void count(Deduction knowledge, int[] hands, int left, long[] counts) {
+		if(left == 0){
+			// every hand is full, so the envelope has three cards
+			int envelope = hands[knowledge.envelope()];
+			if((envelope & Cards.CHARACTER_MASK) == 0 || (envelope & Cards.WEAPON_MASK) == 0
+					|| (envelope & Cards.ROOM_MASK) == 0) return;
+			for(int i = 0; i < knowledge.oneOfCount(); i++){
+				if((hands[knowledge.oneOfOwner(i)] & knowledge.oneOfCards(i)) == 0) return;
+			}
+			counts[Cards.COUNT]++;
+			for(int bits = envelope; bits != 0; bits &= bits - 1){
+				counts[Integer.numberOfTrailingZeros(bits)]++;
+			}
+			return;
+		}
+		int card = Integer.lowestOneBit(left);
+		for(int o = 0; o < hands.length; o++){
+			if((knowledge.notHeld(o) & card) != 0 || Integer.bitCount(hands[o]) == knowledge.size(o)) continue;
+			hands[o] |= card;
+			count(knowledge, hands, left & ~card, counts);
+			hands[o] &= ~card;
+		}
+	}
+}